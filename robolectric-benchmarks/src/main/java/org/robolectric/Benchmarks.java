@@ -0,0 +1,27 @@
+package org.robolectric;
+
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+
+/**
+ * Support for benchmarks that need a Robolectric environment, and so measure whole test classes run by
+ * {@link RobolectricTestRunner}.
+ */
+public class Benchmarks {
+
+  /**
+   * Run the tests of a class, and fail if any of them fail, so a broken benchmark isn't mistaken for a fast one.
+   *
+   * @param testClass The test class.
+   * @return The number of tests run.
+   */
+  public static int runTests(Class<?> testClass) {
+    Result result = new JUnitCore().run(testClass);
+    if (!result.wasSuccessful()) {
+      Failure failure = result.getFailures().get(0);
+      throw new IllegalStateException(failure.getTestHeader() + " failed", failure.getException());
+    }
+    return result.getRunCount();
+  }
+}
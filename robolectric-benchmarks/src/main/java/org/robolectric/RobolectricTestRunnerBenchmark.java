@@ -0,0 +1,54 @@
+package org.robolectric;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Everything {@link RobolectricTestRunner} does around a test: setting up the application and its resources, and
+ * resetting the environment afterwards. The SDK's class loader is shared by every run, so after warmup this
+ * doesn't include instrumenting classes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RobolectricTestRunnerBenchmark {
+
+  @Benchmark
+  @OperationsPerInvocation(EmptyTests.TESTS)
+  public int emptyTest() {
+    return Benchmarks.runTests(EmptyTests.class);
+  }
+
+  @RunWith(RobolectricTestRunner.class)
+  @Config(manifest = Config.NONE, sdk = 23)
+  public static class EmptyTests {
+    static final int TESTS = 5;
+
+    @Test
+    public void test1() {
+    }
+
+    @Test
+    public void test2() {
+    }
+
+    @Test
+    public void test3() {
+    }
+
+    @Test
+    public void test4() {
+    }
+
+    @Test
+    public void test5() {
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package org.robolectric.internal.bytecode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instrumenting framework classes, and defining them together with their superclasses in a new class loader, as
+ * happens for every SDK a test run uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InstrumentingClassLoaderBenchmark {
+  private static final String[] CLASS_NAMES = {
+      "android.app.Activity",
+      "android.content.Intent",
+      "android.view.View",
+      "android.widget.TextView",
+      "android.widget.ListView"
+  };
+
+  private InstrumentationConfiguration config;
+  private URL androidAllUrl;
+  private InstrumentingClassLoader classLoader;
+
+  @Setup
+  public void setUp() {
+    config = InstrumentationConfiguration.newBuilder().build();
+    androidAllUrl = android.R.class.getProtectionDomain().getCodeSource().getLocation();
+    classLoader = new InstrumentingClassLoader(config, androidAllUrl);
+  }
+
+  @Benchmark
+  public void defineClasses(Blackhole blackhole) throws ClassNotFoundException {
+    InstrumentingClassLoader classLoader = new InstrumentingClassLoader(config, androidAllUrl);
+    for (String className : CLASS_NAMES) {
+      blackhole.consume(classLoader.loadClass(className));
+    }
+  }
+
+  @Benchmark
+  public void transformClasses(Blackhole blackhole) throws ClassNotFoundException {
+    for (String className : CLASS_NAMES) {
+      blackhole.consume(classLoader.transformClass(className));
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package org.robolectric.internal.bytecode;
+
+import android.os.SystemClock;
+import android.text.TextUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.robolectric.Benchmarks;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls from a test into instrumented framework methods, which {@link ShadowWrangler} dispatches either through
+ * the plans it looks up on every call, or through invokedynamic call sites that it links once.
+ *
+ * <p>Each benchmark includes setting up one test, which {@link org.robolectric.RobolectricTestRunnerBenchmark}
+ * measures by itself; it's spread over enough calls to be small next to them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShadowWranglerBenchmark {
+  private static final int CALLS = 1000000;
+
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  @Fork(jvmArgsAppend = "-Drobolectric.invokedynamic.enable=false")
+  public int shadowedMethod_plans() {
+    return Benchmarks.runTests(ShadowedMethodTest.class);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  @Fork(jvmArgsAppend = "-Drobolectric.invokedynamic.enable=true")
+  public int shadowedMethod_invokeDynamic() {
+    return Benchmarks.runTests(ShadowedMethodTest.class);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  @Fork(jvmArgsAppend = "-Drobolectric.invokedynamic.enable=false")
+  public int unshadowedMethod_plans() {
+    return Benchmarks.runTests(UnshadowedMethodTest.class);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  @Fork(jvmArgsAppend = "-Drobolectric.invokedynamic.enable=true")
+  public int unshadowedMethod_invokeDynamic() {
+    return Benchmarks.runTests(UnshadowedMethodTest.class);
+  }
+
+  @RunWith(RobolectricTestRunner.class)
+  @Config(manifest = Config.NONE, sdk = 23)
+  public static class ShadowedMethodTest {
+    public static long sink;
+
+    @Test
+    public void callShadowedMethod() {
+      long sum = 0;
+      for (int i = 0; i < CALLS; i++) {
+        sum += SystemClock.uptimeMillis();
+      }
+      sink = sum;
+    }
+  }
+
+  @RunWith(RobolectricTestRunner.class)
+  @Config(manifest = Config.NONE, sdk = 23)
+  public static class UnshadowedMethodTest {
+    public static int sink;
+
+    @Test
+    public void callUnshadowedMethod() {
+      int count = 0;
+      for (int i = 0; i < CALLS; i++) {
+        if (TextUtils.isEmpty(i % 2 == 0 ? "" : "text")) {
+          count++;
+        }
+      }
+      sink = count;
+    }
+  }
+}
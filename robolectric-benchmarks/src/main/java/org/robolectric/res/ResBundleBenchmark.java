@@ -0,0 +1,54 @@
+package org.robolectric.res;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picking the best of a resource's values for some qualifiers, directly and through a {@link ResBundle}, which
+ * remembers what it picked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResBundleBenchmark {
+  private static final String[] VALUE_QUALIFIERS = {
+      null, "land", "port", "v11", "v14", "v17", "v21", "v23", "land-v21", "sw600dp", "sw600dp-v21", "sw720dp-land"
+  };
+
+  @Param({"", "land", "sw600dp-v21", "sw720dp-land-v23"})
+  public String qualifiers;
+
+  private final ResName resName = new ResName("android", "dimen", "benchmark");
+  private final ResBundle<String> resBundle = new ResBundle<>();
+  private final List<ResBundle.Value<String>> values = new ArrayList<>();
+
+  @Setup
+  public void setUp() {
+    for (String valueQualifiers : VALUE_QUALIFIERS) {
+      values.add(new ResBundle.Value<>(valueQualifiers, "value" + values.size()));
+    }
+    Collections.sort(values);
+    resBundle.putValues(resName, values);
+  }
+
+  @Benchmark
+  public ResBundle.Value<String> pick() {
+    return ResBundle.pick(values, qualifiers);
+  }
+
+  @Benchmark
+  public String get() {
+    return resBundle.get(resName, qualifiers);
+  }
+}
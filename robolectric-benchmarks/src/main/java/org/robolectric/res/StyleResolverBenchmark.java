@@ -0,0 +1,52 @@
+package org.robolectric.res;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.robolectric.internal.SdkEnvironment;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up attributes of a framework theme, either from its shared attribute table or by walking its parents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StyleResolverBenchmark {
+  /**
+   * An attribute of the theme itself, one of a parent, one of the root theme and one that isn't set at all.
+   */
+  @Param({"colorAccent", "textColorPrimary", "windowBackground", "layout_width"})
+  public String attribute;
+
+  @Param({"true", "false"})
+  public boolean attributeTable;
+
+  private Style style;
+  private ResName attrName;
+
+  @Setup
+  public void setUp() throws Exception {
+    URL androidAllUrl = android.R.class.getProtectionDomain().getCodeSource().getLocation();
+    ResourcePath resourcePath = SdkEnvironment.createSystemResourcePath(getClass().getClassLoader(), androidAllUrl);
+    ResourceLoader resourceLoader = new PackageResourceLoader(resourcePath);
+
+    ResName themeName = new ResName("android", "style", "Theme.DeviceDefault.Light");
+    StyleData styleData = (StyleData) resourceLoader.getValue(themeName, "").getData();
+    // Without a name, the resolver can't share an attribute table, and walks the parents on every lookup.
+    style = new StyleResolver(resourceLoader, styleData, null, attributeTable ? themeName : null, "");
+    attrName = new ResName("android", "attr", attribute);
+  }
+
+  @Benchmark
+  public AttributeResource getAttrValue() {
+    return style.getAttrValue(attrName);
+  }
+}
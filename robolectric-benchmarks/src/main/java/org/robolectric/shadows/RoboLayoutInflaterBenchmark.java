@@ -0,0 +1,46 @@
+package org.robolectric.shadows;
+
+import android.view.LayoutInflater;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.robolectric.Benchmarks;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inflating a framework layout, which parses its XML block and resolves the styles and attributes of each view.
+ *
+ * <p>Each benchmark includes setting up one test, which {@link org.robolectric.RobolectricTestRunnerBenchmark}
+ * measures by itself; it's spread over enough inflations to be small next to them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoboLayoutInflaterBenchmark {
+  private static final int INFLATIONS = 1000;
+
+  @Benchmark
+  @OperationsPerInvocation(INFLATIONS)
+  public int inflate() {
+    return Benchmarks.runTests(InflateTest.class);
+  }
+
+  @RunWith(RobolectricTestRunner.class)
+  @Config(manifest = Config.NONE, sdk = 23)
+  public static class InflateTest {
+    @Test
+    public void inflate() {
+      LayoutInflater inflater = new RoboLayoutInflater(RuntimeEnvironment.application);
+      for (int i = 0; i < INFLATIONS; i++) {
+        inflater.inflate(android.R.layout.activity_list_item, null);
+      }
+    }
+  }
+}
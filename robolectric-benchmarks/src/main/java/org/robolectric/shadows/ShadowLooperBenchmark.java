@@ -0,0 +1,73 @@
+package org.robolectric.shadows;
+
+import android.os.Handler;
+import android.os.Looper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.robolectric.Benchmarks;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posting to a handler of the main looper and idling the looper to run the messages, with the main scheduler
+ * guarded by a lock and with it confined to the test thread.
+ *
+ * <p>Each benchmark includes setting up one test, which {@link org.robolectric.RobolectricTestRunnerBenchmark}
+ * measures by itself; it's spread over enough messages to be small next to them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShadowLooperBenchmark {
+  private static final int MESSAGES = 100000;
+
+  @Benchmark
+  @OperationsPerInvocation(MESSAGES)
+  @Fork(jvmArgsAppend = "-Drobolectric.scheduling.confined=false")
+  public int postAndIdle_locked() {
+    return Benchmarks.runTests(PostAndIdleTest.class);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(MESSAGES)
+  @Fork(jvmArgsAppend = "-Drobolectric.scheduling.confined=true")
+  public int postAndIdle_confined() {
+    return Benchmarks.runTests(PostAndIdleTest.class);
+  }
+
+  @RunWith(RobolectricTestRunner.class)
+  @Config(manifest = Config.NONE, sdk = 23)
+  public static class PostAndIdleTest {
+    private int runs;
+
+    @Test
+    public void postAndIdle() {
+      Handler handler = new Handler(Looper.getMainLooper());
+      Runnable runnable = new Runnable() {
+        @Override
+        public void run() {
+          runs++;
+        }
+      };
+
+      ShadowLooper.pauseMainLooper();
+      for (int i = 0; i < MESSAGES; i++) {
+        handler.postDelayed(runnable, i % 10);
+        if (i % 100 == 99) {
+          ShadowLooper.idleMainLooper(10, TimeUnit.MILLISECONDS);
+        }
+      }
+      ShadowLooper.idleMainLooper(10, TimeUnit.MILLISECONDS);
+      if (runs != MESSAGES) {
+        throw new AssertionError("ran " + runs + " of " + MESSAGES + " messages");
+      }
+    }
+  }
+}
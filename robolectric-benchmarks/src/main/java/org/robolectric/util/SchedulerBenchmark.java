@@ -0,0 +1,69 @@
+package org.robolectric.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posting runnables to a {@link Scheduler} and running them by advancing its clock, with and without a lock.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SchedulerBenchmark {
+  private static final int RUNNABLES = 100;
+
+  @Param({"false", "true"})
+  public boolean confined;
+
+  private Scheduler scheduler;
+  private final Runnable[] runnables = new Runnable[RUNNABLES];
+  private int runs;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    // Setup of thread scoped state happens on the benchmark thread, which then owns a confined scheduler.
+    scheduler = new Scheduler(confined);
+    scheduler.pause();
+    for (int i = 0; i < RUNNABLES; i++) {
+      runnables[i] = new Runnable() {
+        @Override
+        public void run() {
+          runs++;
+        }
+      };
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RUNNABLES)
+  public int postDelayedAndAdvanceBy() {
+    for (int i = 0; i < RUNNABLES; i++) {
+      // Spread over a few times, so they aren't all in posting order.
+      scheduler.postDelayed(runnables[i], i % 7);
+    }
+    scheduler.advanceBy(7, TimeUnit.MILLISECONDS);
+    return runs;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RUNNABLES)
+  public int postAndRemove() {
+    for (int i = 0; i < RUNNABLES; i++) {
+      scheduler.postDelayed(runnables[i], i);
+    }
+    for (int i = 0; i < RUNNABLES; i++) {
+      scheduler.remove(runnables[i]);
+    }
+    return scheduler.size();
+  }
+}
@@ -0,0 +1,199 @@
+package org.robolectric.instrumenter;
+
+import org.robolectric.internal.InstrumentingClassLoaderFactory;
+import org.robolectric.internal.SdkConfig;
+import org.robolectric.internal.SdkEnvironment;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+import org.robolectric.internal.bytecode.InstrumentedJar;
+import org.robolectric.internal.bytecode.InstrumentingClassLoader;
+import org.robolectric.internal.dependency.DependencyResolver;
+import org.robolectric.internal.dependency.LocalDependencyResolver;
+import org.robolectric.internal.dependency.MavenDependencyResolver;
+import org.robolectric.res.ResourcePath;
+import org.robolectric.res.ResourceTableCache;
+import org.robolectric.util.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Instruments every class of an SDK's android-all jar ahead of time, so tests can skip that work at runtime.
+ *
+ * The resulting jars are used by {@link InstrumentingClassLoaderFactory} when the {@code robolectric.instrumentedjars.dir}
+ * system property points at the output directory. Run this with the same shadow artifacts on the classpath as the
+ * tests, since their shadow providers are part of the instrumentation configuration.
+ *
+ * It also writes a table of each SDK's framework resource values, which {@link SdkEnvironment} loads instead of parsing
+ * them when the {@code robolectric.systemresources.dir} system property points at the output directory.
+ *
+ * Usage: {@code SdkInstrumenter <outputDir> [apiLevel...]}
+ */
+public class SdkInstrumenter {
+  private final InstrumentationConfiguration config;
+  private final DependencyResolver dependencyResolver;
+
+  public SdkInstrumenter(InstrumentationConfiguration config, DependencyResolver dependencyResolver) {
+    this.config = config;
+    this.dependencyResolver = dependencyResolver;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: SdkInstrumenter <outputDir> [apiLevel...]");
+      System.exit(1);
+    }
+
+    File outputDir = new File(args[0]);
+    if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+      throw new IOException("couldn't create " + outputDir);
+    }
+
+    List<Integer> apiLevels = new ArrayList<>();
+    for (int i = 1; i < args.length; i++) {
+      apiLevels.add(Integer.parseInt(args[i]));
+    }
+    if (apiLevels.isEmpty()) {
+      apiLevels.addAll(new TreeSet<>(SdkConfig.getSupportedApis()));
+    }
+
+    SdkInstrumenter instrumenter = new SdkInstrumenter(InstrumentationConfiguration.newBuilder().build(), createDependencyResolver());
+    for (int apiLevel : apiLevels) {
+      SdkConfig sdkConfig = new SdkConfig(apiLevel);
+      File jarFile = instrumenter.instrument(sdkConfig, outputDir);
+      System.out.println("Wrote " + jarFile);
+      File tableFile = instrumenter.writeSystemResourceTable(sdkConfig, outputDir);
+      System.out.println("Wrote " + tableFile);
+    }
+  }
+
+  private static DependencyResolver createDependencyResolver() {
+    if (Boolean.getBoolean("robolectric.offline")) {
+      String dependencyDir = System.getProperty("robolectric.dependency.dir", ".");
+      return new LocalDependencyResolver(new File(dependencyDir));
+    } else {
+      return new MavenDependencyResolver();
+    }
+  }
+
+  /**
+   * Instrument the android-all jar of an SDK.
+   *
+   * @param sdkConfig The SDK.
+   * @param outputDir The directory to write the instrumented jar to.
+   * @return The instrumented jar.
+   * @throws IOException If the jar couldn't be read or written.
+   */
+  public File instrument(SdkConfig sdkConfig, File outputDir) throws IOException {
+    URL androidAllUrl = dependencyResolver.getLocalArtifactUrl(sdkConfig.getAndroidSdkDependency());
+    File outputFile = new File(outputDir, InstrumentingClassLoaderFactory.getInstrumentedJarName(sdkConfig));
+    instrument(androidAllUrl, outputFile);
+    return outputFile;
+  }
+
+  /**
+   * Write the table of an SDK's framework resource values.
+   *
+   * @param sdkConfig The SDK.
+   * @param outputDir The directory to write the table to.
+   * @return The table.
+   * @throws IOException If the table couldn't be written.
+   */
+  public File writeSystemResourceTable(SdkConfig sdkConfig, File outputDir) throws IOException {
+    URL androidAllUrl = dependencyResolver.getLocalArtifactUrl(sdkConfig.getAndroidSdkDependency());
+    File outputFile = new File(outputDir, SdkEnvironment.getSystemResourceTableName(sdkConfig));
+    writeSystemResourceTable(androidAllUrl, outputFile);
+    return outputFile;
+  }
+
+  /**
+   * Write the table of the framework resource values of an android-all jar.
+   *
+   * @param jarUrl The android-all jar.
+   * @param outputFile The table to write.
+   * @throws IOException If the table couldn't be written.
+   */
+  public void writeSystemResourceTable(URL jarUrl, File outputFile) throws IOException {
+    ResourcePath resourcePath;
+    try {
+      resourcePath = SdkEnvironment.createSystemResourcePath(new URLClassLoader(new URL[] {jarUrl}, null), jarUrl);
+    } catch (ClassNotFoundException e) {
+      throw new IOException("no R classes in " + jarUrl, e);
+    }
+
+    Files.deleteIfExists(outputFile.toPath());
+    new ResourceTableCache(outputFile).write(resourcePath);
+    if (!outputFile.isFile()) {
+      throw new IOException("couldn't write " + outputFile);
+    }
+  }
+
+  /**
+   * Instrument every class of a jar that {@link InstrumentingClassLoader} would acquire.
+   *
+   * @param jarUrl The jar to instrument.
+   * @param outputFile The instrumented jar to write.
+   * @return The number of classes written.
+   * @throws IOException If the jar couldn't be read or written.
+   */
+  public int instrument(URL jarUrl, File outputFile) throws IOException {
+    InstrumentingClassLoader classLoader = new InstrumentingClassLoader(config, jarUrl);
+    File tmpFile = new File(outputFile.getPath() + ".tmp");
+    int count = 0;
+
+    File jar;
+    try {
+      jar = new File(jarUrl.toURI());
+    } catch (URISyntaxException e) {
+      throw new IOException("not a jar file: " + jarUrl, e);
+    }
+
+    try (JarFile jarFile = new JarFile(jar);
+         JarOutputStream out = new JarOutputStream(new FileOutputStream(tmpFile))) {
+      Properties marker = new Properties();
+      marker.setProperty(InstrumentedJar.FINGERPRINT_PROPERTY, InstrumentedJar.fingerprint(config, SdkConfig.getRobolectricVersion()));
+      out.putNextEntry(new JarEntry(InstrumentedJar.MARKER_ENTRY));
+      marker.store(out, "Generated by " + getClass().getSimpleName() + " from " + jarUrl);
+      out.closeEntry();
+
+      Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        String entryName = entries.nextElement().getName();
+        if (!entryName.endsWith(".class")) continue;
+
+        String className = entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.');
+        if (!config.shouldAcquire(className)) continue;
+
+        byte[] bytes;
+        try {
+          bytes = classLoader.transformClass(className);
+        } catch (ClassNotFoundException | RuntimeException e) {
+          // leave it to be instrumented at runtime
+          Logger.info("Skipping %s: %s", className, e);
+          continue;
+        }
+
+        out.putNextEntry(new JarEntry(InstrumentedJar.entryName(className)));
+        out.write(bytes);
+        out.closeEntry();
+        count++;
+      }
+    }
+
+    Files.move(tmpFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    return count;
+  }
+}
@@ -0,0 +1,97 @@
+package org.robolectric.instrumenter;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassReader;
+import org.robolectric.instrumenter.testing.AnExampleClass;
+import org.robolectric.internal.SdkConfig;
+import org.robolectric.internal.ShadowedObject;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+import org.robolectric.internal.bytecode.InstrumentedJar;
+import org.robolectric.util.Util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SdkInstrumenterTest {
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private InstrumentationConfiguration config;
+  private File inputJar;
+  private File outputJar;
+
+  @Before
+  public void setUp() throws Exception {
+    config = InstrumentationConfiguration.newBuilder().addInstrumentedPackage("org.robolectric.instrumenter.testing").build();
+    inputJar = new File(temporaryFolder.getRoot(), "android-all.jar");
+    outputJar = new File(temporaryFolder.getRoot(), "android-all-instrumented.jar");
+
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(inputJar))) {
+      out.putNextEntry(new JarEntry("res/values/strings.xml"));
+      out.write("<resources/>".getBytes("UTF-8"));
+      out.closeEntry();
+
+      out.putNextEntry(new JarEntry(InstrumentedJar.entryName(AnExampleClass.class.getName())));
+      out.write(getOriginalBytes(AnExampleClass.class));
+      out.closeEntry();
+    }
+  }
+
+  @Test
+  public void instrument_shouldWriteInstrumentedClasses() throws Exception {
+    int count = new SdkInstrumenter(config, null).instrument(inputJar.toURI().toURL(), outputJar);
+
+    assertThat(count).isEqualTo(1);
+    InstrumentedJar instrumentedJar = InstrumentedJar.open(outputJar, fingerprint(config));
+    assertThat(instrumentedJar).isNotNull();
+    assertThat(instrumentedJar.getClassBytes("res.values.strings")).isNull();
+
+    byte[] bytes = instrumentedJar.getClassBytes(AnExampleClass.class.getName());
+    assertThat(new ClassReader(bytes).getInterfaces()).contains(ShadowedObject.class.getName().replace('.', '/'));
+  }
+
+  @Test
+  public void instrument_shouldReadJarsWhosePathsAreEscapedInTheirUrls() throws Exception {
+    File escapedJar = new File(temporaryFolder.newFolder("with space"), "android-all.jar");
+    Files.copy(inputJar.toPath(), escapedJar.toPath());
+
+    assertThat(new SdkInstrumenter(config, null).instrument(escapedJar.toURI().toURL(), outputJar)).isEqualTo(1);
+  }
+
+  @Test
+  public void instrumentedJar_shouldBeIgnoredForADifferentConfiguration() throws Exception {
+    new SdkInstrumenter(config, null).instrument(inputJar.toURI().toURL(), outputJar);
+
+    InstrumentationConfiguration otherConfig = InstrumentationConfiguration.newBuilder().build();
+    assertThat(InstrumentedJar.open(outputJar, fingerprint(otherConfig))).isNull();
+  }
+
+  @Test
+  public void writeSystemResourceTable_shouldWriteTable() throws Exception {
+    URL androidAllUrl = android.R.class.getProtectionDomain().getCodeSource().getLocation();
+    File tableFile = new File(temporaryFolder.getRoot(), "android-all.restable");
+
+    new SdkInstrumenter(config, null).writeSystemResourceTable(androidAllUrl, tableFile);
+
+    assertThat(tableFile.length()).isGreaterThan(0);
+  }
+
+  private static String fingerprint(InstrumentationConfiguration config) {
+    return InstrumentedJar.fingerprint(config, SdkConfig.getRobolectricVersion());
+  }
+
+  private static byte[] getOriginalBytes(Class<?> clazz) throws Exception {
+    try (InputStream in = clazz.getClassLoader().getResourceAsStream(InstrumentedJar.entryName(clazz.getName()))) {
+      return Util.readBytes(in);
+    }
+  }
+}
@@ -0,0 +1,7 @@
+package org.robolectric.instrumenter.testing;
+
+public class AnExampleClass {
+  public String normalMethod(String stringArg, int intArg) {
+    return "normalMethod(" + stringArg + ", " + intArg + ")";
+  }
+}
@@ -1,6 +1,7 @@
 package org.robolectric.annotation.processing.generator;
 
 import com.google.common.base.Joiner;
+import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.processing.RobolectricModel;
 import org.robolectric.annotation.processing.RobolectricProcessor;
 
@@ -62,10 +63,11 @@ public class ShadowProviderGenerator extends Generator {
       writer.println(" */");
       writer.println("@Generated(\"" + RobolectricProcessor.class.getCanonicalName() + "\")");
       writer.println("@SuppressWarnings({\"unchecked\",\"deprecation\"})");
-      writer.println("public class " + GEN_CLASS + " implements ShadowProvider {");
+      writer.println("public class " + GEN_CLASS + " implements ShadowProvider, ShadowConfigProvider {");
 
       final int shadowSize = model.getAllShadowTypes().size();
       writer.println("  private static final Map<String, String> SHADOW_MAP = new HashMap<>(" + shadowSize + ");");
+      writer.println("  private static final Map<String, ShadowConfigProvider.Config> SHADOW_CONFIGS = new HashMap<>(" + shadowSize + ");");
       writer.println();
 
       writer.println("  static {");
@@ -74,6 +76,15 @@ public class ShadowProviderGenerator extends Generator {
         final String actual = entry.getValue().getQualifiedName().toString();
         writer.println("    SHADOW_MAP.put(\"" + actual + "\", \"" + shadow + "\");");
       }
+      for (Map.Entry<TypeElement, TypeElement> entry : model.getAllShadowTypes().entrySet()) {
+        final String shadow = elements.getBinaryName(entry.getKey()).toString();
+        final String actual = elements.getBinaryName(entry.getValue()).toString();
+        final Implements implementsAnnotation = entry.getKey().getAnnotation(Implements.class);
+        writer.println("    SHADOW_CONFIGS.put(\"" + actual + "\", new ShadowConfigProvider.Config(\"" + shadow + "\", "
+            + implementsAnnotation.callThroughByDefault() + ", "
+            + implementsAnnotation.inheritImplementationMethods() + ", "
+            + implementsAnnotation.looseSignatures() + "));");
+      }
       writer.println("  }");
       writer.println();
 
@@ -131,6 +142,12 @@ public class ShadowProviderGenerator extends Generator {
       writer.println("  }");
       writer.println();
 
+      writer.println("  @Override");
+      writer.println("  public Map<String, ShadowConfigProvider.Config> getShadowConfigs() {");
+      writer.println("    return SHADOW_CONFIGS;");
+      writer.println("  }");
+      writer.println();
+
       writer.println("  @Override");
       writer.println("  public String[] getProvidedPackageNames() {");
       String providedPackages = "";
@@ -8,6 +8,7 @@ import static org.robolectric.annotation.processing.RobolectricProcessor.PACKAGE
 import static org.robolectric.annotation.processing.RobolectricProcessor.SHOULD_INSTRUMENT_PKG_OPT;
 import static org.robolectric.annotation.processing.validator.Utils.ROBO_SOURCE;
 import static org.robolectric.annotation.processing.validator.Utils.SHADOW_PROVIDER_SOURCE;
+import static org.robolectric.annotation.processing.validator.Utils.SHADOW_CONFIG_PROVIDER_SOURCE;
 import static org.robolectric.annotation.processing.validator.Utils.SHADOW_EXTRACTOR_SOURCE;
 
 import java.io.BufferedReader;
@@ -44,6 +45,7 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_CONFIG_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forSourceString("HelloWorld", "final class HelloWorld {}")))
       .processedWith(new RobolectricProcessor())
@@ -60,6 +62,7 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_CONFIG_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowOuterDummy.java"),
@@ -76,6 +79,7 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_CONFIG_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowPrivate.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowOuterDummy2.java"),
@@ -92,6 +96,7 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_CONFIG_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowAnything.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -106,6 +111,7 @@ public class RobolectricProcessorTest {
     ASSERT.about(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_CONFIG_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowClassNameOnly.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -120,6 +126,7 @@ public class RobolectricProcessorTest {
     ASSERT.about(javaSources())
         .that(ImmutableList.of(
             SHADOW_PROVIDER_SOURCE,
+            SHADOW_CONFIG_PROVIDER_SOURCE,
             SHADOW_EXTRACTOR_SOURCE,
             forResource("org/robolectric/annotation/processing/shadows/ShadowExcludedFromAndroidSdk.java")))
         .processedWith(new RobolectricProcessor(DEFAULT_OPTS))
@@ -146,6 +153,7 @@ public class RobolectricProcessorTest {
     ASSERT.about(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_CONFIG_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowClassNameOnly.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -160,6 +168,7 @@ public class RobolectricProcessorTest {
     ASSERT.about(javaSources())
         .that(ImmutableList.of(
             SHADOW_PROVIDER_SOURCE,
+            SHADOW_CONFIG_PROVIDER_SOURCE,
             SHADOW_EXTRACTOR_SOURCE,
             forResource("org/robolectric/annotation/processing/shadows/ShadowClassNameOnly.java"),
             forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
@@ -175,6 +184,7 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_CONFIG_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/TestWithUnrecognizedAnnotation.java")))
       .processedWith(new RobolectricProcessor())
@@ -194,6 +204,7 @@ public class RobolectricProcessorTest {
     ASSERT.about(javaSources())
       .that(ImmutableList.of(
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_CONFIG_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowRealObjectWithCorrectAnything.java")))
       .processedWith(new RobolectricProcessor())
@@ -206,6 +217,7 @@ public class RobolectricProcessorTest {
       .that(ImmutableList.of(
           ROBO_SOURCE,
           SHADOW_PROVIDER_SOURCE,
+          SHADOW_CONFIG_PROVIDER_SOURCE,
           SHADOW_EXTRACTOR_SOURCE,
           forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java"),
           forResource("org/robolectric/annotation/processing/shadows/ShadowParameterizedDummy.java")))
@@ -225,6 +237,7 @@ public class RobolectricProcessorTest {
     .that(ImmutableList.of(
         ROBO_SOURCE,
         SHADOW_PROVIDER_SOURCE,
+        SHADOW_CONFIG_PROVIDER_SOURCE,
         SHADOW_EXTRACTOR_SOURCE,
         forResource("org/robolectric/annotation/processing/shadows/ShadowAnything.java"),
         forResource("org/robolectric/annotation/processing/shadows/ShadowDummy.java")))
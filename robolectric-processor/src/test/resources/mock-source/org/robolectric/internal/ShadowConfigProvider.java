@@ -0,0 +1,13 @@
+package org.robolectric.internal;
+
+import java.util.Map;
+
+public interface ShadowConfigProvider {
+
+  Map<String, Config> getShadowConfigs();
+
+  final class Config {
+    public Config(String shadowClassName, boolean callThroughByDefault, boolean inheritImplementationMethods, boolean looseSignatures) {
+    }
+  }
+}
@@ -8,17 +8,21 @@ import org.robolectric.annotation.processing.objects.AnyObject;
 import org.robolectric.annotation.processing.objects.Dummy;
 import org.robolectric.annotation.processing.shadows.ShadowAnything;
 import org.robolectric.annotation.processing.shadows.ShadowDummy;
+import org.robolectric.internal.ShadowConfigProvider;
 import org.robolectric.internal.ShadowExtractor;
 import org.robolectric.internal.ShadowProvider;
 
 @Generated("org.robolectric.annotation.processing.RobolectricProcessor")
 @SuppressWarnings({"unchecked","deprecation"})
-public class Shadows implements ShadowProvider {
+public class Shadows implements ShadowProvider, ShadowConfigProvider {
   private static final Map<String, String> SHADOW_MAP = new HashMap<>(2);
+  private static final Map<String, ShadowConfigProvider.Config> SHADOW_CONFIGS = new HashMap<>(2);
 
   static {
     SHADOW_MAP.put("org.robolectric.annotation.processing.objects.AnyObject", "org.robolectric.annotation.processing.shadows.ShadowAnything");
     SHADOW_MAP.put("org.robolectric.annotation.processing.objects.Dummy", "org.robolectric.annotation.processing.shadows.ShadowDummy");
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.AnyObject", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowAnything", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.Dummy", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowDummy", true, false, false));
   }
 
   public static ShadowAnything shadowOf(AnyObject actual) {
@@ -39,6 +43,11 @@ public class Shadows implements ShadowProvider {
     return SHADOW_MAP;
   }
 
+  @Override
+  public Map<String, ShadowConfigProvider.Config> getShadowConfigs() {
+    return SHADOW_CONFIGS;
+  }
+
   @Override
   public String[] getProvidedPackageNames() {
     return new String[] {"org.robolectric.annotation.processing.objects"};
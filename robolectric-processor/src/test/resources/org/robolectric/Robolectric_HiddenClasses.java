@@ -12,13 +12,15 @@ import org.robolectric.annotation.processing.shadows.ShadowOuterDummy2.ShadowInn
 import org.robolectric.annotation.processing.shadows.ShadowOuterDummy2.ShadowInnerPrivate;
 import org.robolectric.annotation.processing.shadows.ShadowOuterDummy2.ShadowInnerProtected;
 import org.robolectric.annotation.processing.shadows.ShadowPrivate;
+import org.robolectric.internal.ShadowConfigProvider;
 import org.robolectric.internal.ShadowExtractor;
 import org.robolectric.internal.ShadowProvider;
 
 @Generated("org.robolectric.annotation.processing.RobolectricProcessor")
 @SuppressWarnings({"unchecked","deprecation"})
-public class Shadows implements ShadowProvider {
+public class Shadows implements ShadowProvider, ShadowConfigProvider {
   private static final Map<String, String> SHADOW_MAP = new HashMap<>(6);
+  private static final Map<String, ShadowConfigProvider.Config> SHADOW_CONFIGS = new HashMap<>(6);
 
   static {
     SHADOW_MAP.put("org.robolectric.annotation.processing.objects.Dummy", "org.robolectric.annotation.processing.shadows.ShadowDummy");
@@ -27,6 +29,12 @@ public class Shadows implements ShadowProvider {
     SHADOW_MAP.put("org.robolectric.annotation.processing.objects.OuterDummy2.InnerPrivate", "org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerPrivate");
     SHADOW_MAP.put("org.robolectric.annotation.processing.objects.OuterDummy2.InnerProtected", "org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerProtected");
     SHADOW_MAP.put("org.robolectric.annotation.processing.objects.Private", "org.robolectric.annotation.processing.shadows.ShadowPrivate");
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.Dummy", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowDummy", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.OuterDummy2", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowOuterDummy2", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.OuterDummy2$InnerPackage", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerPackage", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.OuterDummy2$InnerPrivate", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerPrivate", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.OuterDummy2$InnerProtected", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowOuterDummy2$ShadowInnerProtected", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.Private", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowPrivate", true, false, false));
   }
 
   public static ShadowDummy shadowOf(Dummy actual) {
@@ -47,6 +55,11 @@ public class Shadows implements ShadowProvider {
     return SHADOW_MAP;
   }
 
+  @Override
+  public Map<String, ShadowConfigProvider.Config> getShadowConfigs() {
+    return SHADOW_CONFIGS;
+  }
+
   @Override
   public String[] getProvidedPackageNames() {
     return new String[] {"org.robolectric.annotation.processing.objects"};
@@ -12,13 +12,15 @@ import org.robolectric.annotation.processing.shadows.ShadowDummy;
 import org.robolectric.annotation.processing.shadows.ShadowOuterDummy;
 import org.robolectric.annotation.processing.shadows.ShadowUniqueDummy;
 import org.robolectric.annotation.processing.shadows.ShadowUniqueDummy.ShadowUniqueInnerDummy;
+import org.robolectric.internal.ShadowConfigProvider;
 import org.robolectric.internal.ShadowExtractor;
 import org.robolectric.internal.ShadowProvider;
 
 @Generated("org.robolectric.annotation.processing.RobolectricProcessor")
 @SuppressWarnings({"unchecked","deprecation"})
-public class Shadows implements ShadowProvider {
+public class Shadows implements ShadowProvider, ShadowConfigProvider {
   private static final Map<String, String> SHADOW_MAP = new HashMap<>(6);
+  private static final Map<String, ShadowConfigProvider.Config> SHADOW_CONFIGS = new HashMap<>(6);
 
   static {
     SHADOW_MAP.put("org.robolectric.annotation.processing.objects.Dummy", "org.robolectric.annotation.processing.shadows.ShadowDummy");
@@ -27,6 +29,12 @@ public class Shadows implements ShadowProvider {
     SHADOW_MAP.put("org.robolectric.annotation.processing.objects.UniqueDummy", "org.robolectric.annotation.processing.shadows.ShadowUniqueDummy");
     SHADOW_MAP.put("org.robolectric.annotation.processing.objects.UniqueDummy.InnerDummy", "org.robolectric.annotation.processing.shadows.ShadowUniqueDummy$ShadowInnerDummy");
     SHADOW_MAP.put("org.robolectric.annotation.processing.objects.UniqueDummy.UniqueInnerDummy", "org.robolectric.annotation.processing.shadows.ShadowUniqueDummy$ShadowUniqueInnerDummy");
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.Dummy", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowDummy", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.OuterDummy", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowOuterDummy", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.OuterDummy$InnerDummy", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowOuterDummy$ShadowInnerDummy", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.UniqueDummy", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowUniqueDummy", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.UniqueDummy$InnerDummy", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowUniqueDummy$ShadowInnerDummy", true, false, false));
+    SHADOW_CONFIGS.put("org.robolectric.annotation.processing.objects.UniqueDummy$UniqueInnerDummy", new ShadowConfigProvider.Config("org.robolectric.annotation.processing.shadows.ShadowUniqueDummy$ShadowUniqueInnerDummy", true, false, false));
   }
 
   public static ShadowDummy shadowOf(Dummy actual) {
@@ -62,6 +70,11 @@ public class Shadows implements ShadowProvider {
     return SHADOW_MAP;
   }
 
+  @Override
+  public Map<String, ShadowConfigProvider.Config> getShadowConfigs() {
+    return SHADOW_CONFIGS;
+  }
+
   @Override
   public String[] getProvidedPackageNames() {
     return new String[]{"org.robolectric.annotation.processing.objects"};
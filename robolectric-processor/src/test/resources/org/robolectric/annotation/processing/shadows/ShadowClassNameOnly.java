@@ -3,7 +3,7 @@ package org.robolectric.annotation.processing.shadows;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.Resetter;
 
-@Implements(className = "org.robolectric.annotation.processing.objects.AnyObject")
+@Implements(className = "org.robolectric.annotation.processing.objects.AnyObject", callThroughByDefault = false, looseSignatures = true)
 public class ShadowClassNameOnly {
   public static int resetCount = 0;
   @Resetter
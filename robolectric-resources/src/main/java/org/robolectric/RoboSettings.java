@@ -8,11 +8,39 @@ public class RoboSettings {
   private static String mavenRepositoryId;
   private static String mavenRepositoryUrl;
   private static boolean useGlobalScheduler;
+  private static boolean confinedScheduler;
+  private static String classCacheDir;
+  private static long classCacheMaxSize;
+  private static String instrumentedJarDir;
+  private static int parallelUniverses;
+  private static int planCacheSize;
+  private static String shadowProfileDir;
+  private static int sdkEnvironmentPoolSize;
+  private static String pinnedSdkEnvironments;
+  private static String resourceTableCacheDir;
+  private static String systemResourceTableDir;
+  private static boolean incrementalResources;
+  private static boolean lazyResources;
+  private static boolean scanRClasses;
 
   static {
     mavenRepositoryId = System.getProperty("robolectric.dependency.repo.id", "sonatype");
     mavenRepositoryUrl = System.getProperty("robolectric.dependency.repo.url", "https://oss.sonatype.org/content/groups/public/");
     useGlobalScheduler = Boolean.getBoolean("robolectric.scheduling.global");
+    confinedScheduler = Boolean.getBoolean("robolectric.scheduling.confined");
+    classCacheDir = System.getProperty("robolectric.classcache.dir");
+    classCacheMaxSize = Long.getLong("robolectric.classcache.maxsize", 256L * 1024 * 1024);
+    instrumentedJarDir = System.getProperty("robolectric.instrumentedjars.dir");
+    parallelUniverses = Integer.getInteger("robolectric.parallel.universes", 1);
+    planCacheSize = Integer.getInteger("robolectric.plancache.size", 20000);
+    shadowProfileDir = System.getProperty("robolectric.shadowprofile.dir");
+    sdkEnvironmentPoolSize = Integer.getInteger("robolectric.sdkenvironment.poolsize", 0);
+    pinnedSdkEnvironments = System.getProperty("robolectric.sdkenvironment.pinned");
+    resourceTableCacheDir = System.getProperty("robolectric.resourcecache.dir");
+    systemResourceTableDir = System.getProperty("robolectric.systemresources.dir");
+    incrementalResources = Boolean.getBoolean("robolectric.resources.incremental");
+    lazyResources = Boolean.getBoolean("robolectric.resources.lazy");
+    scanRClasses = Boolean.parseBoolean(System.getProperty("robolectric.resources.scanrclasses", "true"));
   }
 
   public static String getMavenRepositoryId() {
@@ -38,4 +66,116 @@ public class RoboSettings {
   public static void setUseGlobalScheduler(boolean useGlobalScheduler) {
     RoboSettings.useGlobalScheduler = useGlobalScheduler;
   }
+
+  public static boolean isConfinedScheduler() {
+    return confinedScheduler;
+  }
+
+  public static void setConfinedScheduler(boolean confinedScheduler) {
+    RoboSettings.confinedScheduler = confinedScheduler;
+  }
+
+  public static String getClassCacheDir() {
+    return classCacheDir;
+  }
+
+  public static void setClassCacheDir(String classCacheDir) {
+    RoboSettings.classCacheDir = classCacheDir;
+  }
+
+  public static long getClassCacheMaxSize() {
+    return classCacheMaxSize;
+  }
+
+  public static void setClassCacheMaxSize(long classCacheMaxSize) {
+    RoboSettings.classCacheMaxSize = classCacheMaxSize;
+  }
+
+  public static String getInstrumentedJarDir() {
+    return instrumentedJarDir;
+  }
+
+  public static void setInstrumentedJarDir(String instrumentedJarDir) {
+    RoboSettings.instrumentedJarDir = instrumentedJarDir;
+  }
+
+  public static int getParallelUniverses() {
+    return parallelUniverses;
+  }
+
+  public static void setParallelUniverses(int parallelUniverses) {
+    RoboSettings.parallelUniverses = parallelUniverses;
+  }
+
+  public static int getPlanCacheSize() {
+    return planCacheSize;
+  }
+
+  public static void setPlanCacheSize(int planCacheSize) {
+    RoboSettings.planCacheSize = planCacheSize;
+  }
+
+  public static String getShadowProfileDir() {
+    return shadowProfileDir;
+  }
+
+  public static void setShadowProfileDir(String shadowProfileDir) {
+    RoboSettings.shadowProfileDir = shadowProfileDir;
+  }
+
+  public static int getSdkEnvironmentPoolSize() {
+    return sdkEnvironmentPoolSize;
+  }
+
+  public static void setSdkEnvironmentPoolSize(int sdkEnvironmentPoolSize) {
+    RoboSettings.sdkEnvironmentPoolSize = sdkEnvironmentPoolSize;
+  }
+
+  public static String getPinnedSdkEnvironments() {
+    return pinnedSdkEnvironments;
+  }
+
+  public static void setPinnedSdkEnvironments(String pinnedSdkEnvironments) {
+    RoboSettings.pinnedSdkEnvironments = pinnedSdkEnvironments;
+  }
+
+  public static String getResourceTableCacheDir() {
+    return resourceTableCacheDir;
+  }
+
+  public static void setResourceTableCacheDir(String resourceTableCacheDir) {
+    RoboSettings.resourceTableCacheDir = resourceTableCacheDir;
+  }
+
+  public static String getSystemResourceTableDir() {
+    return systemResourceTableDir;
+  }
+
+  public static void setSystemResourceTableDir(String systemResourceTableDir) {
+    RoboSettings.systemResourceTableDir = systemResourceTableDir;
+  }
+
+  public static boolean isIncrementalResources() {
+    return incrementalResources;
+  }
+
+  public static void setIncrementalResources(boolean incrementalResources) {
+    RoboSettings.incrementalResources = incrementalResources;
+  }
+
+  public static boolean isLazyResources() {
+    return lazyResources;
+  }
+
+  public static void setLazyResources(boolean lazyResources) {
+    RoboSettings.lazyResources = lazyResources;
+  }
+
+  public static boolean isScanRClasses() {
+    return scanRClasses;
+  }
+
+  public static void setScanRClasses(boolean scanRClasses) {
+    RoboSettings.scanRClasses = scanRClasses;
+  }
 }
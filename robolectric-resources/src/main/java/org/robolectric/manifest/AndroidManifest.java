@@ -118,7 +118,7 @@ public class AndroidManifest {
     }
   }
 
-  void parseAndroidManifest() {
+  synchronized void parseAndroidManifest() {
     if (androidManifestFile == null || manifestIsParsed) {
       return;
     }
@@ -377,7 +377,7 @@ public class AndroidManifest {
    * a resource index for initialising the resource attributes in all the metadata elements
    * @param resLoader used for getting resource IDs from string identifiers
    */
-  public void initMetaData(ResourceLoader resLoader) {
+  public synchronized void initMetaData(ResourceLoader resLoader) {
     if (applicationMetaData != null) {
       applicationMetaData.init(resLoader, packageName);
     }
@@ -4,6 +4,10 @@ import com.ximpleware.VTDGen;
 import com.ximpleware.VTDNav;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
 public class DocumentLoader {
   private static final FsFile.Filter ENDS_WITH_XML = new FsFile.Filter() {
     @Override public boolean accept(@NotNull FsFile fsFile) {
@@ -11,45 +15,115 @@ public class DocumentLoader {
     }
   };
 
+  // VTDGen isn't thread safe, so every thread parsing files gets its own
+  private static final ThreadLocal<VTDGen> vtdGens = new ThreadLocal<VTDGen>() {
+    @Override protected VTDGen initialValue() {
+      return new VTDGen();
+    }
+  };
+
   private final FsFile resourceBase;
   private final String packageName;
-  private final VTDGen vtdGen;
 
   public DocumentLoader(ResourcePath resourcePath) {
     this.resourceBase = resourcePath.getResourceBase();
     this.packageName = resourcePath.getPackageName();
-    vtdGen = new VTDGen();
   }
 
-  public void load(String folderBaseName, XmlLoader... xmlLoaders) throws Exception {
+  /**
+   * Load the files of all resource directories of a type. The files are parsed in parallel, so the loaders have to
+   * be thread safe.
+   *
+   * @param folderBaseName The type of resources.
+   * @param xmlLoaders The loaders to give each file to.
+   * @throws Exception If a file couldn't be loaded.
+   */
+  public void load(String folderBaseName, final XmlLoader... xmlLoaders) throws Exception {
+    List<FsFile> files = listFiles(folderBaseName);
+
+    if (files.size() < 2 || ResourceLoadingPool.getParallelism() < 2) {
+      for (int i = 0; i < files.size(); i++) {
+        loadResourceXmlFile(files.get(i), i, xmlLoaders);
+      }
+      return;
+    }
+
+    List<Callable<Void>> tasks = new ArrayList<>(files.size());
+    for (int i = 0; i < files.size(); i++) {
+      final FsFile file = files.get(i);
+      final int sequence = i;
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          loadResourceXmlFile(file, sequence, xmlLoaders);
+          return null;
+        }
+      });
+    }
+    ResourceLoadingPool.invokeAll(tasks);
+  }
+
+  /**
+   * Get the position of a file in the order {@link #load(String, XmlLoader...)} lists the files of a type in, so it
+   * can be loaded again on its own without changing which of several values with the same qualifiers is picked.
+   *
+   * @param file The file.
+   * @param folderBaseName The type of resources.
+   * @return The position, or the number of files if it isn't one of them.
+   */
+  int sequenceOf(FsFile file, String folderBaseName) {
+    List<FsFile> files = listFiles(folderBaseName);
+    for (int i = 0; i < files.size(); i++) {
+      if (files.get(i).getPath().equals(file.getPath())) {
+        return i;
+      }
+    }
+    return files.size();
+  }
+
+  private List<FsFile> listFiles(String folderBaseName) {
+    List<FsFile> files = new ArrayList<>();
+    for (FsFile dir : listDirectories(resourceBase, folderBaseName)) {
+      listFiles(dir, files);
+    }
+    return files;
+  }
+
+  /**
+   * List the resource directories of a type, e.g. {@code values} and {@code values-v21}.
+   *
+   * @param resourceBase The resource directory.
+   * @param folderBaseName The type of resources.
+   * @return The directories.
+   */
+  public static FsFile[] listDirectories(FsFile resourceBase, String folderBaseName) {
     FsFile[] files = resourceBase.listFiles(new DirectoryMatchingFilter(folderBaseName));
     if (files == null) {
       throw new RuntimeException(resourceBase.join(folderBaseName) + " is not a directory");
     }
-    for (FsFile dir : files) {
-      loadFile(dir, xmlLoaders);
-    }
+    return files;
   }
 
-  private void loadFile(FsFile dir, XmlLoader[] xmlLoaders) throws Exception {
+  private void listFiles(FsFile dir, List<FsFile> files) {
     if (!dir.exists()) {
       throw new RuntimeException("no such directory " + dir);
     }
 
     for (FsFile file : dir.listFiles(ENDS_WITH_XML)) {
-      loadResourceXmlFile(file, xmlLoaders);
+      files.add(file);
     }
   }
 
-  private void loadResourceXmlFile(FsFile fsFile, XmlLoader... xmlLoaders) throws Exception {
+  void loadResourceXmlFile(FsFile fsFile, int sequence, XmlLoader... xmlLoaders) throws Exception {
     VTDNav vtdNav = parse(fsFile);
     for (XmlLoader xmlLoader : xmlLoaders) {
-      xmlLoader.processResourceXml(fsFile, vtdNav, packageName);
+      xmlLoader.processResourceXml(fsFile, vtdNav, packageName, sequence);
     }
   }
 
   private VTDNav parse(FsFile xmlFile) throws Exception {
     byte[] bytes = xmlFile.getBytes();
+    VTDGen vtdGen = vtdGens.get();
     vtdGen.setDoc(bytes);
     vtdGen.parse(true);
 
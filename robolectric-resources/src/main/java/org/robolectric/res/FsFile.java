@@ -26,6 +26,16 @@ public interface FsFile {
 
   byte[] getBytes() throws IOException;
 
+  /**
+   * @return The size of the file in bytes, or 0 if it isn't a file.
+   */
+  long length();
+
+  /**
+   * @return The time the file was last modified in milliseconds since the epoch, or 0 if unknown.
+   */
+  long lastModified();
+
   FsFile join(String... pathParts);
 
   @Override String toString();
@@ -0,0 +1,107 @@
+package org.robolectric.res;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Resource names by id, without boxing the ids. Lookups don't lock, so views can be inflated from several threads.
+ * Puts are serialized.
+ */
+public class IdToResNameMap {
+  private volatile Table table = new Table(16);
+  private int size;
+
+  /**
+   * @return The name of a resource, or null if it isn't in the map.
+   */
+  public ResName get(int id) {
+    Table table = this.table;
+    int index = table.find(id);
+    return index == -1 ? null : table.resNames.get(index);
+  }
+
+  public synchronized void put(int id, ResName resName) {
+    if ((size + 1) * 2 > table.capacity()) {
+      table = table.resize(table.capacity() * 2);
+    }
+    if (table.put(id, resName)) {
+      size++;
+    }
+  }
+
+  public synchronized void putAll(IdToResNameMap other) {
+    Table otherTable = other.table;
+    for (int i = 0; i < otherTable.capacity(); i++) {
+      ResName resName = otherTable.resNames.get(i);
+      if (resName != null) {
+        put(otherTable.ids[i], resName);
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  static int mix(int hash) {
+    int h = hash * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Open addressing with linear probing. The id of a slot is written before its name, and readers read the name
+   * first, so a reader never sees a name without its id.
+   */
+  private static class Table {
+    private final int[] ids;
+    private final AtomicReferenceArray<ResName> resNames;
+
+    Table(int capacity) {
+      ids = new int[capacity];
+      resNames = new AtomicReferenceArray<>(capacity);
+    }
+
+    int capacity() {
+      return ids.length;
+    }
+
+    int find(int id) {
+      int mask = ids.length - 1;
+      for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+        if (resNames.get(i) == null) {
+          return -1;
+        } else if (ids[i] == id) {
+          return i;
+        }
+      }
+    }
+
+    boolean put(int id, ResName resName) {
+      int mask = ids.length - 1;
+      for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+        if (resNames.get(i) == null) {
+          ids[i] = id;
+          resNames.set(i, resName);
+          return true;
+        } else if (ids[i] == id) {
+          resNames.set(i, resName);
+          return false;
+        }
+      }
+    }
+
+    Table resize(int capacity) {
+      Table table = new Table(capacity);
+      for (int i = 0; i < ids.length; i++) {
+        ResName resName = resNames.get(i);
+        if (resName != null) {
+          table.put(ids[i], resName);
+        }
+      }
+      return table;
+    }
+  }
+}
@@ -3,7 +3,6 @@ package org.robolectric.res;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 class OverlayResourceIndex extends ResourceIndex {
@@ -29,9 +28,8 @@ class OverlayResourceIndex extends ResourceIndex {
     for (ResourceIndex subResourceIndex : subResourceIndexes) {
       actualPackageNames.addAll(subResourceIndex.getPackages());
 
-      for (Map.Entry<ResName, Integer> entry : subResourceIndex.resourceNameToId.entrySet()) {
-        ResName resName = entry.getKey();
-        int value = entry.getValue();
+      for (ResName resName : subResourceIndex.resourceNameToId.getResNames()) {
+        int value = subResourceIndex.resourceNameToId.get(resName);
         ResName localResName = resName.withPackageName(packageName);
         if (!resourceNameToId.containsKey(localResName)) {
           resourceNameToId.put(localResName, value);
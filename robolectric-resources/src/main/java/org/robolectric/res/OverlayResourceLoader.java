@@ -6,12 +6,10 @@ import org.robolectric.res.builder.XmlBlock;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.concurrent.Callable;
 
 public class OverlayResourceLoader extends XResourceLoader {
 
-  private static final int MAX_PARALLELISM = calculateMaxParallelism();
-
   private final String packageName;
   private final List<PackageResourceLoader> subResourceLoaders;
 
@@ -27,15 +25,50 @@ public class OverlayResourceLoader extends XResourceLoader {
     mergeResources();
   }
 
-  /**
-   * The number of threads in the executor shouldn't go above 4 because this will cause
-   * I/O contention on most machines. Similarly it shouldn't go above half the cores because
-   * we don't want to bog down the machine with I/O waits. Finally, we want at least 1 thread
-   * to make sure the work gets done.
-   */
-  private static int calculateMaxParallelism() {
-    int threadsToUse = Math.min(4, Runtime.getRuntime().availableProcessors()/2);
-    return Math.max(1, threadsToUse);
+  @Override
+  void doLoad(String type) {
+    boolean lazy = false;
+    for (PackageResourceLoader subResourceLoader : subResourceLoaders) {
+      subResourceLoader.load(type);
+      lazy |= subResourceLoader.isLazy();
+    }
+    if (!lazy) {
+      return;
+    }
+
+    // lookups of the types loaded before don't take the lock, so leave their values alone and only add this type's
+    ResBundle<TypedResource> typeData = new ResBundle<>();
+    for (PackageResourceLoader subResourceLoader : subResourceLoaders) {
+      typeData.mergeLibraryStyle(subResourceLoader.data.getBundle(type), packageName);
+      xmlDocuments.mergeLibraryStyle(subResourceLoader.xmlDocuments, packageName, type);
+      drawableData.mergeLibraryStyle(subResourceLoader.drawableData, packageName, type);
+      rawResources.mergeLibraryStyle(subResourceLoader.rawResources, packageName, type);
+    }
+    typeData.makeImmutable();
+    // the values of this type from values files were already merged, so swap in the whole bundle rather than add to it
+    data.putBundle(type, typeData);
+  }
+
+  @Override
+  public synchronized boolean reloadChangedFiles() {
+    boolean reloaded = false;
+    for (PackageResourceLoader subResourceLoader : subResourceLoaders) {
+      reloaded |= subResourceLoader.reloadChangedFiles();
+    }
+    if (!reloaded || !isInitialized()) {
+      return false;
+    }
+
+    data.clear();
+    pluralsData.clear();
+    stringData.clear();
+    drawableData.clear();
+    xmlDocuments.clear();
+    rawResources.clear();
+    mergeResources();
+    makeImmutable();
+    clearStyleAttributeTables();
+    return true;
   }
 
   private void initialiseResourceLoaders() {
@@ -120,19 +153,12 @@ public class OverlayResourceLoader extends XResourceLoader {
   }
 
   private void runTasksInExecutor(List<Callable<Void>> tasks) {
-    ForkJoinPool executorService = new ForkJoinPool(MAX_PARALLELISM);
     try {
-      executorService.invokeAll(tasks);
-    } finally {
-      executorService.shutdown();
-      try {
-        if (!executorService.awaitTermination(5, TimeUnit.MINUTES)) {
-          throw new RuntimeException(
-              "Xml parsing for subdirectories of " + packageName + " took longer than 5 minutes");
-        }
-      } catch(InterruptedException e) {
-        throw new RuntimeException(e);
-      }
+      ResourceLoadingPool.invokeAll(tasks);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
     }
   }
 
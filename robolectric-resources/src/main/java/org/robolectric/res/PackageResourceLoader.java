@@ -1,17 +1,43 @@
 package org.robolectric.res;
 
+import org.robolectric.RoboSettings;
 import org.robolectric.util.Logger;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 public class PackageResourceLoader extends XResourceLoader {
+  private static final String[] DOCUMENT_TYPES = {"layout", "menu", "drawable", "anim", "animator", "color", "xml", "transition", "interpolator"};
+
   private final ResourcePath resourcePath;
+  private final ResourceTableCache resourceTableCache;
+  private Map<String, String> fileStamps;
+  private boolean lazy;
+  private boolean drawableImagesLoaded;
 
   public PackageResourceLoader(ResourcePath resourcePath) {
     this(resourcePath, new ResourceExtractor(resourcePath));
   }
 
   public PackageResourceLoader(ResourcePath resourcePath, ResourceIndex resourceIndex) {
+    this(resourcePath, resourceIndex, null);
+  }
+
+  /**
+   * @param resourcePath The resources to load.
+   * @param resourceIndex The index of their ids.
+   * @param resourceTableCache Where to load their values from, or null to use {@code robolectric.resourcecache.dir}.
+   */
+  public PackageResourceLoader(ResourcePath resourcePath, ResourceIndex resourceIndex, ResourceTableCache resourceTableCache) {
     super(resourceIndex);
     this.resourcePath = resourcePath;
+    this.resourceTableCache = resourceTableCache;
   }
 
   void doInitialize() {
@@ -29,7 +55,183 @@ public class PackageResourceLoader extends XResourceLoader {
 
     DocumentLoader documentLoader = new DocumentLoader(resourcePath);
 
-    documentLoader.load("values",
+    ResourceTableCache resourceTableCache = createResourceTableCache();
+    if (resourceTableCache != null && resourceTableCache.read(data, pluralsData)) {
+      Logger.debug("Loaded values for %s from %s", resourcePath.getPackageName(), resourceTableCache.getCacheFile());
+    } else {
+      loadValues(documentLoader, data, pluralsData);
+      if (resourceTableCache != null) {
+        resourceTableCache.write(data, pluralsData);
+      }
+    }
+
+    lazy = RoboSettings.isLazyResources();
+    if (!lazy) {
+      for (String type : DOCUMENT_TYPES) {
+        documentLoader.load(type, documentLoaders(type));
+      }
+
+      new DrawableResourceLoader(drawableData).findDrawableResources(resourcePath);
+      drawableImagesLoaded = true;
+      new RawResourceLoader(resourcePath).loadTo(rawResources);
+    }
+
+    if (RoboSettings.isIncrementalResources()) {
+      fileStamps = stampFiles();
+    }
+  }
+
+  /**
+   * When loading lazily, load the files of a type of resource the first time it is asked for.
+   */
+  @Override
+  void doLoad(String type) {
+    if (!lazy) {
+      return;
+    }
+
+    Logger.debug("Loading %s resources for %s...", type, resourcePath.getPackageName());
+    try {
+      if (Arrays.asList(DOCUMENT_TYPES).contains(type)) {
+        new DocumentLoader(resourcePath).load(type, documentLoaders(type));
+      }
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    if (("drawable".equals(type) || "mipmap".equals(type)) && !drawableImagesLoaded) {
+      new DrawableResourceLoader(drawableData).findDrawableResources(resourcePath);
+      drawableImagesLoaded = true;
+    }
+    if ("raw".equals(type)) {
+      new RawResourceLoader(resourcePath).loadTo(rawResources);
+    }
+  }
+
+  boolean isLazy() {
+    return lazy;
+  }
+
+  /**
+   * Load the resources again from the files that were added, changed or removed since they were loaded, and update
+   * them in place. Only works if {@code robolectric.resources.incremental} was set when they were loaded.
+   *
+   * @return True if any files changed.
+   */
+  @Override
+  public synchronized boolean reloadChangedFiles() {
+    if (fileStamps == null) {
+      return false;
+    }
+
+    Map<String, String> newFileStamps = stampFiles();
+    Set<String> changedFiles = new HashSet<>();
+    for (Map.Entry<String, String> entry : newFileStamps.entrySet()) {
+      if (!entry.getValue().equals(fileStamps.get(entry.getKey()))) {
+        changedFiles.add(entry.getKey());
+      }
+    }
+    for (String path : fileStamps.keySet()) {
+      if (!newFileStamps.containsKey(path)) {
+        changedFiles.add(path);
+      }
+    }
+    if (changedFiles.isEmpty()) {
+      return false;
+    }
+
+    Logger.info("Reloading %d changed resource files of %s", changedFiles.size(), resourcePath.getPackageName());
+    try {
+      reload(changedFiles);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    fileStamps = newFileStamps;
+    clearStyleAttributeTables();
+    return true;
+  }
+
+  private void reload(Set<String> changedFiles) throws Exception {
+    data.removeValuesFrom(changedFiles);
+    pluralsData.removeValuesFrom(changedFiles);
+    xmlDocuments.removeValuesFrom(changedFiles);
+
+    DocumentLoader documentLoader = new DocumentLoader(resourcePath);
+    boolean drawablesChanged = false;
+    boolean rawResourcesChanged = false;
+    for (FsFile dir : listResourceDirectories()) {
+      String dirName = dir.getName();
+      drawablesChanged |= dirName.startsWith("drawable") || dirName.startsWith("mipmap");
+      rawResourcesChanged |= dirName.equals("raw");
+
+      for (FsFile file : dir.listFiles()) {
+        if (!changedFiles.contains(file.getPath()) || !file.getName().endsWith(".xml")) continue;
+
+        // directories are matched by prefix when loading everything, so do the same here
+        if (dirName.startsWith("values")) {
+          documentLoader.loadResourceXmlFile(file, documentLoader.sequenceOf(file, "values"), valueLoaders(data, pluralsData));
+        }
+        for (String type : DOCUMENT_TYPES) {
+          // types that haven't been loaded lazily yet will be loaded from the current files anyway
+          if (dirName.startsWith(type) && isLoadedType(type)) {
+            documentLoader.loadResourceXmlFile(file, documentLoader.sequenceOf(file, type), documentLoaders(type));
+          }
+        }
+      }
+    }
+
+    // drawable images and raw resources are only listed, so just list them again
+    if (drawablesChanged && drawableImagesLoaded) {
+      drawableData.clear();
+      new DrawableResourceLoader(drawableData).findDrawableResources(resourcePath);
+    }
+    if (rawResourcesChanged && isLoadedType("raw")) {
+      rawResources.clear();
+      new RawResourceLoader(resourcePath).loadTo(rawResources);
+    }
+  }
+
+  private boolean isLoadedType(String type) {
+    return !lazy || isLoaded(type);
+  }
+
+  private Map<String, String> stampFiles() {
+    Map<String, String> stamps = new HashMap<>();
+    for (FsFile dir : listResourceDirectories()) {
+      for (FsFile file : dir.listFiles()) {
+        stamps.put(file.getPath(), file.length() + ":" + file.lastModified());
+      }
+    }
+    return stamps;
+  }
+
+  private List<FsFile> listResourceDirectories() {
+    List<FsFile> dirs = new ArrayList<>();
+    FsFile[] files = resourcePath.getResourceBase().listFiles();
+    if (files != null) {
+      for (FsFile file : files) {
+        if (file.isDirectory()) {
+          dirs.add(file);
+        }
+      }
+    }
+    return dirs;
+  }
+
+  private XmlLoader[] documentLoaders(String type) {
+    XmlLoader fileLoader = "color".equals(type) ? new ColorResourceLoader(data) : new OpaqueFileLoader(data, type);
+    return new XmlLoader[] {fileLoader, new XmlBlockLoader(xmlDocuments, type)};
+  }
+
+  static void loadValues(DocumentLoader documentLoader, ResBunch data, ResBundle<PluralResourceLoader.PluralRules> pluralsData) throws Exception {
+    documentLoader.load("values", valueLoaders(data, pluralsData));
+  }
+
+  private static XmlLoader[] valueLoaders(ResBunch data, ResBundle<PluralResourceLoader.PluralRules> pluralsData) {
+    return new XmlLoader[] {
         new ValueResourceLoader(data, "/resources/bool", "bool", ResType.BOOLEAN),
         new ValueResourceLoader(data, "/resources/item[@type='bool']", "bool", ResType.BOOLEAN),
         new ValueResourceLoader(data, "/resources/color", "color", ResType.COLOR),
@@ -49,20 +251,19 @@ public class PackageResourceLoader extends XResourceLoader {
         new ValueResourceLoader(data, "/resources/string-array", "array", ResType.CHAR_SEQUENCE_ARRAY),
         new AttrResourceLoader(data),
         new StyleResourceLoader(data)
-    );
-
-    documentLoader.load("layout", new OpaqueFileLoader(data, "layout"), new XmlBlockLoader(xmlDocuments, "layout"));
-    documentLoader.load("menu", new OpaqueFileLoader(data, "menu"), new XmlBlockLoader(xmlDocuments, "menu"));
-    documentLoader.load("drawable", new OpaqueFileLoader(data, "drawable"), new XmlBlockLoader(xmlDocuments, "drawable"));
-    documentLoader.load("anim", new OpaqueFileLoader(data, "anim"), new XmlBlockLoader(xmlDocuments, "anim"));
-    documentLoader.load("animator", new OpaqueFileLoader(data, "animator"), new XmlBlockLoader(xmlDocuments, "animator"));
-    documentLoader.load("color", new ColorResourceLoader(data), new XmlBlockLoader(xmlDocuments, "color"));
-    documentLoader.load("xml", new OpaqueFileLoader(data, "xml"), new XmlBlockLoader(xmlDocuments, "xml"));
-    documentLoader.load("transition", new OpaqueFileLoader(data, "transition"), new XmlBlockLoader(xmlDocuments, "transition"));
-    documentLoader.load("interpolator", new OpaqueFileLoader(data, "interpolator"), new XmlBlockLoader(xmlDocuments, "interpolator"));
-
-    new DrawableResourceLoader(drawableData).findDrawableResources(resourcePath);
-    new RawResourceLoader(resourcePath).loadTo(rawResources);
+    };
+  }
+
+  private ResourceTableCache createResourceTableCache() {
+    if (resourceTableCache != null) {
+      return resourceTableCache;
+    }
+
+    String cacheDir = RoboSettings.getResourceTableCacheDir();
+    if (cacheDir == null) {
+      return null;
+    }
+    return new ResourceTableCache(new File(cacheDir), resourcePath, DocumentLoader.listDirectories(resourcePath.getResourceBase(), "values"));
   }
 
   @Override
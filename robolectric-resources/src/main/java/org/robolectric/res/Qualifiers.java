@@ -1,6 +1,8 @@
 package org.robolectric.res;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,7 +23,7 @@ public class Qualifiers {
   private static final List<String> INT_QUALIFIERS = Arrays.asList("v", "h", "w", "sh", "sw");
   private static final int TOTAL_ORDER_COUNT = INT_QUALIFIERS.size();
 
-  private static final Map<String, Qualifiers> sQualifiersCache = new HashMap<>();
+  private static final ConcurrentMap<String, Qualifiers> sQualifiersCache = new ConcurrentHashMap<>();
 
   private final int[] mWeights = new int[TOTAL_ORDER_COUNT];
   // Set of all the qualifiers which need exact matching.
@@ -68,45 +70,50 @@ public class Qualifiers {
   }
 
   public static Qualifiers parse(String qualifiersStr) {
-    synchronized (sQualifiersCache) {
-      Qualifiers result = sQualifiersCache.get(qualifiersStr);
-      if (result != null) {
-        return result;
+    Qualifiers result = sQualifiersCache.get(qualifiersStr);
+    if (result == null) {
+      result = doParse(qualifiersStr);
+      Qualifiers existing = sQualifiersCache.putIfAbsent(qualifiersStr, result);
+      if (existing != null) {
+        result = existing;
+      }
+    }
+    return result;
+  }
+
+  private static Qualifiers doParse(String qualifiersStr) {
+    StringTokenizer st = new StringTokenizer(qualifiersStr, "-");
+    Qualifiers result = new Qualifiers();
+    // Version qualifiers are also allowed to match when only one of the qualifiers
+    // defines a version restriction.
+    result.mWeights[ORDER_VERSION] = -1;
+
+    while (st.hasMoreTokens()) {
+      String qualifier = st.nextToken();
+      if (qualifier.isEmpty()) {
+        continue;
       }
-      StringTokenizer st = new StringTokenizer(qualifiersStr, "-");
-      result = new Qualifiers();
-      // Version qualifiers are also allowed to match when only one of the qualifiers
-      // defines a version restriction.
-      result.mWeights[ORDER_VERSION] = -1;
-
-      while (st.hasMoreTokens()) {
-        String qualifier = st.nextToken();
-        if (qualifier.isEmpty()) {
-          continue;
-        }
 
-        Matcher m = VERSION_QUALIFIER_PATTERN.matcher(qualifier);
+      Matcher m = VERSION_QUALIFIER_PATTERN.matcher(qualifier);
+      if (!m.find()) {
+        m = SIZE_QUALIFIER_PATTERN.matcher(qualifier);
         if (!m.find()) {
-          m = SIZE_QUALIFIER_PATTERN.matcher(qualifier);
-          if (!m.find()) {
-            m = null;
-          }
+          m = null;
         }
-        if (m != null) {
-          int order = INT_QUALIFIERS.indexOf(m.group(1));
-          if (order == ORDER_VERSION && result.mWeights[ORDER_VERSION] != -1) {
-            throw new IllegalStateException(
-                "A resource file was found that had two API level qualifiers: " + qualifiersStr);
-          }
-          result.mWeights[order] = Integer.parseInt(m.group(2));
-        } else {
-          result.mDefaults.add(qualifier);
+      }
+      if (m != null) {
+        int order = INT_QUALIFIERS.indexOf(m.group(1));
+        if (order == ORDER_VERSION && result.mWeights[ORDER_VERSION] != -1) {
+          throw new IllegalStateException(
+              "A resource file was found that had two API level qualifiers: " + qualifiersStr);
         }
+        result.mWeights[order] = Integer.parseInt(m.group(2));
+      } else {
+        result.mDefaults.add(qualifier);
       }
-
-      sQualifiersCache.put(qualifiersStr, result);
-      return result;
     }
+
+    return result;
   }
 
   public static int getPlatformVersion(String qualifiers) {
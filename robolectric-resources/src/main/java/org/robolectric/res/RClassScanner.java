@@ -0,0 +1,224 @@
+package org.robolectric.res;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the resource ids of an R class from its bytecode instead of by reflection, so that its inner classes don't
+ * have to be loaded and initialized by the instrumenting class loader.
+ *
+ * <p>The ids of final fields are their constant values. Library R classes have non-final fields, which are read
+ * from the constants that the static initializer stores in them. Results are cached by the hash of the bytecode,
+ * so an R class loaded by several class loaders is only read once.
+ */
+public class RClassScanner {
+  private static final Map<HashCode, List<Resource>> CACHE = new ConcurrentHashMap<>();
+
+  /**
+   * @return The resources of an R class, or null if its bytecode can't be found or isn't made of constants only.
+   */
+  public static List<Resource> scan(Class<?> rClass) {
+    ClassLoader classLoader = rClass.getClassLoader() == null ? ClassLoader.getSystemClassLoader() : rClass.getClassLoader();
+    String internalName = rClass.getName().replace('.', '/');
+    byte[] rClassBytes = readClass(classLoader, internalName);
+    if (rClassBytes == null) {
+      return null;
+    }
+
+    Map<String, String> innerClasses = findInnerClasses(rClassBytes, internalName);
+    Map<String, byte[]> innerClassBytes = new LinkedHashMap<>();
+    Hasher hasher = Hashing.sha1().newHasher().putBytes(rClassBytes);
+    for (String innerClass : innerClasses.keySet()) {
+      byte[] bytes = readClass(classLoader, innerClass);
+      if (bytes == null) {
+        return null;
+      }
+      innerClassBytes.put(innerClass, bytes);
+      hasher.putBytes(bytes);
+    }
+
+    HashCode hash = hasher.hash();
+    List<Resource> resources = CACHE.get(hash);
+    if (resources == null) {
+      resources = new ArrayList<>();
+      for (Map.Entry<String, byte[]> entry : innerClassBytes.entrySet()) {
+        String type = innerClasses.get(entry.getKey());
+        if (!type.equals("styleable") && !scanInnerClass(entry.getValue(), entry.getKey(), type, resources)) {
+          return null;
+        }
+      }
+      resources = Collections.unmodifiableList(resources);
+      CACHE.put(hash, resources);
+    }
+    return resources;
+  }
+
+  private static byte[] readClass(ClassLoader classLoader, String internalName) {
+    try (InputStream inputStream = classLoader.getResourceAsStream(internalName + ".class")) {
+      return inputStream == null ? null : ByteStreams.toByteArray(inputStream);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return The public member classes of an R class, by internal name, with their simple names.
+   */
+  private static Map<String, String> findInnerClasses(byte[] rClassBytes, final String internalName) {
+    final Map<String, String> innerClasses = new LinkedHashMap<>();
+    new ClassReader(rClassBytes).accept(new ClassVisitor(Opcodes.ASM5) {
+      @Override
+      public void visitInnerClass(String name, String outerName, String innerName, int access) {
+        if (internalName.equals(outerName) && (access & Opcodes.ACC_PUBLIC) != 0) {
+          innerClasses.put(name, innerName);
+        }
+      }
+    }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    return innerClasses;
+  }
+
+  private static boolean scanInnerClass(byte[] bytes, final String internalName, String type, List<Resource> resources) {
+    final Map<String, Integer> ids = new LinkedHashMap<>();
+    new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM5) {
+      @Override
+      public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+        if ((access & Opcodes.ACC_STATIC) != 0 && desc.equals("I")) {
+          ids.put(name, value instanceof Integer ? (Integer) value : null);
+        }
+        return null;
+      }
+
+      @Override
+      public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+        return name.equals("<clinit>") ? new StaticInitializerVisitor(internalName, ids) : null;
+      }
+    }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+    for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+      if (entry.getValue() == null) {
+        return false;
+      }
+      resources.add(new Resource(type, entry.getKey(), entry.getValue()));
+    }
+    return true;
+  }
+
+  /**
+   * Records the constants that are stored straight into int fields of the class. Any other instruction forgets the
+   * last constant, so a computed value is never mistaken for a constant one.
+   */
+  private static class StaticInitializerVisitor extends MethodVisitor {
+    private final String owner;
+    private final Map<String, Integer> ids;
+    private Integer lastConstant;
+
+    StaticInitializerVisitor(String owner, Map<String, Integer> ids) {
+      super(Opcodes.ASM5);
+      this.owner = owner;
+      this.ids = ids;
+    }
+
+    @Override
+    public void visitInsn(int opcode) {
+      lastConstant = opcode >= Opcodes.ICONST_M1 && opcode <= Opcodes.ICONST_5 ? opcode - Opcodes.ICONST_0 : null;
+    }
+
+    @Override
+    public void visitIntInsn(int opcode, int operand) {
+      lastConstant = opcode == Opcodes.BIPUSH || opcode == Opcodes.SIPUSH ? operand : null;
+    }
+
+    @Override
+    public void visitLdcInsn(Object cst) {
+      lastConstant = cst instanceof Integer ? (Integer) cst : null;
+    }
+
+    @Override
+    public void visitFieldInsn(int opcode, String owner, String name, String desc) {
+      if (opcode == Opcodes.PUTSTATIC && owner.equals(this.owner) && desc.equals("I") && ids.containsKey(name)) {
+        ids.put(name, lastConstant);
+      }
+      lastConstant = null;
+    }
+
+    @Override
+    public void visitVarInsn(int opcode, int var) {
+      lastConstant = null;
+    }
+
+    @Override
+    public void visitTypeInsn(int opcode, String type) {
+      lastConstant = null;
+    }
+
+    @Override
+    public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+      lastConstant = null;
+    }
+
+    @Override
+    public void visitInvokeDynamicInsn(String name, String desc, Handle bsm, Object... bsmArgs) {
+      lastConstant = null;
+    }
+
+    @Override
+    public void visitJumpInsn(int opcode, Label label) {
+      lastConstant = null;
+    }
+
+    @Override
+    public void visitLabel(Label label) {
+      lastConstant = null;
+    }
+
+    @Override
+    public void visitIincInsn(int var, int increment) {
+      lastConstant = null;
+    }
+
+    @Override
+    public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+      lastConstant = null;
+    }
+
+    @Override
+    public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+      lastConstant = null;
+    }
+
+    @Override
+    public void visitMultiANewArrayInsn(String desc, int dims) {
+      lastConstant = null;
+    }
+  }
+
+  public static class Resource {
+    public final String type;
+    public final String name;
+    public final int id;
+
+    public Resource(String type, String name, int id) {
+      this.type = type;
+      this.name = name;
+      this.id = id;
+    }
+  }
+}
@@ -1,26 +1,38 @@
 package org.robolectric.res;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.jetbrains.annotations.NotNull;
 
 public class ResBunch {
-  private final Map<String, ResBundle<TypedResource>> types = new LinkedHashMap<>();
+  private final ConcurrentMap<String, ResBundle<TypedResource>> types = new ConcurrentHashMap<>();
 
   public void put(String attrType, String name, TypedResource value, XmlLoader.XmlContext xmlContext) {
     ResBundle<TypedResource> bundle = getBundle(attrType);
     bundle.put(attrType, name, value, xmlContext);
   }
 
-  private ResBundle<TypedResource> getBundle(String attrType) {
+  ResBundle<TypedResource> getBundle(String attrType) {
     ResBundle<TypedResource> bundle = types.get(attrType);
     if (bundle == null) {
       bundle = new ResBundle<>();
-      types.put(attrType, bundle);
+      ResBundle<TypedResource> existing = types.putIfAbsent(attrType, bundle);
+      if (existing != null) {
+        bundle = existing;
+      }
     }
     return bundle;
   }
 
+  /**
+   * Replace the values of a type at once, so lookups running meanwhile see either all of the old ones or all of the new.
+   */
+  void putBundle(String attrType, ResBundle<TypedResource> bundle) {
+    types.put(attrType, bundle);
+  }
+
   public TypedResource get(@NotNull ResName resName, String qualifiers) {
     ResBundle.Value<TypedResource> value = getValue(resName, qualifiers);
     return value == null ? null : value.getValue();
@@ -39,6 +51,30 @@ public class ResBunch {
     return size;
   }
 
+  Map<String, ResBundle<TypedResource>> getBundles() {
+    return types;
+  }
+
+  void putAll(ResBunch fromResBunch) {
+    for (Map.Entry<String, ResBundle<TypedResource>> entry : fromResBunch.types.entrySet()) {
+      getBundle(entry.getKey()).putAll(entry.getValue());
+    }
+  }
+
+  boolean removeValuesFrom(Set<String> sources) {
+    boolean removed = false;
+    for (ResBundle<TypedResource> bundle : types.values()) {
+      removed |= bundle.removeValuesFrom(sources);
+    }
+    return removed;
+  }
+
+  void clear() {
+    for (ResBundle<TypedResource> bundle : types.values()) {
+      bundle.clear();
+    }
+  }
+
   public void makeImmutable() {
     for (ResBundle<TypedResource> bundle : types.values()) {
       bundle.makeImmutable();
@@ -1,25 +1,43 @@
 package org.robolectric.res;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Values of resources by name, with all of their qualified alternatives.
+ *
+ * <p>Values may be put from several threads at once, while others look them up.
+ */
 public class ResBundle<T> {
-
+  // merged values come after existing ones with the same qualifiers, whatever the order of their files
+  private static final Comparator<Value<?>> BY_QUALIFIERS = new Comparator<Value<?>>() {
+    @Override
+    public int compare(Value<?> a, Value<?> b) {
+      return a.qualifiers.compareTo(b.qualifiers);
+    }
+  };
 
   private final ResMap<T> valuesMap = new ResMap<>();
   private final ResMap<List<T>> valuesArrayMap = new ResMap<>();
+  // best matches by requested qualifiers and resource name, so repeated lookups don't have to pick again
+  private final ConcurrentMap<String, ConcurrentMap<ResName, Picked>> picked = new ConcurrentHashMap<>();
+  // bumped after every change of the values, so picks made from older values are ignored
+  private final AtomicLong version = new AtomicLong();
   private String overrideNamespace;
 
   public void put(String attrType, String name, T value, XmlLoader.XmlContext xmlContext) {
     ResName resName = new ResName(maybeOverride(xmlContext.packageName), attrType, name);
     List<Value<T>> values = valuesMap.find(resName);
-    values.add(new Value<>(xmlContext.getQualifiers(), value));
-    Collections.sort(values);
+    insertSorted(values, new Value<>(xmlContext.getQualifiers(), value, xmlContext.getXmlFile().getPath(), xmlContext.getSequence()), null);
+    changed();
   }
 
   public T get(ResName resName, String qualifiers) {
@@ -27,9 +45,30 @@ public class ResBundle<T> {
     return value == null ? null : value.value;
   }
 
+  @SuppressWarnings("unchecked")
   public Value<T> getValue(ResName resName, String qualifiers) {
-    List<Value<T>> values = valuesMap.find(maybeOverride(resName));
-    return values != null ? pick(values, qualifiers) : null;
+    if (qualifiers == null) {
+      List<Value<T>> values = valuesMap.find(maybeOverride(resName));
+      return pick(values, qualifiers);
+    }
+
+    ConcurrentMap<ResName, Picked> pickedForQualifiers = picked.get(qualifiers);
+    if (pickedForQualifiers == null) {
+      pickedForQualifiers = new ConcurrentHashMap<>();
+      ConcurrentMap<ResName, Picked> existing = picked.putIfAbsent(qualifiers, pickedForQualifiers);
+      if (existing != null) {
+        pickedForQualifiers = existing;
+      }
+    }
+
+    // read before the values, so a pick from values changed meanwhile is stored under an already outdated version
+    long currentVersion = version.get();
+    Picked pick = pickedForQualifiers.get(resName);
+    if (pick == null || pick.version != currentVersion) {
+      pick = new Picked(pick(valuesMap.find(maybeOverride(resName)), qualifiers), currentVersion);
+      pickedForQualifiers.put(resName, pick);
+    }
+    return (Value<T>) pick.value;
   }
 
   public static <T> Value<T> pick(List<Value<T>> values, String qualifiersStr) {
@@ -52,37 +91,106 @@ public class ResBundle<T> {
 
     Qualifiers bestMatchQualifiers = null;
     Value<T> bestMatch = null;
+    Value<T> firstPassingRequirements = null;
 
-    List<Value<T>> passesRequirements = new ArrayList<>();
     for (Value<T> value : values) {
-      Qualifiers qualifiers = Qualifiers.parse(value.qualifiers);
-      if (qualifiers.passesRequirements(toMatch)) {
-        passesRequirements.add(value);
+      Qualifiers qualifiers = value.getParsedQualifiers();
+      if (!qualifiers.passesRequirements(toMatch)) {
+        continue;
       }
-    }
 
-    for (Value<T> value : passesRequirements) {
-      Qualifiers qualifiers = Qualifiers.parse(value.qualifiers);
+      if (firstPassingRequirements == null) {
+        firstPassingRequirements = value;
+      }
       if (qualifiers.matches(toMatch)) {
         if (bestMatchQualifiers == null || qualifiers.isBetterThan(bestMatchQualifiers, toMatch)) {
           bestMatchQualifiers = qualifiers;
-          bestMatch =  value;
+          bestMatch = value;
         }
       }
     }
-    if (bestMatch != null) {
-      return bestMatch;
-    }
-    if (!passesRequirements.isEmpty()) {
-      return passesRequirements.get(0);
-    }
-    return null;
+    return bestMatch != null ? bestMatch : firstPassingRequirements;
   }
 
   public int size() {
     return valuesMap.size() + valuesArrayMap.size();
   }
 
+  Map<ResName, List<Value<T>>> getValues() {
+    return valuesMap.map;
+  }
+
+  void putValues(ResName resName, List<Value<T>> values) {
+    List<Value<T>> existingValues = valuesMap.find(resName);
+    for (Value<T> value : values) {
+      insertSorted(existingValues, value, null);
+    }
+    changed();
+  }
+
+  void putAll(ResBundle<T> fromResBundle) {
+    for (Map.Entry<ResName, List<Value<T>>> entry : fromResBundle.getValues().entrySet()) {
+      putValues(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * @param comparator The order of the values, or null for their natural order.
+   */
+  private static <T> void insertSorted(List<Value<T>> values, Value<T> value, Comparator<? super Value<T>> comparator) {
+    synchronized (values) {
+      int index = values.size();
+      while (index > 0 && compare(values.get(index - 1), value, comparator) > 0) {
+        index--;
+      }
+      values.add(index, value);
+    }
+  }
+
+  private void changed() {
+    version.incrementAndGet();
+    picked.clear();
+  }
+
+  private static <T> int compare(Value<T> a, Value<T> b, Comparator<? super Value<T>> comparator) {
+    return comparator == null ? a.compareTo(b) : comparator.compare(a, b);
+  }
+
+  /**
+   * Remove the values that were loaded from some files, so they can be loaded again.
+   *
+   * @param sources The paths of the files.
+   * @return True if any values were removed.
+   */
+  boolean removeValuesFrom(Set<String> sources) {
+    boolean removed = false;
+    Iterator<List<Value<T>>> iterator = valuesMap.map.values().iterator();
+    while (iterator.hasNext()) {
+      List<Value<T>> values = iterator.next();
+      List<Value<T>> valuesToRemove = new ArrayList<>();
+      for (Value<T> value : values) {
+        if (sources.contains(value.source)) {
+          valuesToRemove.add(value);
+        }
+      }
+      removed |= values.removeAll(valuesToRemove);
+      if (values.isEmpty()) {
+        iterator.remove();
+      }
+    }
+    changed();
+    return removed;
+  }
+
+  /**
+   * Remove all values, so the bundle can be loaded or merged again.
+   */
+  void clear() {
+    valuesMap.clear();
+    valuesArrayMap.clear();
+    changed();
+  }
+
   public void makeImmutable() {
     valuesMap.makeImmutable();
     valuesArrayMap.makeImmutable();
@@ -104,19 +212,45 @@ public class ResBundle<T> {
   public void mergeLibraryStyle(ResBundle<T> fromResBundle, String packageName) {
     valuesMap.merge(packageName, fromResBundle.valuesMap);
     valuesArrayMap.merge(packageName, fromResBundle.valuesArrayMap);
+    changed();
+  }
+
+  /**
+   * Merge only the values of one type of resource, which this bundle doesn't have yet. Allowed after
+   * {@link #makeImmutable()}, since the values already here are left alone for lookups running meanwhile.
+   */
+  void mergeLibraryStyle(ResBundle<T> fromResBundle, String packageName, String type) {
+    valuesMap.merge(packageName, fromResBundle.valuesMap, type);
+    valuesArrayMap.merge(packageName, fromResBundle.valuesArrayMap, type);
+    changed();
   }
 
   public static class Value<T> implements Comparable<Value<T>> {
     private final String qualifiers;
     private final T value;
+    private final String source;
+    private final int sequence;
+    private volatile Qualifiers parsedQualifiers;
 
     Value(String qualifiers, T value) {
+      this(qualifiers, value, null, 0);
+    }
+
+    /**
+     * @param qualifiers The qualifiers of the value.
+     * @param value The value.
+     * @param source The path of the file the value was loaded from, or null.
+     * @param sequence The position of that file in the order the files of its type are listed in.
+     */
+    Value(String qualifiers, T value, String source, int sequence) {
       if (value == null) {
         throw new NullPointerException();
       }
 
       this.qualifiers = qualifiers == null ? "--" : "-" + qualifiers + "-";
       this.value = value;
+      this.source = source;
+      this.sequence = sequence;
     }
 
     public String getQualifiers() {
@@ -127,9 +261,31 @@ public class ResBundle<T> {
       return value;
     }
 
+    String getSource() {
+      return source;
+    }
+
+    int getSequence() {
+      return sequence;
+    }
+
+    Qualifiers getParsedQualifiers() {
+      // parsed on first use, so invalid qualifiers are only reported when the value is looked up
+      if (parsedQualifiers == null) {
+        parsedQualifiers = Qualifiers.parse(qualifiers);
+      }
+      return parsedQualifiers;
+    }
+
     @Override
     public int compareTo(Value<T> o) {
-      return qualifiers.compareTo(o.qualifiers);
+      int result = qualifiers.compareTo(o.qualifiers);
+      if (result == 0) {
+        // files are loaded in parallel, so order values with the same qualifiers by the order their files were
+        // listed in rather than by the order they happened to be loaded in
+        result = Integer.compare(sequence, o.sequence);
+      }
+      return result;
     }
 
     @Override public String toString() {
@@ -140,13 +296,29 @@ public class ResBundle<T> {
     }
   }
 
+  private static class Picked {
+    private final Value<?> value;
+    private final long version;
+
+    Picked(Value<?> value, long version) {
+      this.value = value;
+      this.version = version;
+    }
+  }
+
   private static class ResMap<T> {
-    private final Map<ResName, List<Value<T>>> map = new HashMap<>();
-    private boolean immutable;
+    private final ConcurrentMap<ResName, List<Value<T>>> map = new ConcurrentHashMap<>();
+    private volatile boolean immutable;
 
     public List<Value<T>> find(ResName resName) {
       List<Value<T>> values = map.get(resName);
-      if (values == null) map.put(resName, values = new ArrayList<>());
+      if (values == null) {
+        values = new CopyOnWriteArrayList<>();
+        List<Value<T>> existing = map.putIfAbsent(resName, values);
+        if (existing != null) {
+          values = existing;
+        }
+      }
       return values;
     }
 
@@ -155,9 +327,22 @@ public class ResBundle<T> {
         throw new IllegalStateException("immutable!");
       }
 
+      merge(packageName, sourceMap, null);
+    }
+
+    /**
+     * @param type The type of the resources to merge, or null for all of them.
+     */
+    private void merge(String packageName, ResMap<T> sourceMap, String type) {
       for (Map.Entry<ResName, List<Value<T>>> entry : sourceMap.map.entrySet()) {
+        if (type != null && !type.equals(entry.getKey().type)) {
+          continue;
+        }
         ResName resName = entry.getKey().withPackageName(packageName);
-        find(resName).addAll(entry.getValue());
+        List<Value<T>> values = find(resName);
+        for (Value<T> value : entry.getValue()) {
+          insertSorted(values, value, BY_QUALIFIERS);
+        }
       }
     }
 
@@ -165,6 +350,11 @@ public class ResBundle<T> {
       return map.size();
     }
 
+    private void clear() {
+      map.clear();
+      immutable = false;
+    }
+
     public void makeImmutable() {
       immutable = true;
     }
@@ -0,0 +1,118 @@
+package org.robolectric.res;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Resource ids by name, without boxing the ids. Lookups don't lock, so views can be inflated from several threads.
+ * Puts are serialized.
+ */
+public class ResNameToIdMap {
+  private volatile Table table = new Table(16);
+  private int size;
+
+  /**
+   * @return The id of a resource, or null if it isn't in the map.
+   */
+  public Integer get(ResName resName) {
+    Table table = this.table;
+    int index = table.find(resName);
+    return index == -1 ? null : table.ids[index];
+  }
+
+  public boolean containsKey(ResName resName) {
+    return table.find(resName) != -1;
+  }
+
+  public synchronized void put(ResName resName, int id) {
+    if ((size + 1) * 2 > table.capacity()) {
+      table = table.resize(table.capacity() * 2);
+    }
+    if (table.put(resName, id)) {
+      size++;
+    }
+  }
+
+  public synchronized void putAll(ResNameToIdMap other) {
+    Table otherTable = other.table;
+    for (int i = 0; i < otherTable.capacity(); i++) {
+      ResName resName = otherTable.resNames.get(i);
+      if (resName != null) {
+        put(resName, otherTable.ids[i]);
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  public List<ResName> getResNames() {
+    Table table = this.table;
+    List<ResName> resNames = new ArrayList<>();
+    for (int i = 0; i < table.capacity(); i++) {
+      ResName resName = table.resNames.get(i);
+      if (resName != null) {
+        resNames.add(resName);
+      }
+    }
+    return resNames;
+  }
+
+  /**
+   * Open addressing with linear probing. The id of a slot is written before its name, and readers read the name
+   * first, so a reader never sees a name without its id.
+   */
+  private static class Table {
+    private final AtomicReferenceArray<ResName> resNames;
+    private final int[] ids;
+
+    Table(int capacity) {
+      resNames = new AtomicReferenceArray<>(capacity);
+      ids = new int[capacity];
+    }
+
+    int capacity() {
+      return ids.length;
+    }
+
+    int find(ResName resName) {
+      int mask = ids.length - 1;
+      for (int i = IdToResNameMap.mix(resName.hashCode()) & mask; ; i = (i + 1) & mask) {
+        ResName slot = resNames.get(i);
+        if (slot == null) {
+          return -1;
+        } else if (slot.equals(resName)) {
+          return i;
+        }
+      }
+    }
+
+    boolean put(ResName resName, int id) {
+      int mask = ids.length - 1;
+      for (int i = IdToResNameMap.mix(resName.hashCode()) & mask; ; i = (i + 1) & mask) {
+        ResName slot = resNames.get(i);
+        if (slot == null) {
+          ids[i] = id;
+          resNames.set(i, resName);
+          return true;
+        } else if (slot.equals(resName)) {
+          ids[i] = id;
+          return false;
+        }
+      }
+    }
+
+    Table resize(int capacity) {
+      Table table = new Table(capacity);
+      for (int i = 0; i < ids.length; i++) {
+        ResName resName = resNames.get(i);
+        if (resName != null) {
+          table.put(resName, ids[i]);
+        }
+      }
+      return table;
+    }
+  }
+}
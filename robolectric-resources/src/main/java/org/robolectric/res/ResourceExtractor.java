@@ -1,16 +1,19 @@
 package org.robolectric.res;
 
+import org.robolectric.RoboSettings;
+
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.logging.Logger;
 
 public class ResourceExtractor extends ResourceIndex {
   private static final Logger LOGGER = Logger.getLogger(ResourceExtractor.class.getName());
 
   private final String packageName;
-  private Integer maxUsedInt = null;
+  private int maxUsedInt;
 
   public ResourceExtractor(ResourcePath resourcePath) {
     packageName = resourcePath.getPackageName();
@@ -25,6 +28,16 @@ public class ResourceExtractor extends ResourceIndex {
   }
 
   private void gatherResourceIdsAndNames(Class<?> rClass, String packageName) {
+    if (RoboSettings.isScanRClasses()) {
+      List<RClassScanner.Resource> resources = RClassScanner.scan(rClass);
+      if (resources != null) {
+        for (RClassScanner.Resource resource : resources) {
+          addResource(new ResName(packageName, resource.type, resource.name), resource.id);
+        }
+        return;
+      }
+    }
+
     for (Class innerClass : rClass.getClasses()) {
       for (Field field : innerClass.getDeclaredFields()) {
         if (field.getType().equals(Integer.TYPE) && Modifier.isStatic(field.getModifiers())) {
@@ -38,33 +51,41 @@ public class ResourceExtractor extends ResourceIndex {
 
           if (!section.equals("styleable")) {
             String fieldName = field.getName();
-            ResName resName = new ResName(packageName, section, fieldName);
-
-            resourceNameToId.put(resName, id);
-            resourceIdToResName.put(id, resName);
+            addResource(new ResName(packageName, section, fieldName), id);
           }
         }
       }
     }
   }
 
+  private void addResource(ResName resName, int id) {
+    resourceNameToId.put(resName, id);
+    resourceIdToResName.put(id, resName);
+    maxUsedInt = Math.max(maxUsedInt, id);
+  }
+
   @Override
-  public synchronized Integer getResourceId(ResName resName) {
+  public Integer getResourceId(ResName resName) {
     Integer id = resourceNameToId.get(resName);
     if (id == null && ("android".equals(resName.packageName) || "".equals(resName.packageName))) {
-      if (maxUsedInt == null) {
-        maxUsedInt = resourceIdToResName.isEmpty() ? 0 : Collections.max(resourceIdToResName.keySet());
-      }
+      id = assignResourceId(resName);
+    }
+    return id;
+  }
+
+  private synchronized Integer assignResourceId(ResName resName) {
+    Integer id = resourceNameToId.get(resName);
+    if (id == null) {
       id = ++maxUsedInt;
-      resourceNameToId.put(resName, id);
       resourceIdToResName.put(id, resName);
+      resourceNameToId.put(resName, id);
       LOGGER.fine("no id mapping found for " + resName.getFullyQualifiedName() + "; assigning ID #0x" + Integer.toHexString(id));
     }
     return id;
   }
 
   @Override
-  public synchronized ResName getResName(int resourceId) {
+  public ResName getResName(int resourceId) {
     return resourceIdToResName.get(resourceId);
   }
 
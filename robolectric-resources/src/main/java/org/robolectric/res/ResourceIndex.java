@@ -1,12 +1,10 @@
 package org.robolectric.res;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
 public abstract class ResourceIndex {
-  protected final Map<ResName, Integer> resourceNameToId = new HashMap<>();
-  protected final Map<Integer, ResName> resourceIdToResName = new HashMap<>();
+  protected final ResNameToIdMap resourceNameToId = new ResNameToIdMap();
+  protected final IdToResNameMap resourceIdToResName = new IdToResNameMap();
 
   public abstract Integer getResourceId(ResName resName);
 
@@ -4,8 +4,11 @@ import org.jetbrains.annotations.NotNull;
 import org.robolectric.res.builder.XmlBlock;
 
 import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public abstract class ResourceLoader {
+  private final ConcurrentMap<StyleResolver, StyleResolver.AttributeTable> styleAttributeTables = new ConcurrentHashMap<>();
 
   public abstract TypedResource getValue(@NotNull ResName resName, String qualifiers);
 
@@ -44,6 +47,38 @@ public abstract class ResourceLoader {
 
   public abstract boolean providesFor(String namespace);
 
+  /**
+   * Load the resources again from any files that changed since they were loaded.
+   *
+   * @return True if any resources were reloaded.
+   */
+  public boolean reloadChangedFiles() {
+    return false;
+  }
+
+  /**
+   * Get the parents of a style and the attribute values found so far in them. The table is shared by all resolvers of
+   * the same style, theme and qualifiers, so they only have to walk the parents of the style once.
+   *
+   * @param styleResolver The resolver of the style.
+   * @return The table.
+   */
+  StyleResolver.AttributeTable getStyleAttributeTable(StyleResolver styleResolver) {
+    StyleResolver.AttributeTable attributeTable = styleAttributeTables.get(styleResolver);
+    if (attributeTable == null) {
+      attributeTable = new StyleResolver.AttributeTable();
+      StyleResolver.AttributeTable existing = styleAttributeTables.putIfAbsent(styleResolver, attributeTable);
+      if (existing != null) {
+        attributeTable = existing;
+      }
+    }
+    return attributeTable;
+  }
+
+  void clearStyleAttributeTables() {
+    styleAttributeTables.clear();
+  }
+
   private ResName resolveResName(int resId, String qualifiers) {
     TypedResource value = getValue(resId, qualifiers);
     return resolveResource(value, qualifiers, resId);
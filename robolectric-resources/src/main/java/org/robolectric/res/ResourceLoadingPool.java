@@ -0,0 +1,42 @@
+package org.robolectric.res;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A work-stealing pool shared by everything that loads resources, so files of one package and packages of an
+ * overlay are all loaded on all cores without starting new threads each time. Tasks may run more tasks in the pool
+ * and wait for them.
+ */
+class ResourceLoadingPool {
+  private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+  static int getParallelism() {
+    return pool.getParallelism();
+  }
+
+  /**
+   * Run tasks in the pool and wait for all of them to finish.
+   *
+   * @param tasks The tasks.
+   * @throws Exception The first exception thrown by a task, if any.
+   */
+  static void invokeAll(Collection<? extends Callable<Void>> tasks) throws Exception {
+    for (Future<Void> future : pool.invokeAll(tasks)) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception) {
+          throw (Exception) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw e;
+      }
+    }
+  }
+}
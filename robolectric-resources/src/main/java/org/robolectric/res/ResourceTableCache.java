@@ -0,0 +1,465 @@
+package org.robolectric.res;
+
+import com.google.common.io.ByteStreams;
+import org.robolectric.util.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of the resources loaded from a package's {@code values*} directories, so they don't have to be
+ * parsed again on the next run.
+ *
+ * Snapshots are stored in a cache directory under the package name and a fingerprint of the names, sizes and
+ * modification times of the value files, so any change to them is picked up. They are written to a temporary file
+ * and renamed, so concurrent test JVMs can share the directory, and memory-mapped when read. Their header holds a
+ * digest of the code of the resource loaders, so a snapshot written by a different build of them is parsed again.
+ */
+public class ResourceTableCache {
+  private static final int MAGIC = 0x52746263;
+  private static final int FORMAT_VERSION = 4;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final int STRING = 0;
+  private static final int FILE = 1;
+  private static final int ARRAY = 2;
+  private static final int ATTR_DATA = 3;
+  private static final int STYLE = 4;
+
+  private static final ResType[] RES_TYPES = ResType.values();
+
+  // the code that decides which values are loaded from the files, and how they are stored in a snapshot
+  private static final Class<?>[] LOADER_CLASSES = {
+      ResourceTableCache.class, PackageResourceLoader.class, DocumentLoader.class, XmlLoader.class,
+      XmlLoader.XmlContext.class, XpathResourceXmlLoader.class, XpathResourceXmlLoader.XmlNode.class,
+      ValueResourceLoader.class, AttrResourceLoader.class, StyleResourceLoader.class, PluralResourceLoader.class,
+      PluralResourceLoader.PluralRules.class, ResBunch.class, ResBundle.class, ResBundle.Value.class,
+      TypedResource.class, FileTypedResource.class, AttrData.class, StyleData.class, AttributeResource.class,
+      Plural.class, ResName.class, ResType.class
+  };
+  private static byte[] loaderDigest;
+
+  private final File cacheFile;
+
+  /**
+   * @param cacheDir The directory to store snapshots in.
+   * @param resourcePath The resources to snapshot.
+   * @param valuesDirs The {@code values*} directories of the resources.
+   */
+  public ResourceTableCache(File cacheDir, ResourcePath resourcePath, FsFile[] valuesDirs) {
+    this(new File(cacheDir, resourcePath.getPackageName() + "-" + fingerprint(valuesDirs) + ".restable"));
+  }
+
+  /**
+   * Use a snapshot with a fixed name, for resources that never change under the same name, like those of an SDK.
+   *
+   * @param cacheFile The snapshot.
+   */
+  public ResourceTableCache(File cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
+  public File getCacheFile() {
+    return cacheFile;
+  }
+
+  /**
+   * Load a snapshot if there is one for the current value files.
+   *
+   * Nothing is put into {@code data} or {@code pluralsData} unless the whole snapshot could be read, so they can be
+   * parsed into instead if it can't.
+   *
+   * @param data Where to put values.
+   * @param pluralsData Where to put plurals.
+   * @return True if a snapshot was loaded, false if the resources have to be parsed.
+   */
+  public boolean read(ResBunch data, ResBundle<PluralResourceLoader.PluralRules> pluralsData) {
+    if (!cacheFile.isFile()) {
+      return false;
+    }
+
+    try (RandomAccessFile file = new RandomAccessFile(cacheFile, "r");
+         FileChannel channel = file.getChannel()) {
+      Reader reader = new Reader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      if (reader.buffer.getInt() != MAGIC || reader.buffer.getInt() != FORMAT_VERSION) {
+        return false;
+      }
+      byte[] digest = new byte[loaderDigest().length];
+      reader.buffer.get(digest);
+      if (!Arrays.equals(digest, loaderDigest())) {
+        Logger.debug("Ignoring resource table cache %s written by other resource loader code", cacheFile);
+        return false;
+      }
+
+      ResBunch readData = new ResBunch();
+      ResBundle<PluralResourceLoader.PluralRules> readPluralsData = new ResBundle<>();
+      reader.readStrings();
+      for (int types = reader.buffer.getInt(); types > 0; types--) {
+        ResBundle<TypedResource> bundle = readData.getBundle(reader.string());
+        for (int names = reader.buffer.getInt(); names > 0; names--) {
+          ResName resName = reader.resName();
+          List<ResBundle.Value<TypedResource>> values = new ArrayList<>();
+          for (int count = reader.buffer.getInt(); count > 0; count--) {
+            values.add(new ResBundle.Value<>(reader.qualifiers(), reader.typedResource(), reader.string(), reader.buffer.getInt()));
+          }
+          bundle.putValues(resName, values);
+        }
+      }
+
+      for (int names = reader.buffer.getInt(); names > 0; names--) {
+        ResName resName = reader.resName();
+        List<ResBundle.Value<PluralResourceLoader.PluralRules>> values = new ArrayList<>();
+        for (int count = reader.buffer.getInt(); count > 0; count--) {
+          values.add(new ResBundle.Value<>(reader.qualifiers(), reader.pluralRules(), reader.string(), reader.buffer.getInt()));
+        }
+        readPluralsData.putValues(resName, values);
+      }
+      if (reader.buffer.hasRemaining()) {
+        throw new IllegalStateException(reader.buffer.remaining() + " unexpected bytes at the end");
+      }
+
+      data.putAll(readData);
+      pluralsData.putAll(readPluralsData);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      Logger.info("Ignoring resource table cache %s: %s", cacheFile, e);
+      return false;
+    }
+  }
+
+  /**
+   * Write a snapshot of freshly parsed value resources.
+   *
+   * @param data The values.
+   * @param pluralsData The plurals.
+   */
+  public void write(ResBunch data, ResBundle<PluralResourceLoader.PluralRules> pluralsData) {
+    File tempFile = null;
+    try {
+      Writer writer = new Writer();
+      writer.buffer.writeInt(data.getBundles().size());
+      for (Map.Entry<String, ResBundle<TypedResource>> type : data.getBundles().entrySet()) {
+        writer.string(type.getKey());
+        writer.buffer.writeInt(type.getValue().getValues().size());
+        for (Map.Entry<ResName, List<ResBundle.Value<TypedResource>>> entry : type.getValue().getValues().entrySet()) {
+          writer.resName(entry.getKey());
+          writer.buffer.writeInt(entry.getValue().size());
+          for (ResBundle.Value<TypedResource> value : entry.getValue()) {
+            writer.string(value.getQualifiers());
+            writer.typedResource(value.getValue());
+            writer.string(value.getSource());
+            writer.buffer.writeInt(value.getSequence());
+          }
+        }
+      }
+
+      writer.buffer.writeInt(pluralsData.getValues().size());
+      for (Map.Entry<ResName, List<ResBundle.Value<PluralResourceLoader.PluralRules>>> entry : pluralsData.getValues().entrySet()) {
+        writer.resName(entry.getKey());
+        writer.buffer.writeInt(entry.getValue().size());
+        for (ResBundle.Value<PluralResourceLoader.PluralRules> value : entry.getValue()) {
+          writer.string(value.getQualifiers());
+          writer.pluralRules(value.getValue());
+          writer.string(value.getSource());
+          writer.buffer.writeInt(value.getSequence());
+        }
+      }
+      writer.buffer.flush();
+
+      File cacheDir = cacheFile.getParentFile();
+      if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+        throw new IOException("couldn't create " + cacheDir);
+      }
+      tempFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheDir);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.write(loaderDigest());
+        writer.writeStrings(out);
+        writer.bytes.writeTo(out);
+      }
+      if (!tempFile.renameTo(cacheFile) && !cacheFile.isFile()) {
+        throw new IOException("couldn't rename " + tempFile + " to " + cacheFile);
+      }
+    } catch (IOException | UnsupportedOperationException e) {
+      Logger.info("Couldn't write resource table cache %s: %s", cacheFile, e);
+    } finally {
+      if (tempFile != null && tempFile.exists()) {
+        tempFile.delete();
+      }
+    }
+  }
+
+  /**
+   * Parse the values of a package and write a snapshot of them, replacing any existing one.
+   *
+   * @param resourcePath The resources to snapshot.
+   */
+  public void write(ResourcePath resourcePath) {
+    ResBunch data = new ResBunch();
+    ResBundle<PluralResourceLoader.PluralRules> pluralsData = new ResBundle<>();
+    try {
+      PackageResourceLoader.loadValues(new DocumentLoader(resourcePath), data, pluralsData);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    write(data, pluralsData);
+  }
+
+  static String fingerprint(FsFile[] valuesDirs) {
+    FsFile[] dirs = valuesDirs.clone();
+    Arrays.sort(dirs, BY_NAME);
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      digest.update(loaderDigest());
+      for (FsFile dir : dirs) {
+        FsFile[] files = dir.listFiles();
+        Arrays.sort(files, BY_NAME);
+        for (FsFile file : files) {
+          update(digest, file.getPath() + ":" + file.length() + ":" + file.lastModified() + "\n");
+        }
+      }
+
+      StringBuilder hex = new StringBuilder();
+      for (byte b : digest.digest()) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * @return A digest of the format version and the bytecode of the resource loaders.
+   */
+  static synchronized byte[] loaderDigest() {
+    if (loaderDigest == null) {
+      try {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        update(digest, FORMAT_VERSION + "\n");
+        for (Class<?> loaderClass : LOADER_CLASSES) {
+          update(digest, loaderClass.getName() + "\n");
+          String resourceName = loaderClass.getName().replace('.', '/') + ".class";
+          ClassLoader classLoader = loaderClass.getClassLoader() == null ? ClassLoader.getSystemClassLoader() : loaderClass.getClassLoader();
+          try (InputStream inputStream = classLoader.getResourceAsStream(resourceName)) {
+            if (inputStream != null) {
+              digest.update(ByteStreams.toByteArray(inputStream));
+            }
+          } catch (IOException e) {
+            Logger.debug("Couldn't read %s: %s", resourceName, e);
+          }
+        }
+        loaderDigest = digest.digest();
+      } catch (NoSuchAlgorithmException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    return loaderDigest;
+  }
+
+  private static void update(MessageDigest digest, String s) {
+    digest.update(s.getBytes(UTF_8));
+  }
+
+  private static final Comparator<FsFile> BY_NAME = new Comparator<FsFile>() {
+    @Override
+    public int compare(FsFile a, FsFile b) {
+      return a.getName().compareTo(b.getName());
+    }
+  };
+
+  private static class Writer {
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream buffer = new DataOutputStream(bytes);
+
+    void writeStrings(DataOutputStream out) throws IOException {
+      out.writeInt(strings.size());
+      for (String string : strings) {
+        byte[] utf8 = string.getBytes(UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+      }
+    }
+
+    void string(String string) throws IOException {
+      if (string == null) {
+        buffer.writeInt(-1);
+        return;
+      }
+
+      Integer id = stringIds.get(string);
+      if (id == null) {
+        id = strings.size();
+        strings.add(string);
+        stringIds.put(string, id);
+      }
+      buffer.writeInt(id);
+    }
+
+    void resName(ResName resName) throws IOException {
+      string(resName.packageName);
+      string(resName.type);
+      string(resName.name);
+    }
+
+    void typedResource(TypedResource typedResource) throws IOException {
+      Object data = typedResource.getData();
+      if (data instanceof String) {
+        buffer.writeByte(typedResource.isFile() ? FILE : STRING);
+        buffer.writeByte(typedResource.getResType().ordinal());
+        string((String) data);
+      } else if (data instanceof TypedResource[] && !typedResource.isFile()) {
+        TypedResource[] items = (TypedResource[]) data;
+        buffer.writeByte(ARRAY);
+        buffer.writeByte(typedResource.getResType().ordinal());
+        buffer.writeInt(items.length);
+        for (TypedResource item : items) {
+          typedResource(item);
+        }
+      } else if (data instanceof AttrData) {
+        AttrData attrData = (AttrData) data;
+        buffer.writeByte(ATTR_DATA);
+        string(attrData.getName());
+        string(attrData.getFormat());
+        List<AttrData.Pair> pairs = attrData.getPairs();
+        buffer.writeInt(pairs == null ? -1 : pairs.size());
+        if (pairs != null) {
+          for (AttrData.Pair pair : pairs) {
+            string(pair.getName());
+            string(pair.getValue());
+          }
+        }
+      } else if (data instanceof StyleData) {
+        StyleData styleData = (StyleData) data;
+        buffer.writeByte(STYLE);
+        string(styleData.getPackageName());
+        string(styleData.getName());
+        string(styleData.getParent());
+        buffer.writeInt(styleData.getItems().size());
+        for (Map.Entry<ResName, AttributeResource> item : styleData.getItems().entrySet()) {
+          resName(item.getKey());
+          resName(item.getValue().resName);
+          string(item.getValue().value);
+          string(item.getValue().contextPackageName);
+        }
+      } else {
+        throw new UnsupportedOperationException("can't cache " + typedResource);
+      }
+    }
+
+    void pluralRules(PluralResourceLoader.PluralRules pluralRules) throws IOException {
+      buffer.writeInt(pluralRules.plurals.size());
+      for (Plural plural : pluralRules.plurals) {
+        string(plural.quantity);
+        string(plural.string);
+      }
+    }
+  }
+
+  private static class Reader {
+    private final ByteBuffer buffer;
+    private String[] strings;
+
+    Reader(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    void readStrings() {
+      strings = new String[buffer.getInt()];
+      byte[] utf8 = new byte[256];
+      for (int i = 0; i < strings.length; i++) {
+        int length = buffer.getInt();
+        if (length > utf8.length) {
+          utf8 = new byte[Math.max(length, utf8.length * 2)];
+        }
+        buffer.get(utf8, 0, length);
+        strings[i] = new String(utf8, 0, length, UTF_8);
+      }
+    }
+
+    String string() {
+      int id = buffer.getInt();
+      return id == -1 ? null : strings[id];
+    }
+
+    String qualifiers() {
+      // values store their qualifiers as "-qualifiers-", or "--" if there are none
+      String qualifiers = string();
+      return qualifiers.length() == 2 ? null : qualifiers.substring(1, qualifiers.length() - 1);
+    }
+
+    ResName resName() {
+      return new ResName(string(), string(), string());
+    }
+
+    TypedResource typedResource() {
+      int kind = buffer.get();
+      switch (kind) {
+        case STRING: {
+          ResType resType = RES_TYPES[buffer.get()];
+          return new TypedResource<>(string(), resType);
+        }
+        case FILE: {
+          ResType resType = RES_TYPES[buffer.get()];
+          return new FileTypedResource<>(string(), resType);
+        }
+        case ARRAY: {
+          ResType resType = RES_TYPES[buffer.get()];
+          TypedResource[] items = new TypedResource[buffer.getInt()];
+          for (int i = 0; i < items.length; i++) {
+            items[i] = typedResource();
+          }
+          return new TypedResource<>(items, resType);
+        }
+        case ATTR_DATA: {
+          String name = string();
+          String format = string();
+          int pairCount = buffer.getInt();
+          List<AttrData.Pair> pairs = pairCount == -1 ? null : new ArrayList<AttrData.Pair>(pairCount);
+          for (int i = 0; i < pairCount; i++) {
+            pairs.add(new AttrData.Pair(string(), string()));
+          }
+          return new TypedResource<>(new AttrData(name, format, pairs), ResType.ATTR_DATA);
+        }
+        case STYLE: {
+          StyleData styleData = new StyleData(string(), string(), string());
+          for (int items = buffer.getInt(); items > 0; items--) {
+            ResName attrName = resName();
+            styleData.add(attrName, new AttributeResource(resName(), string(), string()));
+          }
+          return new TypedResource<>(styleData, ResType.STYLE);
+        }
+        default:
+          throw new IllegalStateException("unknown resource kind " + kind);
+      }
+    }
+
+    PluralResourceLoader.PluralRules pluralRules() {
+      PluralResourceLoader.PluralRules pluralRules = new PluralResourceLoader.PluralRules();
+      for (int count = buffer.getInt(); count > 0; count--) {
+        pluralRules.add(new Plural(string(), string()));
+      }
+      return pluralRules;
+    }
+  }
+}
@@ -55,6 +55,18 @@ public class RoutingResourceLoader extends ResourceLoader {
     return whichProvidesFor(namespace) != null;
   }
 
+  @Override
+  public boolean reloadChangedFiles() {
+    boolean reloaded = false;
+    for (ResourceLoader resourceLoader : new HashSet<>(resourceLoaders.values())) {
+      reloaded |= resourceLoader.reloadChangedFiles();
+    }
+    if (reloaded) {
+      clearStyleAttributeTables();
+    }
+    return reloaded;
+  }
+
   private ResourceLoader pickFor(int id) {
     ResName resName = resourceIndex.getResName(id);
     return pickFor(resName);
@@ -30,6 +30,10 @@ public class StyleData implements Style {
     items.put(attrName, attribute);
   }
 
+  Map<ResName, AttributeResource> getItems() {
+    return items;
+  }
+
   @Override public AttributeResource getAttrValue(ResName resName) {
     AttributeResource attributeResource = items.get(resName);
 
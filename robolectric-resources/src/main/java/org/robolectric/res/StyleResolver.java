@@ -4,8 +4,12 @@ import org.robolectric.util.Strings;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class StyleResolver implements Style {
+  private static final AttributeResource NOT_FOUND = new AttributeResource(new ResName("", "attr", ""), "", "");
+
   private final ResourceLoader resourceLoader;
   private final List<StyleData> styles = new ArrayList<>();
   private final Style theme;
@@ -22,10 +26,40 @@ public class StyleResolver implements Style {
   }
 
   @Override public AttributeResource getAttrValue(ResName resName) {
-    for (StyleData style : styles) {
-      AttributeResource value = style.getAttrValue(resName);
-      if (value != null) return value;
+    AttributeResource value = getStyleAttrValue(resName);
+    if (value == null && theme != null) {
+      value = theme.getAttrValue(resName);
+    }
+    return value;
+  }
+
+  private AttributeResource getStyleAttrValue(ResName resName) {
+    // walking the parents of a style means resolving each of them, so share the parents and the values found in them
+    // with every resolver of the same style, theme and qualifiers
+    AttributeTable attributeTable = myResName == null ? null : resourceLoader.getStyleAttributeTable(this);
+    if (attributeTable == null) {
+      return findStyleAttrValue(resName);
+    }
+
+    AttributeResource value = attributeTable.values.get(resName);
+    if (value == null) {
+      List<StyleData> allStyles = attributeTable.styles;
+      if (allStyles == null) {
+        value = findStyleAttrValue(resName);
+        if (!hasParent(styles.get(styles.size() - 1))) {
+          attributeTable.styles = new ArrayList<>(styles);
+        }
+      } else {
+        value = findStyleAttrValue(resName, allStyles, 0);
+      }
+      attributeTable.values.put(resName, value == null ? NOT_FOUND : value);
     }
+    return value == NOT_FOUND ? null : value;
+  }
+
+  private AttributeResource findStyleAttrValue(ResName resName) {
+    AttributeResource value = findStyleAttrValue(resName, styles, 0);
+    if (value != null) return value;
     int initialSize = styles.size();
     while (hasParent(styles.get(styles.size() - 1))) {
       StyleData parent = getParent(styles.get(styles.size() - 1));
@@ -35,16 +69,14 @@ public class StyleResolver implements Style {
         break;
       }
     }
-    for (int i = initialSize; i < styles.size(); i++) {
-      StyleData style = styles.get(i);
-      AttributeResource value = style.getAttrValue(resName);
-      if (value != null) return value;
-    }
-    if (theme != null) {
-      AttributeResource value = theme.getAttrValue(resName);
+    return findStyleAttrValue(resName, styles, initialSize);
+  }
+
+  private static AttributeResource findStyleAttrValue(ResName resName, List<StyleData> styles, int start) {
+    for (int i = start; i < styles.size(); i++) {
+      AttributeResource value = styles.get(i).getAttrValue(resName);
       if (value != null) return value;
     }
-
     return null;
   }
 
@@ -170,4 +202,12 @@ public class StyleResolver implements Style {
         + "}";
   }
 
-}
\ No newline at end of file
+  /**
+   * The parents of a style and the attribute values found in them, shared by all resolvers of the same style, theme and
+   * qualifiers.
+   */
+  static class AttributeTable {
+    final Map<ResName, AttributeResource> values = new ConcurrentHashMap<>();
+    volatile List<StyleData> styles;
+  }
+}
@@ -5,6 +5,9 @@ import org.robolectric.res.builder.XmlBlock;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 // TODO: Give me a better name
 abstract class XResourceLoader extends ResourceLoader {
@@ -16,6 +19,7 @@ abstract class XResourceLoader extends ResourceLoader {
   final ResBundle<FsFile> rawResources = new ResBundle<>();
   private final ResourceIndex resourceIndex;
   private boolean isInitialized = false;
+  private final Set<String> loadedTypes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
   XResourceLoader(ResourceIndex resourceIndex) {
     this.resourceIndex = resourceIndex;
@@ -23,6 +27,29 @@ abstract class XResourceLoader extends ResourceLoader {
 
   abstract void doInitialize();
 
+  /**
+   * Load the resources of a type that {@link #doInitialize()} left out, if any.
+   */
+  void doLoad(String type) {
+  }
+
+  void load(String type) {
+    if (loadedTypes.contains(type)) return;
+    synchronized (this) {
+      if (loadedTypes.contains(type)) return;
+      doLoad(type);
+      loadedTypes.add(type);
+    }
+  }
+
+  boolean isLoaded(String type) {
+    return loadedTypes.contains(type);
+  }
+
+  synchronized boolean isInitialized() {
+    return isInitialized;
+  }
+
   synchronized void initialize() {
     if (isInitialized) return;
     doInitialize();
@@ -31,7 +58,7 @@ abstract class XResourceLoader extends ResourceLoader {
     makeImmutable();
   }
 
-  private void makeImmutable() {
+  void makeImmutable() {
     data.makeImmutable();
 
     pluralsData.makeImmutable();
@@ -43,6 +70,7 @@ abstract class XResourceLoader extends ResourceLoader {
 
   public TypedResource getValue(@NotNull ResName resName, String qualifiers) {
     initialize();
+    load(resName.type);
     ResBundle.Value<TypedResource> value = data.getValue(resName, qualifiers);
     return value == null ? null : value.getValue();
   }
@@ -59,17 +87,21 @@ abstract class XResourceLoader extends ResourceLoader {
   @Override
   public XmlBlock getXml(ResName resName, String qualifiers) {
     initialize();
+    load(resName.type);
     return xmlDocuments.get(resName, qualifiers);
   }
 
   @Override
   public DrawableNode getDrawableNode(ResName resName, String qualifiers) {
+    initialize();
+    load(resName.type);
     return drawableData.get(resName, qualifiers);
   }
 
   @Override
   public InputStream getRawValue(ResName resName) {
     initialize();
+    load(resName.type);
 
     FsFile file = rawResources.get(resName, "");
     try {
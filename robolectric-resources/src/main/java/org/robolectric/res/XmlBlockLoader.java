@@ -2,7 +2,16 @@ package org.robolectric.res;
 
 import android.content.res.XmlResourceParser;
 import org.robolectric.res.builder.XmlBlock;
-import org.w3c.dom.Document;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.DefaultHandler2;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Loader for xml property files.
@@ -10,8 +19,19 @@ import org.w3c.dom.Document;
  * <p>Given a resource file a concrete implementation of {@link XmlResourceParser}
  * is returned. The returned implementation is based on the current Android
  * implementation. Please see the android source code for further details.
+ *
+ * <p>Files are streamed straight into {@link XmlBlock}s, without building a DOM.
  */
 public class XmlBlockLoader extends XmlLoader {
+  private static final SAXParserFactory saxParserFactory;
+  static {
+    saxParserFactory = SAXParserFactory.newInstance();
+    saxParserFactory.setNamespaceAware(true);
+  }
+
+  // readers aren't thread safe, and files are loaded in parallel
+  private static final ThreadLocal<XMLReader> xmlReaders = new ThreadLocal<>();
+
   private final String attrType;
   private final ResBundle<XmlBlock> resBundle;
 
@@ -22,7 +42,94 @@ public class XmlBlockLoader extends XmlLoader {
 
   @Override
   protected void processResourceXml(FsFile xmlFile, XpathResourceXmlLoader.XmlNode xmlNode, XmlContext xmlContext) throws Exception {
-    XmlBlock block = XmlBlock.create(parse(xmlFile), xmlFile.getPath(), xmlContext.packageName);
+    XmlBlock block = parseXmlBlock(xmlFile, xmlContext.packageName);
     resBundle.put(attrType, xmlFile.getBaseName(), block, xmlContext);
   }
+
+  public XmlBlock parseXmlBlock(FsFile xmlFile, String packageName) {
+    InputStream inputStream = null;
+    try {
+      XMLReader xmlReader = xmlReaders.get();
+      if (xmlReader == null) {
+        xmlReader = saxParserFactory.newSAXParser().getXMLReader();
+        xmlReader.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
+        xmlReaders.set(xmlReader);
+      }
+      XmlBlockHandler handler = new XmlBlockHandler();
+      xmlReader.setContentHandler(handler);
+      xmlReader.setProperty("http://xml.org/sax/properties/lexical-handler", handler);
+      inputStream = xmlFile.getInputStream();
+      xmlReader.parse(new InputSource(inputStream));
+      return handler.builder.build(xmlFile.getPath(), packageName);
+    } catch (ParserConfigurationException | IOException | SAXException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (inputStream != null) try {
+        inputStream.close();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  /**
+   * Feeds SAX events to an {@link XmlBlock.Builder}, splitting text the same way DOM does: comments are dropped
+   * without splitting the text around them, CDATA sections are dropped and do split it.
+   */
+  private static class XmlBlockHandler extends DefaultHandler2 {
+    private static final String XMLNS_NS = "http://www.w3.org/2000/xmlns/";
+
+    private final XmlBlock.Builder builder = new XmlBlock.Builder();
+    private final StringBuilder text = new StringBuilder();
+    private boolean inCdata;
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+      flushText();
+      builder.startTag(emptyToNull(uri), qName);
+      for (int i = 0; i < attributes.getLength(); i++) {
+        String name = attributes.getQName(i);
+        if (name.equals("xmlns") || name.startsWith("xmlns:")) {
+          builder.attribute(XMLNS_NS, name.equals("xmlns") ? name : name.substring(6), name, attributes.getValue(i));
+        } else {
+          builder.attribute(emptyToNull(attributes.getURI(i)), attributes.getLocalName(i), name, attributes.getValue(i));
+        }
+      }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+      flushText();
+      builder.endTag();
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+      if (!inCdata) {
+        text.append(ch, start, length);
+      }
+    }
+
+    @Override
+    public void startCDATA() {
+      flushText();
+      inCdata = true;
+    }
+
+    @Override
+    public void endCDATA() {
+      inCdata = false;
+    }
+
+    private void flushText() {
+      if (text.length() > 0) {
+        builder.text(text.toString());
+        text.setLength(0);
+      }
+    }
+
+    private static String emptyToNull(String s) {
+      return s == null || s.isEmpty() ? null : s;
+    }
+  }
 }
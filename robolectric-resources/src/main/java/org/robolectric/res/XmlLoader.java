@@ -42,8 +42,8 @@ public abstract class XmlLoader {
     }
   }
 
-  protected void processResourceXml(FsFile xmlFile, VTDNav vtdNav, String packageName) throws Exception {
-    processResourceXml(xmlFile, new XpathResourceXmlLoader.XmlNode(vtdNav), new XmlContext(packageName, xmlFile));
+  protected void processResourceXml(FsFile xmlFile, VTDNav vtdNav, String packageName, int sequence) throws Exception {
+    processResourceXml(xmlFile, new XpathResourceXmlLoader.XmlNode(vtdNav), new XmlContext(packageName, xmlFile, sequence));
   }
 
   protected abstract void processResourceXml(FsFile xmlFile, XpathResourceXmlLoader.XmlNode xmlNode, XmlContext xmlContext) throws Exception;
@@ -53,10 +53,21 @@ public abstract class XmlLoader {
 
     public final String packageName;
     private final FsFile xmlFile;
+    private final int sequence;
 
     public XmlContext(String packageName, FsFile xmlFile) {
+      this(packageName, xmlFile, 0);
+    }
+
+    /**
+     * @param packageName The package of the resources.
+     * @param xmlFile The file.
+     * @param sequence The position of the file in the order the files of its type are listed in.
+     */
+    public XmlContext(String packageName, FsFile xmlFile, int sequence) {
       this.packageName = packageName;
       this.xmlFile = xmlFile;
+      this.sequence = sequence;
     }
 
     public String getDirPrefix() {
@@ -75,6 +86,10 @@ public abstract class XmlLoader {
       return xmlFile;
     }
 
+    public int getSequence() {
+      return sequence;
+    }
+
     @Override public String toString() {
       return "XmlContext{" +
           "packageName='" + packageName + '\'' +
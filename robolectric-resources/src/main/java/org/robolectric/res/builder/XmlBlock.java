@@ -1,22 +1,86 @@
 package org.robolectric.res.builder;
 
 import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xmlpull.v1.XmlPullParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * An XML block is a parsed representation of a resource XML file. Similar in nature
  * to Android's XmlBlock class.
+ *
+ * <p>Like aapt's binary XML, the file is kept as a flat array of pull parser events
+ * referring to a pool of strings rather than as a DOM tree:
+ *
+ * <ul>
+ *   <li>{@code START_TAG, namespace, name, end, attributeCount, (namespace, localName, name, value)*}</li>
+ *   <li>{@code END_TAG, start}</li>
+ *   <li>{@code TEXT, text}</li>
+ * </ul>
+ *
+ * <p>where strings are indexes into the pool, or -1 for null, and {@code start} and {@code end}
+ * are the positions of the matching tags. Whitespace-only text, comments and CDATA sections are
+ * not kept.
  */
 public class XmlBlock {
-  private final Document document;
+  private static final int START_TAG_SIZE = 5;
+  private static final int ATTRIBUTE_SIZE = 4;
+  private static final int END_TAG_SIZE = 2;
+  private static final int TEXT_SIZE = 2;
+
+  private final int[] events;
+  private final String[] strings;
   private final String filename;
   private final String packageName;
 
   public static XmlBlock create(Document document, String file, String packageName) {
-    return new XmlBlock(document, file, packageName);
+    Builder builder = new Builder();
+    if (document.getDocumentElement() != null) {
+      addElement(builder, document.getDocumentElement());
+    }
+    return builder.build(file, packageName);
   }
 
-  public Document getDocument() {
-    return document;
+  private static void addElement(Builder builder, Node element) {
+    builder.startTag(element.getNamespaceURI(), element.getNodeName());
+    NamedNodeMap attributes = element.getAttributes();
+    for (int i = 0; i < attributes.getLength(); i++) {
+      Node attribute = attributes.item(i);
+      String localName = attribute.getLocalName() == null ? attribute.getNodeName() : attribute.getLocalName();
+      builder.attribute(attribute.getNamespaceURI(), localName, attribute.getNodeName(), attribute.getNodeValue());
+    }
+
+    for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+      switch (child.getNodeType()) {
+        case Node.ELEMENT_NODE:
+          addElement(builder, child);
+          break;
+        case Node.TEXT_NODE:
+          builder.text(child.getNodeValue());
+          break;
+        case Node.CDATA_SECTION_NODE:
+        case Node.COMMENT_NODE:
+          break;
+        default:
+          throw new IllegalArgumentException("Robolectric -> Unknown node type: " + child.getNodeType() + ".");
+      }
+    }
+    builder.endTag();
+  }
+
+  private XmlBlock(int[] events, String[] strings, String filename, String packageName) {
+    this.events = events;
+    this.strings = strings;
+    this.filename = filename;
+    this.packageName = packageName;
   }
 
   public String getFilename() {
@@ -27,9 +91,199 @@ public class XmlBlock {
     return packageName;
   }
 
-  private XmlBlock(Document document, String filename, String packageName) {
-    this.document = document;
-    this.filename = filename;
-    this.packageName = packageName;
+  public int size() {
+    return events.length;
+  }
+
+  public int getEventType(int position) {
+    return events[position];
+  }
+
+  public int next(int position) {
+    switch (events[position]) {
+      case XmlPullParser.START_TAG:
+        return position + START_TAG_SIZE + ATTRIBUTE_SIZE * events[position + 4];
+      case XmlPullParser.END_TAG:
+        return position + END_TAG_SIZE;
+      default:
+        return position + TEXT_SIZE;
+    }
+  }
+
+  /**
+   * @return The position of the start tag of the element at a start or end tag, or -1 if there is no element there.
+   */
+  public int getElement(int position) {
+    if (position < 0 || position >= events.length) {
+      return -1;
+    }
+    switch (events[position]) {
+      case XmlPullParser.START_TAG:
+        return position;
+      case XmlPullParser.END_TAG:
+        return events[position + 1];
+      default:
+        return -1;
+    }
+  }
+
+  public String getNamespace(int element) {
+    return string(events[element + 1]);
+  }
+
+  public String getName(int element) {
+    return string(events[element + 2]);
+  }
+
+  public int getAttributeCount(int element) {
+    return events[element + 4];
+  }
+
+  public String getAttributeNamespace(int element, int index) {
+    return string(events[attribute(element, index)]);
+  }
+
+  public String getAttributeLocalName(int element, int index) {
+    return string(events[attribute(element, index) + 1]);
+  }
+
+  public String getAttributeName(int element, int index) {
+    return string(events[attribute(element, index) + 2]);
+  }
+
+  public String getAttributeValue(int element, int index) {
+    return string(events[attribute(element, index) + 3]);
+  }
+
+  public String getText(int position) {
+    return string(events[position + 1]);
+  }
+
+  /**
+   * @return All the text inside of an element, like {@link Node#getTextContent()}.
+   */
+  public String getTextContent(int element) {
+    StringBuilder textContent = new StringBuilder();
+    int end = events[element + 3];
+    for (int position = element; position < end; position = next(position)) {
+      if (events[position] == XmlPullParser.TEXT) {
+        textContent.append(getText(position));
+      }
+    }
+    return textContent.toString();
+  }
+
+  private int attribute(int element, int index) {
+    if (index < 0 || index >= events[element + 4]) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+    return element + START_TAG_SIZE + ATTRIBUTE_SIZE * index;
+  }
+
+  private String string(int index) {
+    return index == -1 ? null : strings[index];
+  }
+
+  public static boolean isWhitespace(String text) {
+    if (text == null) {
+      return false;
+    }
+    return text.split("\\s").length == 0;
+  }
+
+  /**
+   * Builds an XML block from parser events.
+   */
+  public static class Builder {
+    private static final Comparator<String[]> BY_NAME = new Comparator<String[]>() {
+      @Override
+      public int compare(String[] a, String[] b) {
+        return a[2].compareTo(b[2]);
+      }
+    };
+
+    private int[] events = new int[64];
+    private int size;
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final List<String[]> attributes = new ArrayList<>();
+    private int[] openTags = new int[16];
+    private int depth;
+
+    public void startTag(String namespace, String name) {
+      flushAttributes();
+      if (depth == openTags.length) {
+        openTags = Arrays.copyOf(openTags, depth * 2);
+      }
+      openTags[depth++] = size;
+      add(XmlPullParser.START_TAG, string(namespace), string(name), -1, 0);
+    }
+
+    /**
+     * Add an attribute to the last start tag. Attributes are sorted by name, like DOM does.
+     */
+    public void attribute(String namespace, String localName, String name, String value) {
+      attributes.add(new String[] {namespace, localName, name, value});
+    }
+
+    /**
+     * Add some text. Whitespace-only text is ignored.
+     */
+    public void text(String text) {
+      flushAttributes();
+      if (text.isEmpty() || isWhitespace(text)) {
+        return;
+      }
+      add(XmlPullParser.TEXT, string(text));
+    }
+
+    public void endTag() {
+      flushAttributes();
+      int start = openTags[--depth];
+      events[start + 3] = size;
+      add(XmlPullParser.END_TAG, start);
+    }
+
+    public XmlBlock build(String filename, String packageName) {
+      flushAttributes();
+      if (depth != 0) {
+        throw new IllegalStateException("unclosed tags in " + filename);
+      }
+      return new XmlBlock(Arrays.copyOf(events, size), strings.toArray(new String[strings.size()]), filename, packageName);
+    }
+
+    private void flushAttributes() {
+      if (attributes.isEmpty()) {
+        return;
+      }
+      Collections.sort(attributes, BY_NAME);
+      int start = openTags[depth - 1];
+      events[start + 4] = attributes.size();
+      for (String[] attribute : attributes) {
+        add(string(attribute[0]), string(attribute[1]), string(attribute[2]), string(attribute[3]));
+      }
+      attributes.clear();
+    }
+
+    private void add(int... values) {
+      if (size + values.length > events.length) {
+        events = Arrays.copyOf(events, Math.max(events.length * 2, size + values.length));
+      }
+      System.arraycopy(values, 0, events, size, values.length);
+      size += values.length;
+    }
+
+    private int string(String string) {
+      if (string == null) {
+        return -1;
+      }
+      Integer index = stringIndexes.get(string);
+      if (index == null) {
+        index = strings.size();
+        strings.add(string);
+        stringIndexes.put(string, index);
+      }
+      return index;
+    }
   }
 }
@@ -6,9 +6,6 @@ import org.robolectric.res.AttributeResource;
 import org.robolectric.res.ResName;
 import org.robolectric.res.ResourceLoader;
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
 import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
@@ -21,9 +18,9 @@ import java.util.List;
  * Concrete implementation of the {@link XmlResourceParser}.
  *
  * <p>Clients expects a pull parser while the resource loader
- * initialise this object with a {@link Document}.
- * This implementation navigates the dom and emulates a pull
- * parser by raising all the opportune events.
+ * initialise this object with an {@link XmlBlock}.
+ * This implementation iterates the events of the block and emulates
+ * a pull parser by raising all the opportune events.
  *
  * <p>Note that the original android implementation is based on
  * a set of native methods calls. Here those methods are
@@ -46,13 +43,14 @@ public class XmlResourceParserImpl implements XmlResourceParser {
       XmlResourceParser.FEATURE_VALIDATION
   };
 
-  private final Document document;
+  private final XmlBlock block;
   private final String fileName;
   private final String packageName;
   private final ResourceLoader resourceLoader;
   private final String applicationNamespace;
 
-  private Node currentNode;
+  private int position = -1;
+  private int currentElement = -1;
 
   private boolean mStarted = false;
   private boolean mDecNextDepth = false;
@@ -61,9 +59,13 @@ public class XmlResourceParserImpl implements XmlResourceParser {
 
   public XmlResourceParserImpl(Document document, String fileName, String packageName,
                                String applicationPackageName, ResourceLoader resourceLoader) {
-    this.document = document;
-    this.fileName = fileName;
-    this.packageName = packageName;
+    this(XmlBlock.create(document, fileName, packageName), applicationPackageName, resourceLoader);
+  }
+
+  public XmlResourceParserImpl(XmlBlock block, String applicationPackageName, ResourceLoader resourceLoader) {
+    this.block = block;
+    this.fileName = block.getFilename();
+    this.packageName = block.getPackageName();
     this.resourceLoader = resourceLoader;
     this.applicationNamespace = AttributeResource.ANDROID_RES_NS_PREFIX + applicationPackageName;
   }
@@ -164,10 +166,13 @@ public class XmlResourceParserImpl implements XmlResourceParser {
 
   @Override
   public String getText() {
-    if (currentNode == null) {
+    if (mEventType == TEXT) {
+      return block.getText(position);
+    }
+    if (currentElement == -1) {
       return "";
     }
-    return currentNode.getTextContent();
+    return block.getTextContent(currentElement);
   }
 
   @Override
@@ -186,10 +191,7 @@ public class XmlResourceParserImpl implements XmlResourceParser {
   /*package*/
   public boolean isWhitespace(String text)
       throws XmlPullParserException {
-    if (text == null) {
-      return false;
-    }
-    return text.split("\\s").length == 0;
+    return XmlBlock.isWhitespace(text);
   }
 
   @Override
@@ -220,7 +222,7 @@ public class XmlResourceParserImpl implements XmlResourceParser {
 
   @Override
   public String getNamespace() {
-    String namespace = currentNode != null ? currentNode.getNamespaceURI() : null;
+    String namespace = currentElement != -1 ? block.getNamespace(currentElement) : null;
     if (namespace == null) {
       return "";
     }
@@ -230,46 +232,48 @@ public class XmlResourceParserImpl implements XmlResourceParser {
 
   @Override
   public String getName() {
-    if (currentNode == null) {
+    if (currentElement == -1) {
       return "";
     }
-    return currentNode.getNodeName();
+    return block.getName(currentElement);
   }
 
-  Node getAttributeAt(int index) {
-    if (currentNode == null) {
-      throw new IndexOutOfBoundsException(String.valueOf(index));
-    }
-    NamedNodeMap map = currentNode.getAttributes();
-    if (index >= map.getLength()) {
+  private void checkAttributeIndex(int index) {
+    if (currentElement == -1) {
       throw new IndexOutOfBoundsException(String.valueOf(index));
     }
-    return map.item(index);
   }
 
   String getAttribute(String namespace, String name) {
-    if (currentNode == null) {
+    if (currentElement == -1) {
       return null;
     }
 
-    Element element = (Element) currentNode;
-    if (element.hasAttributeNS(namespace, name)) {
-      return element.getAttributeNS(namespace, name).trim();
-    } else if (applicationNamespace.equals(namespace)
-        && element.hasAttributeNS(AttributeResource.RES_AUTO_NS_URI, name)) {
-      return element.getAttributeNS(AttributeResource.RES_AUTO_NS_URI, name).trim();
+    int index = findAttribute(namespace, name);
+    if (index == -1 && applicationNamespace.equals(namespace)) {
+      index = findAttribute(AttributeResource.RES_AUTO_NS_URI, name);
     }
+    return index == -1 ? null : block.getAttributeValue(currentElement, index).trim();
+  }
 
-    return null;
+  private int findAttribute(String namespace, String name) {
+    if (namespace != null && namespace.isEmpty()) {
+      namespace = null;
+    }
+    for (int i = 0; i < block.getAttributeCount(currentElement); i++) {
+      String attributeNamespace = block.getAttributeNamespace(currentElement, i);
+      if ((namespace == null ? attributeNamespace == null : namespace.equals(attributeNamespace))
+          && name.equals(block.getAttributeLocalName(currentElement, i))) {
+        return i;
+      }
+    }
+    return -1;
   }
 
   @Override
   public String getAttributeNamespace(int index) {
-    Node attr = getAttributeAt(index);
-    if (attr == null) {
-      return null;
-    }
-    return maybeReplaceNamespace(attr.getNamespaceURI());
+    checkAttributeIndex(index);
+    return maybeReplaceNamespace(block.getAttributeNamespace(currentElement, index));
   }
 
   private String maybeReplaceNamespace(String namespace) {
@@ -283,11 +287,11 @@ public class XmlResourceParserImpl implements XmlResourceParser {
   @Override
   public String getAttributeName(int index) {
     try {
-      Node attr = getAttributeAt(index);
-      String namespace = maybeReplaceNamespace(attr.getNamespaceURI());
+      checkAttributeIndex(index);
+      String namespace = maybeReplaceNamespace(block.getAttributeNamespace(currentElement, index));
       return (AttributeResource.ANDROID_RES_NS_PREFIX + packageName).equals(namespace) ?
-        attr.getLocalName() :
-        attr.getNodeName();
+        block.getAttributeLocalName(currentElement, index) :
+        block.getAttributeName(currentElement, index);
     } catch (IndexOutOfBoundsException ex) {
       return null;
     }
@@ -307,15 +311,16 @@ public class XmlResourceParserImpl implements XmlResourceParser {
 
   @Override
   public int getAttributeCount() {
-    if (currentNode == null) {
+    if (currentElement == -1) {
       return -1;
     }
-    return currentNode.getAttributes().getLength();
+    return block.getAttributeCount(currentElement);
   }
 
   @Override
   public String getAttributeValue(int index) {
-    return qualify(getAttributeAt(index).getNodeValue());
+    checkAttributeIndex(index);
+    return qualify(block.getAttributeValue(currentElement, index));
   }
 
   private String qualify(String value) {
@@ -391,152 +396,13 @@ public class XmlResourceParserImpl implements XmlResourceParser {
    * @throws XmlPullParserException
    */
   private int nativeNext() throws XmlPullParserException {
-    switch (mEventType) {
-      case (CDSECT): {
-        throw new IllegalArgumentException(
-            "CDSECT is not handled by Android");
-      }
-      case (COMMENT): {
-        throw new IllegalArgumentException(
-            "COMMENT is not handled by Android");
-      }
-      case (DOCDECL): {
-        throw new IllegalArgumentException(
-            "DOCDECL is not handled by Android");
-      }
-      case (ENTITY_REF): {
-        throw new IllegalArgumentException(
-            "ENTITY_REF is not handled by Android");
-      }
-      case (END_DOCUMENT): {
-        // The end document event should have been filtered
-        // from the invoker. This should never happen.
-        throw new IllegalArgumentException(
-            "END_DOCUMENT should not be found here.");
-      }
-      case (END_TAG): {
-        return navigateToNextNode(currentNode);
-      }
-      case (IGNORABLE_WHITESPACE): {
-        throw new IllegalArgumentException(
-            "IGNORABLE_WHITESPACE");
-      }
-      case (PROCESSING_INSTRUCTION): {
-        throw new IllegalArgumentException(
-            "PROCESSING_INSTRUCTION");
-      }
-      case (START_DOCUMENT): {
-        currentNode = document.getDocumentElement();
-        return START_TAG;
-      }
-      case (START_TAG): {
-        if (currentNode.hasChildNodes()) {
-          // The node has children, navigate down
-          return processNextNodeType(
-              currentNode.getFirstChild());
-        } else {
-          // The node has no children
-          return END_TAG;
-        }
-      }
-      case (TEXT): {
-        return navigateToNextNode(currentNode);
-      }
-      default: {
-        // This can only happen if mEventType is
-        // assigned with an unmapped integer.
-        throw new RuntimeException(
-            "Robolectric-> Uknown XML event type: " + mEventType);
-      }
-    }
-
-  }
-
-  /*protected*/ int processNextNodeType(Node node)
-      throws XmlPullParserException {
-    switch (node.getNodeType()) {
-      case (Node.ATTRIBUTE_NODE): {
-        throw new IllegalArgumentException("ATTRIBUTE_NODE");
-      }
-      case (Node.CDATA_SECTION_NODE): {
-        return navigateToNextNode(node);
-      }
-      case (Node.COMMENT_NODE): {
-        return navigateToNextNode(node);
-      }
-      case (Node.DOCUMENT_FRAGMENT_NODE): {
-        throw new IllegalArgumentException("DOCUMENT_FRAGMENT_NODE");
-      }
-      case (Node.DOCUMENT_NODE): {
-        throw new IllegalArgumentException("DOCUMENT_NODE");
-      }
-      case (Node.DOCUMENT_TYPE_NODE): {
-        throw new IllegalArgumentException("DOCUMENT_TYPE_NODE");
-      }
-      case (Node.ELEMENT_NODE): {
-        currentNode = node;
-        return START_TAG;
-      }
-      case (Node.ENTITY_NODE): {
-        throw new IllegalArgumentException("ENTITY_NODE");
-      }
-      case (Node.ENTITY_REFERENCE_NODE): {
-        throw new IllegalArgumentException("ENTITY_REFERENCE_NODE");
-      }
-      case (Node.NOTATION_NODE): {
-        throw new IllegalArgumentException("DOCUMENT_TYPE_NODE");
-      }
-      case (Node.PROCESSING_INSTRUCTION_NODE): {
-        throw new IllegalArgumentException("DOCUMENT_TYPE_NODE");
-      }
-      case (Node.TEXT_NODE): {
-        if (isWhitespace(node.getNodeValue())) {
-          // Skip whitespaces
-          return navigateToNextNode(node);
-        } else {
-          currentNode = node;
-          return TEXT;
-        }
-      }
-      default: {
-        throw new RuntimeException(
-            "Robolectric -> Unknown node type: " +
-                node.getNodeType() + ".");
-      }
-    }
-  }
-
-  /**
-   * Navigate to the next node after a node and all of his
-   * children have been explored.
-   *
-   * <p>If the node has unexplored siblings navigate to the
-   * next sibling. Otherwise return to its parent.
-   *
-   * @param node the node which was just explored.
-   * @return {@link XmlPullParserException#START_TAG} if the given
-   *         node has siblings, {@link XmlPullParserException#END_TAG}
-   *         if the node has no unexplored siblings or
-   *         {@link XmlPullParserException#END_DOCUMENT} if the explored
-   *         was the root document.
-   * @throws XmlPullParserException if the parser fails to
-   *                                parse the next node.
-   */
-  int navigateToNextNode(Node node)
-      throws XmlPullParserException {
-    Node nextNode = node.getNextSibling();
-    if (nextNode != null) {
-      // Move to the next siblings
-      return processNextNodeType(nextNode);
-    } else {
-      // Goes back to the parent
-      if (document.getDocumentElement().equals(node)) {
-        currentNode = null;
-        return END_DOCUMENT;
-      }
-      currentNode = node.getParentNode();
-      return END_TAG;
+    position = mEventType == START_DOCUMENT ? 0 : block.next(position);
+    if (position >= block.size()) {
+      currentElement = -1;
+      return END_DOCUMENT;
     }
+    currentElement = block.getElement(position);
+    return block.getEventType(position);
   }
 
   @Override
@@ -11,12 +11,40 @@ public class RoboSettingsTest {
   private String originalMavenRepositoryId;
   private String originalMavenRepositoryUrl;
   private boolean originalUseGlobalScheduler;
+  private String originalClassCacheDir;
+  private long originalClassCacheMaxSize;
+  private String originalInstrumentedJarDir;
+  private int originalParallelUniverses;
+  private int originalPlanCacheSize;
+  private String originalShadowProfileDir;
+  private int originalSdkEnvironmentPoolSize;
+  private String originalPinnedSdkEnvironments;
+  private String originalResourceTableCacheDir;
+  private String originalSystemResourceTableDir;
+  private boolean originalIncrementalResources;
+  private boolean originalLazyResources;
+  private boolean originalScanRClasses;
+  private boolean originalConfinedScheduler;
 
   @Before
   public void setUp() {
     originalMavenRepositoryId = RoboSettings.getMavenRepositoryId();
     originalMavenRepositoryUrl = RoboSettings.getMavenRepositoryUrl();
     originalUseGlobalScheduler = RoboSettings.isUseGlobalScheduler();
+    originalClassCacheDir = RoboSettings.getClassCacheDir();
+    originalClassCacheMaxSize = RoboSettings.getClassCacheMaxSize();
+    originalInstrumentedJarDir = RoboSettings.getInstrumentedJarDir();
+    originalParallelUniverses = RoboSettings.getParallelUniverses();
+    originalPlanCacheSize = RoboSettings.getPlanCacheSize();
+    originalShadowProfileDir = RoboSettings.getShadowProfileDir();
+    originalSdkEnvironmentPoolSize = RoboSettings.getSdkEnvironmentPoolSize();
+    originalPinnedSdkEnvironments = RoboSettings.getPinnedSdkEnvironments();
+    originalResourceTableCacheDir = RoboSettings.getResourceTableCacheDir();
+    originalSystemResourceTableDir = RoboSettings.getSystemResourceTableDir();
+    originalIncrementalResources = RoboSettings.isIncrementalResources();
+    originalLazyResources = RoboSettings.isLazyResources();
+    originalScanRClasses = RoboSettings.isScanRClasses();
+    originalConfinedScheduler = RoboSettings.isConfinedScheduler();
   }
 
   @After
@@ -24,6 +52,20 @@ public class RoboSettingsTest {
     RoboSettings.setMavenRepositoryId(originalMavenRepositoryId);
     RoboSettings.setMavenRepositoryUrl(originalMavenRepositoryUrl);
     RoboSettings.setUseGlobalScheduler(originalUseGlobalScheduler);
+    RoboSettings.setClassCacheDir(originalClassCacheDir);
+    RoboSettings.setClassCacheMaxSize(originalClassCacheMaxSize);
+    RoboSettings.setInstrumentedJarDir(originalInstrumentedJarDir);
+    RoboSettings.setParallelUniverses(originalParallelUniverses);
+    RoboSettings.setPlanCacheSize(originalPlanCacheSize);
+    RoboSettings.setShadowProfileDir(originalShadowProfileDir);
+    RoboSettings.setSdkEnvironmentPoolSize(originalSdkEnvironmentPoolSize);
+    RoboSettings.setPinnedSdkEnvironments(originalPinnedSdkEnvironments);
+    RoboSettings.setResourceTableCacheDir(originalResourceTableCacheDir);
+    RoboSettings.setSystemResourceTableDir(originalSystemResourceTableDir);
+    RoboSettings.setIncrementalResources(originalIncrementalResources);
+    RoboSettings.setLazyResources(originalLazyResources);
+    RoboSettings.setScanRClasses(originalScanRClasses);
+    RoboSettings.setConfinedScheduler(originalConfinedScheduler);
   }
 
   @Test
@@ -58,4 +100,152 @@ public class RoboSettingsTest {
     RoboSettings.setUseGlobalScheduler(true);
     assertTrue(RoboSettings.isUseGlobalScheduler());
   }
+
+  @Test
+  public void getClassCacheDir_defaultNull() {
+    assertNull(RoboSettings.getClassCacheDir());
+  }
+
+  @Test
+  public void setClassCacheDir() {
+    RoboSettings.setClassCacheDir("/tmp/robolectric-classes");
+    assertEquals("/tmp/robolectric-classes", RoboSettings.getClassCacheDir());
+  }
+
+  @Test
+  public void getClassCacheMaxSize_default256Mb() {
+    assertEquals(256L * 1024 * 1024, RoboSettings.getClassCacheMaxSize());
+  }
+
+  @Test
+  public void getInstrumentedJarDir_defaultNull() {
+    assertNull(RoboSettings.getInstrumentedJarDir());
+  }
+
+  @Test
+  public void setInstrumentedJarDir() {
+    RoboSettings.setInstrumentedJarDir("/tmp/instrumented");
+    assertEquals("/tmp/instrumented", RoboSettings.getInstrumentedJarDir());
+  }
+
+  @Test
+  public void getParallelUniverses_defaultOne() {
+    assertEquals(1, RoboSettings.getParallelUniverses());
+  }
+
+  @Test
+  public void setParallelUniverses() {
+    RoboSettings.setParallelUniverses(4);
+    assertEquals(4, RoboSettings.getParallelUniverses());
+  }
+
+  @Test
+  public void getPlanCacheSize_default() {
+    assertEquals(20000, RoboSettings.getPlanCacheSize());
+  }
+
+  @Test
+  public void setPlanCacheSize() {
+    RoboSettings.setPlanCacheSize(50);
+    assertEquals(50, RoboSettings.getPlanCacheSize());
+  }
+
+  @Test
+  public void getShadowProfileDir_defaultNull() {
+    assertNull(RoboSettings.getShadowProfileDir());
+  }
+
+  @Test
+  public void setShadowProfileDir() {
+    RoboSettings.setShadowProfileDir("/tmp/profile");
+    assertEquals("/tmp/profile", RoboSettings.getShadowProfileDir());
+  }
+
+  @Test
+  public void getSdkEnvironmentPoolSize_defaultZero() {
+    assertEquals(0, RoboSettings.getSdkEnvironmentPoolSize());
+  }
+
+  @Test
+  public void setSdkEnvironmentPoolSize() {
+    RoboSettings.setSdkEnvironmentPoolSize(5);
+    assertEquals(5, RoboSettings.getSdkEnvironmentPoolSize());
+  }
+
+  @Test
+  public void getPinnedSdkEnvironments_defaultNull() {
+    assertNull(RoboSettings.getPinnedSdkEnvironments());
+  }
+
+  @Test
+  public void setPinnedSdkEnvironments() {
+    RoboSettings.setPinnedSdkEnvironments("21,23");
+    assertEquals("21,23", RoboSettings.getPinnedSdkEnvironments());
+  }
+
+  @Test
+  public void getResourceTableCacheDir_defaultNull() {
+    assertNull(RoboSettings.getResourceTableCacheDir());
+  }
+
+  @Test
+  public void setResourceTableCacheDir() {
+    RoboSettings.setResourceTableCacheDir("/tmp/resources");
+    assertEquals("/tmp/resources", RoboSettings.getResourceTableCacheDir());
+  }
+
+  @Test
+  public void getSystemResourceTableDir_defaultNull() {
+    assertNull(RoboSettings.getSystemResourceTableDir());
+  }
+
+  @Test
+  public void setSystemResourceTableDir() {
+    RoboSettings.setSystemResourceTableDir("/tmp/system-resources");
+    assertEquals("/tmp/system-resources", RoboSettings.getSystemResourceTableDir());
+  }
+
+  @Test
+  public void isIncrementalResources_defaultFalse() {
+    assertFalse(RoboSettings.isIncrementalResources());
+  }
+
+  @Test
+  public void setIncrementalResources() {
+    RoboSettings.setIncrementalResources(true);
+    assertTrue(RoboSettings.isIncrementalResources());
+  }
+
+  @Test
+  public void isLazyResources_defaultFalse() {
+    assertFalse(RoboSettings.isLazyResources());
+  }
+
+  @Test
+  public void setLazyResources() {
+    RoboSettings.setLazyResources(true);
+    assertTrue(RoboSettings.isLazyResources());
+  }
+
+  @Test
+  public void isScanRClasses_defaultTrue() {
+    assertTrue(RoboSettings.isScanRClasses());
+  }
+
+  @Test
+  public void setScanRClasses() {
+    RoboSettings.setScanRClasses(false);
+    assertFalse(RoboSettings.isScanRClasses());
+  }
+
+  @Test
+  public void isConfinedScheduler_defaultFalse() {
+    assertFalse(RoboSettings.isConfinedScheduler());
+  }
+
+  @Test
+  public void setConfinedScheduler() {
+    RoboSettings.setConfinedScheduler(true);
+    assertTrue(RoboSettings.isConfinedScheduler());
+  }
 }
@@ -5,6 +5,7 @@ import org.robolectric.annotation.Implementation;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
 import org.robolectric.util.SimpleFuture;
+import org.robolectric.util.concurrent.RoboExecutorService;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
@@ -85,23 +86,19 @@ public class ShadowAsyncTask<Params, Progress, Result> {
 
   @Implementation
   public AsyncTask<Params, Progress, Result> execute(final Params... params) {
-    status = AsyncTask.Status.RUNNING;
-    getBridge().onPreExecute();
-
-    worker.params = params;
-
-    ShadowApplication.getInstance().getBackgroundThreadScheduler().post(new Runnable() {
-      @Override
-      public void run() {
-        future.run();
-      }
-    });
-
-    return realAsyncTask;
+    return executeOnExecutor(new RoboExecutorService(), params);
   }
 
+  /**
+   * Execute the task. AsyncTask's own executors are replaced with the background scheduler, so that the task
+   * runs when the scheduler is advanced rather than on a real thread.
+   */
   @Implementation
   public AsyncTask<Params, Progress, Result> executeOnExecutor(Executor executor, Params... params) {
+    if (executor == AsyncTask.THREAD_POOL_EXECUTOR || executor == AsyncTask.SERIAL_EXECUTOR) {
+      executor = new RoboExecutorService();
+    }
+
     status = AsyncTask.Status.RUNNING;
     getBridge().onPreExecute();
 
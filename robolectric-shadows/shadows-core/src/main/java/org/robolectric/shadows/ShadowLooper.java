@@ -3,7 +3,9 @@ package org.robolectric.shadows;
 import android.os.Looper;
 
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 
@@ -15,6 +17,7 @@ import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
 import org.robolectric.annotation.Resetter;
 import org.robolectric.util.Scheduler;
+import org.robolectric.util.Schedulers;
 
 import static org.robolectric.RuntimeEnvironment.isMainThread;
 import static org.robolectric.Shadows.shadowOf;
@@ -206,6 +209,45 @@ public class ShadowLooper {
     getShadowMainLooper().runToEndOfTasks();
   }
 
+  /**
+   * Runs all tasks (pending and future) of the main looper, of every other looper and of the background scheduler,
+   * in the order of their scheduled times, until there are none left. The clocks jump straight to the time of each
+   * task, and {@link System#nanoTime()} is advanced by the same amount as {@link android.os.SystemClock}.
+   *
+   * @return The number of tasks that were run.
+   * @throws IllegalStateException If tasks are still being posted after {@link Schedulers#DEFAULT_MAX_STEPS} have run.
+   */
+  public static int runUntilIdle() {
+    return runUntilIdle(Schedulers.DEFAULT_MAX_STEPS);
+  }
+
+  /**
+   * Like {@link #runUntilIdle()}, but gives up after {@code maxSteps} tasks.
+   */
+  public static int runUntilIdle(int maxSteps) {
+    Set<Scheduler> schedulers = new LinkedHashSet<>();
+    Scheduler foregroundScheduler = RuntimeEnvironment.getMasterScheduler();
+    schedulers.add(foregroundScheduler);
+    if (mainLooper != null) {
+      schedulers.add(getShadowMainLooper().getScheduler());
+    }
+    synchronized (loopingLoopers) {
+      for (Looper looper : loopingLoopers.values()) {
+        if (!shadowOf(looper).hasQuit()) {
+          schedulers.add(shadowOf(looper).getScheduler());
+        }
+      }
+    }
+    if (ShadowApplication.getInstance() != null) {
+      schedulers.add(ShadowApplication.getInstance().getBackgroundThreadScheduler());
+    }
+
+    long startTime = foregroundScheduler.getCurrentTime();
+    int steps = Schedulers.runUntilIdle(schedulers, maxSteps);
+    ShadowSystemClock.setNanoTime(ShadowSystemClock.nanoTime() + TimeUnit.MILLISECONDS.toNanos(foregroundScheduler.getCurrentTime() - startTime));
+    return steps;
+  }
+
   /**
    * Causes {@link Runnable}s that have been scheduled to run immediately to actually run. Does not advance the
    * scheduler's clock;
@@ -5,10 +5,13 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -16,9 +19,12 @@ import org.robolectric.shadows.ShadowApplication;
 import org.robolectric.util.Scheduler;
 
 /**
- * Executor service that runs all operations on the background scheduler.
+ * Executor service that runs all operations on a {@link Scheduler}, by default the background scheduler.
+ *
+ * Delayed and periodic tasks are scheduled on the scheduler's clock, so tests advance the clock instead of
+ * waiting for real threads.
  */
-public class RoboExecutorService implements ExecutorService {
+public class RoboExecutorService implements ScheduledExecutorService {
   private final Scheduler scheduler;
   private boolean isShutdown;
   private final HashSet<Runnable> runnables = new HashSet<>();
@@ -45,8 +51,69 @@ public class RoboExecutorService implements ExecutorService {
     }
   }
 
+  /**
+   * A task that runs at a time on the scheduler's clock, and for periodic tasks, again after each run.
+   */
+  private class ScheduledFutureTask<V> extends AdvancingFutureTask<V> implements ScheduledFuture<V> {
+    private long scheduledTime;
+
+    /**
+     * Zero for one-shot tasks, positive for tasks run at a fixed rate and negative for tasks run with a fixed delay.
+     */
+    private final long periodMillis;
+
+    ScheduledFutureTask(Callable<V> callable, long scheduledTime) {
+      super(scheduler, callable);
+      this.scheduledTime = scheduledTime;
+      this.periodMillis = 0;
+    }
+
+    ScheduledFutureTask(Runnable runnable, long scheduledTime, long periodMillis) {
+      super(scheduler, runnable, null);
+      this.scheduledTime = scheduledTime;
+      this.periodMillis = periodMillis;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(scheduledTime - scheduler.getCurrentTime(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public void run() {
+      if (periodMillis == 0) {
+        runnables.remove(this);
+        super.run();
+      } else if (runAndReset()) {
+        scheduledTime = periodMillis > 0 ? scheduledTime + periodMillis : scheduler.getCurrentTime() - periodMillis;
+        scheduler.postDelayed(this, getDelay(TimeUnit.MILLISECONDS));
+      } else {
+        runnables.remove(this);
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        runnables.remove(this);
+        scheduler.remove(this);
+      }
+      return cancelled;
+    }
+  }
+
   public RoboExecutorService() {
-    this.scheduler = ShadowApplication.getInstance().getBackgroundThreadScheduler();
+    this(ShadowApplication.getInstance().getBackgroundThreadScheduler());
+  }
+
+  public RoboExecutorService(Scheduler scheduler) {
+    this.scheduler = scheduler;
   }
 
   @Override
@@ -98,41 +165,123 @@ public class RoboExecutorService implements ExecutorService {
   }
 
   private <T> Future<T> schedule(final FutureTask<T> futureTask) {
+    post(futureTask);
+    return futureTask;
+  }
+
+  private void post(final Runnable command) {
     Runnable runnable = new Runnable() {
       @Override
       public void run() {
-        futureTask.run();
         runnables.remove(this);
+        command.run();
       }
     };
     runnables.add(runnable);
     scheduler.post(runnable);
+  }
 
-    return futureTask;
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return schedule(new ScheduledFutureTask<Void>(command, scheduledTime(delay, unit), 0));
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    return schedule(new ScheduledFutureTask<V>(callable, scheduledTime(delay, unit)));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("period must be positive: " + period);
+    }
+    return schedule(new ScheduledFutureTask<Void>(command, scheduledTime(initialDelay, unit), unit.toMillis(period)));
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    if (delay <= 0) {
+      throw new IllegalArgumentException("delay must be positive: " + delay);
+    }
+    return schedule(new ScheduledFutureTask<Void>(command, scheduledTime(initialDelay, unit), -unit.toMillis(delay)));
+  }
+
+  private long scheduledTime(long delay, TimeUnit unit) {
+    return scheduler.getCurrentTime() + Math.max(0, unit.toMillis(delay));
+  }
+
+  private <V> ScheduledFuture<V> schedule(ScheduledFutureTask<V> task) {
+    runnables.add(task);
+    scheduler.postDelayed(task, task.getDelay(TimeUnit.MILLISECONDS));
+    return task;
   }
 
   @Override
   public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> callables) throws InterruptedException {
-    throw new UnsupportedOperationException();
+    List<Future<T>> futures = new ArrayList<>();
+    for (Callable<T> callable : callables) {
+      futures.add(submit(callable));
+    }
+    for (Future<T> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException | CancellationException e) {
+        // Reported by the future.
+      }
+    }
+    return futures;
   }
 
+  /**
+   * Tasks don't wait for real time to pass, so the timeout is ignored.
+   */
   @Override
   public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> callables, long l, TimeUnit timeUnit) throws InterruptedException {
-    throw new UnsupportedOperationException();
+    return invokeAll(callables);
   }
 
   @Override
   public <T> T invokeAny(Collection<? extends Callable<T>> callables) throws InterruptedException, ExecutionException {
-    throw new UnsupportedOperationException();
+    List<Future<T>> futures = new ArrayList<>();
+    for (Callable<T> callable : callables) {
+      futures.add(submit(callable));
+    }
+    if (futures.isEmpty()) {
+      throw new IllegalArgumentException("no tasks");
+    }
+
+    ExecutionException lastException = null;
+    try {
+      for (Future<T> future : futures) {
+        try {
+          return future.get();
+        } catch (ExecutionException e) {
+          lastException = e;
+        }
+      }
+      throw lastException;
+    } finally {
+      for (Future<T> future : futures) {
+        future.cancel(true);
+      }
+    }
   }
 
+  /**
+   * Tasks don't wait for real time to pass, so the timeout is ignored.
+   */
   @Override
   public <T> T invokeAny(Collection<? extends Callable<T>> callables, long l, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
-    throw new UnsupportedOperationException();
+    return invokeAny(callables);
   }
 
+  /**
+   * Run a command on the scheduler. Unlike {@link #submit(Runnable)}, anything thrown by the command isn't caught
+   * by a future, but goes to whoever runs the scheduler.
+   */
   @Override
   public void execute(Runnable runnable) {
-    submit(runnable);
+    post(runnable);
   }
 }
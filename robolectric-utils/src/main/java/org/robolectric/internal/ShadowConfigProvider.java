@@ -0,0 +1,35 @@
+package org.robolectric.internal;
+
+import java.util.Map;
+
+/**
+ * Optionally implemented by a {@link ShadowProvider} whose shadows' {@code @Implements} configuration was resolved
+ * at compile time, so they can be looked up without loading classes or reading annotations. Providers that don't
+ * implement it have their shadows resolved reflectively.
+ */
+public interface ShadowConfigProvider {
+
+  /**
+   * Return the configuration of each shadow, keyed by the binary name of the shadowed class.
+   *
+   * @return  Shadow configurations.
+   */
+  Map<String, Config> getShadowConfigs();
+
+  /**
+   * Compile-time resolved {@code @Implements} configuration of a shadow.
+   */
+  final class Config {
+    public final String shadowClassName;
+    public final boolean callThroughByDefault;
+    public final boolean inheritImplementationMethods;
+    public final boolean looseSignatures;
+
+    public Config(String shadowClassName, boolean callThroughByDefault, boolean inheritImplementationMethods, boolean looseSignatures) {
+      this.shadowClassName = shadowClassName;
+      this.callThroughByDefault = callThroughByDefault;
+      this.inheritImplementationMethods = inheritImplementationMethods;
+      this.looseSignatures = looseSignatures;
+    }
+  }
+}
@@ -1,10 +1,14 @@
 package org.robolectric.util;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.robolectric.util.Scheduler.IdleState.*;
 
@@ -24,6 +28,13 @@ import static org.robolectric.util.Scheduler.IdleState.*;
  * <tt>true</tt>, then the Scheduler will continue looping through posted events
  * (including future events), advancing its clock as it goes.</li>
  * </ul>
+ *
+ * Runnables are kept in a heap ordered by scheduled time, and then by the order they were posted in.
+ *
+ * A scheduler is normally guarded by a lock. A <em>confined</em> scheduler (see {@link #Scheduler(boolean)}) instead
+ * trusts that it is only driven by the thread that created it, and takes no lock. Other threads may only post to it,
+ * remove runnables from it and read its time; their posts and removals go through a lock-free inbox that the owning
+ * thread applies on its next call.
  */
 public class Scheduler {
 
@@ -47,20 +58,45 @@ public class Scheduler {
     CONSTANT_IDLE
   }
 
-  private long currentTime = 100;
+  private volatile long currentTime = 100;
   private boolean isExecutingRunnable = false;
   private final Thread associatedThread = Thread.currentThread();
-  private final List<ScheduledRunnable> runnables = new ArrayList<>();
+  private final ReentrantLock lock;
+  private final Queue<Runnable> inbox;
+  private final PriorityQueue<ScheduledRunnable> runnables = new PriorityQueue<>();
+  private final Map<Runnable, List<ScheduledRunnable>> runnablesByHandle = new IdentityHashMap<>();
+  private int size;
+  private int cancelledCount;
+  private long nextSequence;
+  private long nextFrontOfQueueSequence = -1;
   private IdleState idleState = UNPAUSED;
 
+  public Scheduler() {
+    this(false);
+  }
+
+  /**
+   * @param confined If <tt>true</tt>, the scheduler takes no lock, and every call other than posting, removing and
+   *                 {@link #getCurrentTime()} must be made on the thread that creates it.
+   */
+  public Scheduler(boolean confined) {
+    lock = confined ? null : new ReentrantLock();
+    inbox = confined ? new ConcurrentLinkedQueue<Runnable>() : null;
+  }
+
   /**
    * Retrieves the current idling state of this <tt>Scheduler</tt>.
    * @return The current idle state of this <tt>Scheduler</tt>.
    * @see #setIdleState(IdleState)
    * @see #isPaused()
    */
-  public synchronized IdleState getIdleState() {
-    return idleState;
+  public IdleState getIdleState() {
+    enter();
+    try {
+      return idleState;
+    } finally {
+      exit();
+    }
   }
 
   /**
@@ -72,15 +108,20 @@ public class Scheduler {
    * @see #setIdleState(IdleState)
    * @see #isPaused()
    */
-  public synchronized void setIdleState(IdleState idleState) {
-    this.idleState = idleState;
-    switch (idleState) {
-      case UNPAUSED:
-        advanceBy(0);
-        break;
-      case CONSTANT_IDLE:
-        advanceToLastPostedRunnable();
-        break;
+  public void setIdleState(IdleState idleState) {
+    enter();
+    try {
+      this.idleState = idleState;
+      switch (idleState) {
+        case UNPAUSED:
+          advanceBy(0);
+          break;
+        case CONSTANT_IDLE:
+          advanceToLastPostedRunnable();
+          break;
+      }
+    } finally {
+      exit();
     }
   }
 
@@ -89,7 +130,7 @@ public class Scheduler {
    *
    * @return  Current time in milliseconds.
    */
-  public synchronized long getCurrentTime() {
+  public long getCurrentTime() {
     return currentTime;
   }
 
@@ -99,7 +140,7 @@ public class Scheduler {
    * @see #unPause()
    * @see #setIdleState(IdleState)
    */
-  public synchronized void pause() {
+  public void pause() {
     setIdleState(PAUSED);
   }
 
@@ -109,7 +150,7 @@ public class Scheduler {
    * @see #pause()
    * @see #setIdleState(IdleState)
    */
-  public synchronized void unPause() {
+  public void unPause() {
     setIdleState(UNPAUSED);
   }
 
@@ -118,8 +159,13 @@ public class Scheduler {
    *
    * @return  <tt>true</tt> if it is paused.
    */
-  public synchronized boolean isPaused() {
-    return idleState == PAUSED;
+  public boolean isPaused() {
+    enter();
+    try {
+      return idleState == PAUSED;
+    } finally {
+      exit();
+    }
   }
 
   /**
@@ -127,7 +173,7 @@ public class Scheduler {
    *
    * @param runnable    Runnable to add.
    */
-  public synchronized void post(Runnable runnable) {
+  public void post(Runnable runnable) {
     postDelayed(runnable, 0, TimeUnit.MILLISECONDS);
   }
 
@@ -137,19 +183,35 @@ public class Scheduler {
    * @param runnable    Runnable to add.
    * @param delayMillis Delay in millis.
    */
-  public synchronized void postDelayed(Runnable runnable, long delayMillis) {
+  public void postDelayed(Runnable runnable, long delayMillis) {
     postDelayed(runnable, delayMillis, TimeUnit.MILLISECONDS);
   }
 
   /**
    * Add a runnable to the queue to be run after a delay.
    */
-  public synchronized void postDelayed(Runnable runnable, long delay, TimeUnit unit) {
-    long delayMillis = unit.toMillis(delay);
-    if ((idleState != CONSTANT_IDLE && (isPaused() || delayMillis > 0)) || Thread.currentThread() != associatedThread) {
-      queueRunnableAndSort(runnable, currentTime + delayMillis);
-    } else {
-      runOrQueueRunnable(runnable, currentTime + delayMillis);
+  public void postDelayed(final Runnable runnable, long delay, TimeUnit unit) {
+    final long delayMillis = unit.toMillis(delay);
+    if (isForeignThreadOfConfinedScheduler()) {
+      final long scheduledTime = currentTime + delayMillis;
+      inbox.add(new Runnable() {
+        @Override
+        public void run() {
+          queueRunnable(runnable, scheduledTime);
+        }
+      });
+      return;
+    }
+
+    enter();
+    try {
+      if ((idleState != CONSTANT_IDLE && (isPaused() || delayMillis > 0)) || Thread.currentThread() != associatedThread) {
+        queueRunnable(runnable, currentTime + delayMillis);
+      } else {
+        runOrQueueRunnable(runnable, currentTime + delayMillis);
+      }
+    } finally {
+      exit();
     }
   }
 
@@ -158,11 +220,27 @@ public class Scheduler {
    *
    * @param runnable  Runnable to add.
    */
-  public synchronized void postAtFrontOfQueue(Runnable runnable) {
-    if (isPaused() || Thread.currentThread() != associatedThread) {
-      runnables.add(0, new ScheduledRunnable(runnable, currentTime));
-    } else {
-      runOrQueueRunnable(runnable, currentTime);
+  public void postAtFrontOfQueue(final Runnable runnable) {
+    if (isForeignThreadOfConfinedScheduler()) {
+      final long scheduledTime = currentTime;
+      inbox.add(new Runnable() {
+        @Override
+        public void run() {
+          queueRunnable(runnable, scheduledTime, nextFrontOfQueueSequence--);
+        }
+      });
+      return;
+    }
+
+    enter();
+    try {
+      if (isPaused() || Thread.currentThread() != associatedThread) {
+        queueRunnable(runnable, currentTime, nextFrontOfQueueSequence--);
+      } else {
+        runOrQueueRunnable(runnable, currentTime);
+      }
+    } finally {
+      exit();
     }
   }
 
@@ -171,13 +249,34 @@ public class Scheduler {
    *
    * @param runnable  Runnable to remove.
    */
-  public synchronized void remove(Runnable runnable) {
-    ListIterator<ScheduledRunnable> iterator = runnables.listIterator();
-    while (iterator.hasNext()) {
-      ScheduledRunnable next = iterator.next();
-      if (next.runnable == runnable) {
-        iterator.remove();
+  public void remove(final Runnable runnable) {
+    if (isForeignThreadOfConfinedScheduler()) {
+      inbox.add(new Runnable() {
+        @Override
+        public void run() {
+          remove(runnable);
+        }
+      });
+      return;
+    }
+
+    enter();
+    try {
+      List<ScheduledRunnable> scheduledRunnables = runnablesByHandle.remove(runnable);
+      if (scheduledRunnables == null) {
+        return;
+      }
+      // Cancelled runnables are left in the heap and dropped when they reach the head of the queue.
+      for (ScheduledRunnable scheduledRunnable : scheduledRunnables) {
+        scheduledRunnable.cancelled = true;
       }
+      size -= scheduledRunnables.size();
+      cancelledCount += scheduledRunnables.size();
+      if (cancelledCount > 32 && cancelledCount > size) {
+        purgeCancelledRunnables();
+      }
+    } finally {
+      exit();
     }
   }
 
@@ -186,8 +285,22 @@ public class Scheduler {
    *
    * @return  True if a runnable was executed.
    */
-  public synchronized boolean advanceToLastPostedRunnable() {
-    return size() >= 1 && advanceTo(runnables.get(runnables.size() - 1).scheduledTime);
+  public boolean advanceToLastPostedRunnable() {
+    enter();
+    try {
+      if (size() < 1) {
+        return false;
+      }
+      long lastScheduledTime = Long.MIN_VALUE;
+      for (ScheduledRunnable scheduledRunnable : runnables) {
+        if (!scheduledRunnable.cancelled) {
+          lastScheduledTime = Math.max(lastScheduledTime, scheduledRunnable.scheduledTime);
+        }
+      }
+      return advanceTo(lastScheduledTime);
+    } finally {
+      exit();
+    }
   }
 
   /**
@@ -195,8 +308,13 @@ public class Scheduler {
    *
    * @return  True if a runnable was executed.
    */
-  public synchronized boolean advanceToNextPostedRunnable() {
-    return size() >= 1 && advanceTo(runnables.get(0).scheduledTime);
+  public boolean advanceToNextPostedRunnable() {
+    enter();
+    try {
+      return size() >= 1 && advanceTo(nextRunnable().scheduledTime);
+    } finally {
+      exit();
+    }
   }
 
   /**
@@ -206,7 +324,7 @@ public class Scheduler {
    * @return  True if a runnable was executed.
    * @deprecated Use {@link #advanceBy(long, TimeUnit)}.
    */
-  public synchronized boolean advanceBy(long interval) {
+  public boolean advanceBy(long interval) {
     return advanceBy(interval, TimeUnit.MILLISECONDS);
   }
 
@@ -215,9 +333,14 @@ public class Scheduler {
    *
    * @return  True if a runnable was executed.
    */
-  public synchronized boolean advanceBy(long amount, TimeUnit unit) {
-    long endingTime = currentTime + unit.toMillis(amount);
-    return advanceTo(endingTime);
+  public boolean advanceBy(long amount, TimeUnit unit) {
+    enter();
+    try {
+      long endingTime = currentTime + unit.toMillis(amount);
+      return advanceTo(endingTime);
+    } finally {
+      exit();
+    }
   }
 
   /**
@@ -226,19 +349,24 @@ public class Scheduler {
    * @param   endTime   Future time.
    * @return  True if a runnable was executed.
    */
-  public synchronized boolean advanceTo(long endTime) {
-    if (endTime - currentTime < 0 || size() < 1) {
-      currentTime = endTime;
-      return false;
-    }
+  public boolean advanceTo(long endTime) {
+    enter();
+    try {
+      if (endTime - currentTime < 0 || size() < 1) {
+        currentTime = endTime;
+        return false;
+      }
 
-    int runCount = 0;
-    while (nextTaskIsScheduledBefore(endTime)) {
-      runOneTask();
-      ++runCount;
+      int runCount = 0;
+      while (nextTaskIsScheduledBefore(endTime)) {
+        runOneTask();
+        ++runCount;
+      }
+      currentTime = endTime;
+      return runCount > 0;
+    } finally {
+      exit();
     }
-    currentTime = endTime;
-    return runCount > 0;
   }
 
   /**
@@ -246,15 +374,37 @@ public class Scheduler {
    *
    * @return  True if a runnable was executed.
    */
-  public synchronized boolean runOneTask() {
-    if (size() < 1) {
-      return false;
+  public boolean runOneTask() {
+    enter();
+    try {
+      if (size() < 1) {
+        return false;
+      }
+
+      ScheduledRunnable postedRunnable = pollNextRunnable();
+      if (postedRunnable.scheduledTime - currentTime > 0) {
+        currentTime = postedRunnable.scheduledTime;
+      }
+      postedRunnable.run();
+      return true;
+    } finally {
+      exit();
     }
+  }
 
-    ScheduledRunnable postedRunnable = runnables.remove(0);
-    currentTime = postedRunnable.scheduledTime;
-    postedRunnable.run();
-    return true;
+  /**
+   * Get the time the next runnable in the queue is scheduled to run at.
+   *
+   * @return  Scheduled time in millis, or {@link Long#MAX_VALUE} if the queue is empty.
+   */
+  public long getNextScheduledTime() {
+    enter();
+    try {
+      ScheduledRunnable next = nextRunnable();
+      return next == null ? Long.MAX_VALUE : next.scheduledTime;
+    } finally {
+      exit();
+    }
   }
 
   /**
@@ -262,16 +412,32 @@ public class Scheduler {
    *
    * @return  True if any runnables can be executed.
    */
-  public synchronized boolean areAnyRunnable() {
-    return nextTaskIsScheduledBefore(currentTime);
+  public boolean areAnyRunnable() {
+    enter();
+    try {
+      return nextTaskIsScheduledBefore(currentTime);
+    } finally {
+      exit();
+    }
   }
 
   /**
    * Reset the internal state of the Scheduler.
    */
-  public synchronized void reset() {
-    runnables.clear();
-    idleState = UNPAUSED;
+  public void reset() {
+    enter();
+    try {
+      runnables.clear();
+      runnablesByHandle.clear();
+      if (inbox != null) {
+        inbox.clear();
+      }
+      size = 0;
+      cancelledCount = 0;
+      idleState = UNPAUSED;
+    } finally {
+      exit();
+    }
   }
 
   /**
@@ -279,8 +445,13 @@ public class Scheduler {
    *
    * @return  Number of enqueues runnables.
    */
-  public synchronized int size() {
-    return runnables.size();
+  public int size() {
+    enter();
+    try {
+      return size;
+    } finally {
+      exit();
+    }
   }
 
   /**
@@ -298,13 +469,53 @@ public class Scheduler {
     setIdleState(shouldIdleConstantly ? CONSTANT_IDLE : UNPAUSED);
   }
 
+  /**
+   * Move the clock forward to the given time without running any runnables, even those that are due by then.
+   *
+   * @param time  Future time; earlier times are ignored.
+   */
+  void moveClockTo(long time) {
+    enter();
+    try {
+      if (time - currentTime > 0) {
+        currentTime = time;
+      }
+    } finally {
+      exit();
+    }
+  }
+
   private boolean nextTaskIsScheduledBefore(long endingTime) {
-    return size() > 0 && runnables.get(0).scheduledTime <= endingTime;
+    return size() > 0 && nextRunnable().scheduledTime <= endingTime;
+  }
+
+  private void enter() {
+    if (lock != null) {
+      lock.lock();
+      return;
+    }
+    if (Thread.currentThread() != associatedThread) {
+      throw new IllegalStateException("confined scheduler of " + associatedThread + " used from " + Thread.currentThread());
+    }
+    Runnable operation;
+    while ((operation = inbox.poll()) != null) {
+      operation.run();
+    }
+  }
+
+  private void exit() {
+    if (lock != null) {
+      lock.unlock();
+    }
+  }
+
+  private boolean isForeignThreadOfConfinedScheduler() {
+    return lock == null && Thread.currentThread() != associatedThread;
   }
 
   private void runOrQueueRunnable(Runnable runnable, long scheduledTime) {
     if (isExecutingRunnable) {
-      queueRunnableAndSort(runnable, scheduledTime);
+      queueRunnable(runnable, scheduledTime);
       return;
     }
     isExecutingRunnable = true;
@@ -329,23 +540,72 @@ public class Scheduler {
     }
   }
 
-  private void queueRunnableAndSort(Runnable runnable, long scheduledTime) {
-    runnables.add(new ScheduledRunnable(runnable, scheduledTime));
-    Collections.sort(runnables);
+  private void queueRunnable(Runnable runnable, long scheduledTime) {
+    queueRunnable(runnable, scheduledTime, nextSequence++);
+  }
+
+  private void queueRunnable(Runnable runnable, long scheduledTime, long sequence) {
+    ScheduledRunnable scheduledRunnable = new ScheduledRunnable(runnable, scheduledTime, sequence);
+    runnables.add(scheduledRunnable);
+    List<ScheduledRunnable> scheduledRunnables = runnablesByHandle.get(runnable);
+    if (scheduledRunnables == null) {
+      scheduledRunnables = new ArrayList<>(1);
+      runnablesByHandle.put(runnable, scheduledRunnables);
+    }
+    scheduledRunnables.add(scheduledRunnable);
+    size++;
+  }
+
+  private ScheduledRunnable nextRunnable() {
+    ScheduledRunnable next = runnables.peek();
+    while (next != null && next.cancelled) {
+      runnables.poll();
+      cancelledCount--;
+      next = runnables.peek();
+    }
+    return next;
+  }
+
+  private ScheduledRunnable pollNextRunnable() {
+    ScheduledRunnable next = nextRunnable();
+    runnables.poll();
+    List<ScheduledRunnable> scheduledRunnables = runnablesByHandle.get(next.runnable);
+    scheduledRunnables.remove(next);
+    if (scheduledRunnables.isEmpty()) {
+      runnablesByHandle.remove(next.runnable);
+    }
+    size--;
+    return next;
+  }
+
+  private void purgeCancelledRunnables() {
+    List<ScheduledRunnable> scheduledRunnables = new ArrayList<>(size);
+    for (ScheduledRunnable scheduledRunnable : runnables) {
+      if (!scheduledRunnable.cancelled) {
+        scheduledRunnables.add(scheduledRunnable);
+      }
+    }
+    runnables.clear();
+    runnables.addAll(scheduledRunnables);
+    cancelledCount = 0;
   }
 
   private class ScheduledRunnable implements Comparable<ScheduledRunnable> {
     private final Runnable runnable;
     private final long scheduledTime;
+    private final long sequence;
+    private boolean cancelled;
 
-    private ScheduledRunnable(Runnable runnable, long scheduledTime) {
+    private ScheduledRunnable(Runnable runnable, long scheduledTime, long sequence) {
       this.runnable = runnable;
       this.scheduledTime = scheduledTime;
+      this.sequence = sequence;
     }
 
     @Override
     public int compareTo(ScheduledRunnable runnable) {
-      return (int) (scheduledTime - runnable.scheduledTime);
+      int byTime = Long.compare(scheduledTime, runnable.scheduledTime);
+      return byTime != 0 ? byTime : Long.compare(sequence, runnable.sequence);
     }
 
     public void run() {
@@ -0,0 +1,73 @@
+package org.robolectric.util;
+
+import java.util.Collection;
+
+/**
+ * Runs the tasks of several {@link Scheduler}s as if they shared one clock.
+ */
+public class Schedulers {
+  /**
+   * The most tasks {@link #runUntilIdle(Collection)} runs before giving up.
+   */
+  public static final int DEFAULT_MAX_STEPS = 100000;
+
+  /**
+   * Run all the tasks of the schedulers, including delayed tasks, in the order of their scheduled times, until none
+   * are left. Every scheduler's clock jumps straight to the time of each task before it runs, so the schedulers
+   * share one clock that never goes backwards.
+   *
+   * @param schedulers  The schedulers to run. Tasks scheduled at the same time run in the order of the schedulers.
+   * @return  The number of tasks that were run.
+   * @throws IllegalStateException If more than {@link #DEFAULT_MAX_STEPS} tasks run.
+   */
+  public static int runUntilIdle(Collection<Scheduler> schedulers) {
+    return runUntilIdle(schedulers, DEFAULT_MAX_STEPS);
+  }
+
+  /**
+   * Run all the tasks of the schedulers, including delayed tasks, in the order of their scheduled times, until none
+   * are left.
+   *
+   * @param schedulers  The schedulers to run. Tasks scheduled at the same time run in the order of the schedulers.
+   * @param maxSteps    The most tasks to run, so that a task which keeps posting itself doesn't run forever.
+   * @return  The number of tasks that were run.
+   * @throws IllegalStateException If more than {@code maxSteps} tasks run.
+   */
+  public static int runUntilIdle(Collection<Scheduler> schedulers, int maxSteps) {
+    long now = Long.MIN_VALUE;
+    for (Scheduler scheduler : schedulers) {
+      now = Math.max(now, scheduler.getCurrentTime());
+    }
+
+    int steps = 0;
+    while (true) {
+      Scheduler next = null;
+      long nextTime = Long.MAX_VALUE;
+      for (Scheduler scheduler : schedulers) {
+        if (scheduler.size() > 0 && scheduler.getNextScheduledTime() < nextTime) {
+          next = scheduler;
+          nextTime = scheduler.getNextScheduledTime();
+        }
+      }
+      if (next == null) {
+        break;
+      }
+      if (steps == maxSteps) {
+        throw new IllegalStateException("still not idle after running " + maxSteps + " tasks; is a task reposting itself?");
+      }
+      // Bring every clock up to the task's time first, so that whatever it posts to another scheduler is delayed
+      // relative to the shared time rather than to a clock that is behind.
+      now = Math.max(now, nextTime);
+      for (Scheduler scheduler : schedulers) {
+        scheduler.moveClockTo(now);
+      }
+      next.runOneTask();
+      steps++;
+    }
+
+    for (Scheduler scheduler : schedulers) {
+      scheduler.moveClockTo(now);
+    }
+    return steps;
+  }
+}
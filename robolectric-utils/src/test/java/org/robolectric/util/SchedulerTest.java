@@ -234,6 +234,48 @@ public class SchedulerTest {
     assertThat(runnable.wasRun).isFalse();
   }
 
+  @Test
+  public void postDelayed_runsJobsWithTheSameTimeInTheOrderTheyWerePosted() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      scheduler.postDelayed(new AddToTranscript("late" + i), 200);
+      scheduler.postDelayed(new AddToTranscript("early" + i), 100);
+    }
+
+    String[] expected = new String[100];
+    for (int i = 0; i < 100; i++) {
+      expected[i] = "early" + i;
+    }
+    scheduler.advanceBy(100);
+    transcript.assertEventsSoFar(expected);
+  }
+
+  @Test
+  public void postAtFrontOfQueue_runsTheLastJobPostedAtTheFrontFirst() throws Exception {
+    scheduler.post(new AddToTranscript("one"));
+    scheduler.postAtFrontOfQueue(new AddToTranscript("two"));
+    scheduler.postAtFrontOfQueue(new AddToTranscript("three"));
+    scheduler.post(new AddToTranscript("four"));
+
+    scheduler.advanceToLastPostedRunnable();
+    transcript.assertEventsSoFar("three", "two", "one", "four");
+  }
+
+  @Test
+  public void remove_shouldOnlyRemoveThatRunnableAmongManyOthers() throws Exception {
+    TestRunnable removed = new TestRunnable();
+    for (int i = 0; i < 100; i++) {
+      scheduler.postDelayed(new AddToTranscript("job" + i), i);
+      scheduler.postDelayed(removed, i);
+    }
+    scheduler.remove(removed);
+    assertThat(scheduler.size()).isEqualTo(100);
+
+    scheduler.advanceToLastPostedRunnable();
+    assertThat(removed.wasRun).isFalse();
+    assertThat(scheduler.size()).isEqualTo(0);
+    assertThat(scheduler.getCurrentTime()).isEqualTo(startTime + 99);
+  }
+
   @Test
   public void reset_shouldUnPause() throws Exception {
     scheduler.pause();
@@ -444,6 +486,54 @@ public class SchedulerTest {
     assertThat(runnablesThatWereRun).containsExactly(1, 2);
   }
 
+  @Test
+  public void confinedScheduler_queuesPostsFromOtherThreadsUntilItIsNextUsed() throws Exception {
+    final Scheduler confinedScheduler = new Scheduler(true);
+    final TestRunnable removed = new TestRunnable();
+    confinedScheduler.post(new AddToTranscript("one"));
+    transcript.assertEventsSoFar("one");
+
+    runOnOtherThread(new Runnable() {
+      @Override
+      public void run() {
+        confinedScheduler.post(new AddToTranscript("two"));
+        confinedScheduler.postDelayed(removed, 100);
+        confinedScheduler.postDelayed(new AddToTranscript("three"), 100);
+        confinedScheduler.remove(removed);
+      }
+    });
+    transcript.assertNoEventsSoFar();
+
+    assertThat(confinedScheduler.size()).isEqualTo(2);
+    confinedScheduler.advanceBy(100);
+    transcript.assertEventsSoFar("two", "three");
+    assertThat(removed.wasRun).isFalse();
+  }
+
+  @Test
+  public void confinedScheduler_cannotBeAdvancedFromOtherThreads() throws Exception {
+    final Scheduler confinedScheduler = new Scheduler(true);
+    final List<Throwable> thrown = new ArrayList<>();
+
+    runOnOtherThread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          confinedScheduler.advanceBy(100);
+        } catch (IllegalStateException e) {
+          thrown.add(e);
+        }
+      }
+    });
+    assertThat(thrown).hasSize(1);
+  }
+
+  private static void runOnOtherThread(Runnable runnable) throws InterruptedException {
+    Thread thread = new Thread(runnable);
+    thread.start();
+    thread.join();
+  }
+
   private class AddToTranscript implements Runnable {
     private String event;
 
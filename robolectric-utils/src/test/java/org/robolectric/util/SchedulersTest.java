@@ -0,0 +1,116 @@
+package org.robolectric.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SchedulersTest {
+  private final Scheduler foreground = new Scheduler();
+  private final Scheduler background = new Scheduler();
+  private final Transcript transcript = new Transcript();
+
+  @Before
+  public void setUp() throws Exception {
+    foreground.pause();
+    background.pause();
+  }
+
+  @Test
+  public void runUntilIdle_runsTasksInTheOrderOfTheirTimesAcrossSchedulers() throws Exception {
+    foreground.postDelayed(new AddToTranscript("foreground 200"), 200);
+    background.postDelayed(new AddToTranscript("background 100"), 100);
+    foreground.post(new AddToTranscript("foreground 0"));
+    background.postDelayed(new AddToTranscript("background 300"), 300);
+
+    assertThat(Schedulers.runUntilIdle(Arrays.asList(foreground, background))).isEqualTo(4);
+    transcript.assertEventsSoFar("foreground 0", "background 100", "foreground 200", "background 300");
+  }
+
+  @Test
+  public void runUntilIdle_runsTasksPostedToOtherSchedulersByTasks() throws Exception {
+    foreground.postDelayed(new Runnable() {
+      @Override
+      public void run() {
+        transcript.add("foreground");
+        background.postDelayed(new AddToTranscript("background"), 50);
+      }
+    }, 100);
+
+    Schedulers.runUntilIdle(Arrays.asList(foreground, background));
+    transcript.assertEventsSoFar("foreground", "background");
+  }
+
+  @Test
+  public void runUntilIdle_delaysTasksPostedToOtherSchedulersFromTheSharedTime() throws Exception {
+    long startTime = foreground.getCurrentTime();
+    foreground.postDelayed(new AddToTranscript("foreground 500"), 500);
+    background.postDelayed(new Runnable() {
+      @Override
+      public void run() {
+        transcript.add("background 1000");
+        foreground.postDelayed(new AddToTranscript("foreground 1010"), 10);
+      }
+    }, 1000);
+    background.postDelayed(new AddToTranscript("background 1005"), 1005);
+
+    Schedulers.runUntilIdle(Arrays.asList(foreground, background));
+    transcript.assertEventsSoFar("foreground 500", "background 1000", "background 1005", "foreground 1010");
+    assertThat(foreground.getCurrentTime()).isEqualTo(startTime + 1010);
+    assertThat(background.getCurrentTime()).isEqualTo(startTime + 1010);
+  }
+
+  @Test
+  public void runUntilIdle_neverMovesAClockBackwards() throws Exception {
+    long startTime = foreground.getCurrentTime();
+    foreground.postDelayed(new Runnable() {
+      @Override
+      public void run() {
+        foreground.postDelayed(new AddToTranscript("foreground"), 10);
+      }
+    }, 100);
+    background.advanceTo(startTime + 1000);
+
+    Schedulers.runUntilIdle(Arrays.asList(foreground, background));
+    transcript.assertEventsSoFar("foreground");
+    assertThat(foreground.getCurrentTime()).isEqualTo(startTime + 1010);
+    assertThat(background.getCurrentTime()).isEqualTo(startTime + 1010);
+  }
+
+  @Test
+  public void runUntilIdle_leavesAllSchedulersAtTheTimeOfTheLastTask() throws Exception {
+    long startTime = foreground.getCurrentTime();
+    background.postDelayed(new AddToTranscript("background"), 500);
+
+    Schedulers.runUntilIdle(Arrays.asList(foreground, background));
+    assertThat(foreground.getCurrentTime()).isEqualTo(startTime + 500);
+    assertThat(background.getCurrentTime()).isEqualTo(startTime + 500);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void runUntilIdle_throwsWhenATaskKeepsRepostingItself() throws Exception {
+    foreground.post(new Runnable() {
+      @Override
+      public void run() {
+        foreground.postDelayed(this, 10);
+      }
+    });
+
+    Schedulers.runUntilIdle(Arrays.asList(foreground, background), 100);
+  }
+
+  private class AddToTranscript implements Runnable {
+    private final String event;
+
+    AddToTranscript(String event) {
+      this.event = event;
+    }
+
+    @Override
+    public void run() {
+      transcript.add(event);
+    }
+  }
+}
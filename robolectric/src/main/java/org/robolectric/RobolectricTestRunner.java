@@ -39,6 +39,9 @@ import java.lang.reflect.Method;
 import java.net.URL;
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Installs a {@link org.robolectric.internal.bytecode.InstrumentingClassLoader} and
@@ -56,7 +59,11 @@ public class RobolectricTestRunner extends BlockJUnit4ClassRunner {
     new SecureRandom(); // this starts up the Poller SunPKCS11-Darwin thread early, outside of any Robolectric classloader
   }
 
-  private final HashSet<Class<?>> loadedTestClasses = new HashSet<>();
+  // bootstrapped test classes whose @BeforeClass methods have run, and the environments they were loaded in
+  private final Map<Class<?>, SdkEnvironment> loadedTestClasses = new LinkedHashMap<>();
+  // environments acquired for this test class, which it keeps until its @AfterClass methods have run
+  private final Map<Pair<InstrumentationConfiguration, SdkConfig>, SdkEnvironment> leasedEnvironments = new HashMap<>();
+  private final Set<ResourceLoader> reloadedResourceLoaders = new HashSet<>();
 
   /**
    * Creates a runner to run {@code testClass}. Looks in your working directory for your AndroidManifest.xml file
@@ -135,23 +142,55 @@ public class RobolectricTestRunner extends BlockJUnit4ClassRunner {
       public void evaluate() throws Throwable {
         try {
           statement.evaluate();
-          for (Class<?> testClass : loadedTestClasses) {
-            invokeAfterClass(testClass);
+          for (Map.Entry<Class<?>, SdkEnvironment> entry : loadedTestClasses.entrySet()) {
+            invokeAfterClass(entry.getKey(), entry.getValue());
           }
         } finally {
-          afterClass();
-          loadedTestClasses.clear();
+          try {
+            afterClass();
+            loadedTestClasses.clear();
+          } finally {
+            releaseSdkEnvironments();
+          }
         }
       }
     };
   }
 
-  private static void invokeAfterClass(final Class<?> clazz) throws Throwable {
+  private static void invokeAfterClass(final Class<?> clazz, SdkEnvironment sdkEnvironment) throws Throwable {
     final TestClass testClass = new TestClass(clazz);
     final List<FrameworkMethod> afters = testClass.getAnnotatedMethods(AfterClass.class);
-    for (FrameworkMethod after : afters) {
-      after.invokeExplosively(null);
+    evaluate(sdkEnvironment, new Statement() {
+      @Override
+      public void evaluate() throws Throwable {
+        for (FrameworkMethod after : afters) {
+          after.invokeExplosively(null);
+        }
+      }
+    });
+  }
+
+  /**
+   * Get the environment for a configuration, acquiring it the first time a method of this test class needs it. The
+   * class keeps it until its {@code @AfterClass} methods have run, so all of its methods share the environment's
+   * static state, and no other class runs in it in between.
+   */
+  private SdkEnvironment leaseSdkEnvironment(InstrumentationConfiguration classLoaderConfig, SdkConfig sdkConfig) {
+    Pair<InstrumentationConfiguration, SdkConfig> key = new Pair<>(classLoaderConfig, sdkConfig);
+    SdkEnvironment sdkEnvironment = leasedEnvironments.get(key);
+    if (sdkEnvironment == null) {
+      InstrumentingClassLoaderFactory instrumentingClassLoaderFactory = new InstrumentingClassLoaderFactory(classLoaderConfig, getJarResolver());
+      sdkEnvironment = instrumentingClassLoaderFactory.acquireSdkEnvironment(sdkConfig);
+      leasedEnvironments.put(key, sdkEnvironment);
+    }
+    return sdkEnvironment;
+  }
+
+  private void releaseSdkEnvironments() {
+    for (SdkEnvironment sdkEnvironment : leasedEnvironments.values()) {
+      InstrumentingClassLoaderFactory.releaseSdkEnvironment(sdkEnvironment);
     }
+    leasedEnvironments.clear();
   }
 
   @Override
@@ -166,9 +205,8 @@ public class RobolectricTestRunner extends BlockJUnit4ClassRunner {
       eachNotifier.fireTestStarted();
       try {
         AndroidManifest appManifest = getAppManifest(config);
-        InstrumentingClassLoaderFactory instrumentingClassLoaderFactory = new InstrumentingClassLoaderFactory(createClassLoaderConfig(config), getJarResolver());
-        SdkEnvironment sdkEnvironment = instrumentingClassLoaderFactory.getSdkEnvironment(new SdkConfig(pickSdkVersion(config, appManifest)));
-        methodBlock(method, config, appManifest, sdkEnvironment).evaluate();
+        SdkEnvironment sdkEnvironment = leaseSdkEnvironment(createClassLoaderConfig(config), new SdkConfig(pickSdkVersion(config, appManifest)));
+        evaluate(sdkEnvironment, methodBlock(method, config, appManifest, sdkEnvironment));
       } catch (AssumptionViolatedException e) {
         eachNotifier.addFailedAssumption(e);
       } catch (Throwable e) {
@@ -179,6 +217,36 @@ public class RobolectricTestRunner extends BlockJUnit4ClassRunner {
     }
   }
 
+  /**
+   * Evaluate a statement in an environment, on its own thread if environments are handed to different test threads.
+   */
+  private static void evaluate(SdkEnvironment sdkEnvironment, Statement statement) throws Throwable {
+    if (InstrumentingClassLoaderFactory.isUsingParallelUniverses()) {
+      evaluateOnThread(sdkEnvironment.getExecutorService(), statement);
+    } else {
+      statement.evaluate();
+    }
+  }
+
+  private static void evaluateOnThread(ExecutorService executorService, final Statement statement) throws Throwable {
+    Future<Throwable> future = executorService.submit(new Callable<Throwable>() {
+      @Override
+      public Throwable call() {
+        try {
+          statement.evaluate();
+          return null;
+        } catch (Throwable t) {
+          return t;
+        }
+      }
+    });
+
+    Throwable throwable = future.get();
+    if (throwable != null) {
+      throw throwable;
+    }
+  }
+
   protected boolean shouldRunApiVersion(Config config) {
     return true;
   }
@@ -198,8 +266,6 @@ public class RobolectricTestRunner extends BlockJUnit4ClassRunner {
         // not available once we install the Robolectric class loader.
         configureShadows(sdkEnvironment, config);
 
-        Thread.currentThread().setContextClassLoader(sdkEnvironment.getRobolectricClassLoader());
-
         Class bootstrappedTestClass = sdkEnvironment.bootstrappedClass(getTestClass().getJavaClass());
         HelperTestRunner helperTestRunner = getHelperTestRunner(bootstrappedTestClass);
 
@@ -211,12 +277,13 @@ public class RobolectricTestRunner extends BlockJUnit4ClassRunner {
           throw new RuntimeException(e);
         }
 
-        parallelUniverseInterface = getHooksInterface(sdkEnvironment);
+        Thread.currentThread().setContextClassLoader(sdkEnvironment.getRobolectricClassLoader());
         try {
+          parallelUniverseInterface = getHooksInterface(sdkEnvironment);
           try {
             // Only invoke @BeforeClass once per class
-            if (!loadedTestClasses.contains(bootstrappedTestClass)) {
-              invokeBeforeClass(bootstrappedTestClass);
+            if (!loadedTestClasses.containsKey(bootstrappedTestClass)) {
+              invokeBeforeClass(bootstrappedTestClass, sdkEnvironment);
             }
             assureTestLifecycle(sdkEnvironment);
 
@@ -251,21 +318,21 @@ public class RobolectricTestRunner extends BlockJUnit4ClassRunner {
                 internalAfterTest(bootstrappedMethod);
               } finally {
                 parallelUniverseInterface.resetStaticState(config); // afterward too, so stuff doesn't hold on to classes?
-                // todo: is this really needed?
-                Thread.currentThread().setContextClassLoader(RobolectricTestRunner.class.getClassLoader());
               }
             }
           }
         } finally {
           parallelUniverseInterface = null;
+          // restore it even if setup failed, or the next test on this thread would find the wrong ShadowProviders
+          Thread.currentThread().setContextClassLoader(RobolectricTestRunner.class.getClassLoader());
         }
       }
     };
   }
 
-  private void invokeBeforeClass(final Class clazz) throws Throwable {
-    if (!loadedTestClasses.contains(clazz)) {
-      loadedTestClasses.add(clazz);
+  private void invokeBeforeClass(final Class clazz, SdkEnvironment sdkEnvironment) throws Throwable {
+    if (!loadedTestClasses.containsKey(clazz)) {
+      loadedTestClasses.put(clazz, sdkEnvironment);
 
       final TestClass testClass = new TestClass(clazz);
       final List<FrameworkMethod> befores = testClass.getAnnotatedMethods(BeforeClass.class);
@@ -394,11 +461,12 @@ public class RobolectricTestRunner extends BlockJUnit4ClassRunner {
   }
 
   private ClassHandler getClassHandler(SdkEnvironment sdkEnvironment, ShadowMap shadowMap) {
-    ClassHandler classHandler;
+    ShadowWrangler classHandler;
     synchronized (sdkEnvironment) {
       classHandler = sdkEnvironment.classHandlersByShadowMap.get(shadowMap);
       if (classHandler == null) {
         classHandler = new ShadowWrangler(shadowMap);
+        sdkEnvironment.classHandlersByShadowMap.put(shadowMap, classHandler);
       }
     }
     return classHandler;
@@ -446,21 +514,31 @@ public class RobolectricTestRunner extends BlockJUnit4ClassRunner {
 
   public final ResourceLoader getAppResourceLoader(SdkConfig sdkConfig, ResourceLoader systemResourceLoader, final AndroidManifest appManifest) {
     Pair<AndroidManifest, SdkConfig> androidManifestSdkConfigPair = new Pair<>(appManifest, sdkConfig);
-    ResourceLoader resourceLoader = resourceLoadersByManifestAndConfig.get(androidManifestSdkConfigPair);
-    if (resourceLoader == null) {
-      Map<String, ResourceLoader> resourceLoaders = new HashMap<>();
-      resourceLoaders.put("android", systemResourceLoader);
-
-      List<PackageResourceLoader> appAndLibraryResourceLoaders = new ArrayList<>();
-      for (ResourcePath resourcePath : appManifest.getIncludedResourcePaths()) {
-        appAndLibraryResourceLoaders.add(new PackageResourceLoader(resourcePath, new ResourceExtractor(resourcePath)));
+    synchronized (resourceLoadersByManifestAndConfig) {
+      ResourceLoader resourceLoader = resourceLoadersByManifestAndConfig.get(androidManifestSdkConfigPair);
+      if (resourceLoader == null) {
+        Map<String, ResourceLoader> resourceLoaders = new HashMap<>();
+        resourceLoaders.put("android", systemResourceLoader);
+
+        List<PackageResourceLoader> appAndLibraryResourceLoaders = new ArrayList<>();
+        for (ResourcePath resourcePath : appManifest.getIncludedResourcePaths()) {
+          appAndLibraryResourceLoaders.add(new PackageResourceLoader(resourcePath, new ResourceExtractor(resourcePath)));
+        }
+        resourceLoaders.put(appManifest.getPackageName(), new OverlayResourceLoader(appManifest.getPackageName(), appAndLibraryResourceLoaders));
+
+        resourceLoader = new RoutingResourceLoader(resourceLoaders);
+        resourceLoadersByManifestAndConfig.put(androidManifestSdkConfigPair, resourceLoader);
+      } else if (RoboSettings.isIncrementalResources() && reloadedResourceLoaders.add(resourceLoader)) {
+        // Pick up resources edited since the previous test class. The loader is shared, so reloading it isn't safe
+        // while test classes in other universes are using it.
+        if (InstrumentingClassLoaderFactory.isUsingParallelUniverses()) {
+          Logger.info("Not reloading changed resources for %s while running parallel universes", appManifest.getPackageName());
+        } else {
+          resourceLoader.reloadChangedFiles();
+        }
       }
-      resourceLoaders.put(appManifest.getPackageName(), new OverlayResourceLoader(appManifest.getPackageName(), appAndLibraryResourceLoaders));
-
-      resourceLoader = new RoutingResourceLoader(resourceLoaders);
-      resourceLoadersByManifestAndConfig.put(androidManifestSdkConfigPair, resourceLoader);
+      return resourceLoader;
     }
-    return resourceLoader;
   }
 
   protected ShadowMap createShadowMap() {
@@ -1,30 +1,28 @@
 package org.robolectric.internal;
 
+import org.robolectric.RoboSettings;
 import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+import org.robolectric.internal.bytecode.InstrumentedClassCache;
+import org.robolectric.internal.bytecode.InstrumentedJar;
 import org.robolectric.internal.bytecode.InstrumentingClassLoader;
 import org.robolectric.internal.dependency.DependencyJar;
 import org.robolectric.internal.dependency.DependencyResolver;
-import org.robolectric.util.Pair;
 
+import java.io.File;
 import java.net.URL;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
 
 public class InstrumentingClassLoaderFactory {
 
-  /** The factor for cache size. See {@link #CACHE_SIZE} for details. */
-  private static final int CACHE_SIZE_FACTOR = 3;
+  /** The factor for the default pool size. See {@link #DEFAULT_POOL_SIZE} for details. */
+  private static final int POOL_SIZE_FACTOR = 3;
 
-  /** We need to set the cache size of class loaders more than the number of supported APIs as different tests may have different configurations. */
-  private static final int CACHE_SIZE = SdkConfig.getSupportedApis().size() * CACHE_SIZE_FACTOR;
+  /** We need to pool more class loaders than the number of supported APIs as different tests may have different configurations. */
+  private static final int DEFAULT_POOL_SIZE = SdkConfig.getSupportedApis().size() * POOL_SIZE_FACTOR;
 
-  // Simple LRU Cache. SdkEnvironments are unique across InstrumentingClassloaderConfig and SdkConfig
-  private static final LinkedHashMap<Pair<InstrumentationConfiguration, SdkConfig>, SdkEnvironment> sdkToEnvironment = new LinkedHashMap<Pair<InstrumentationConfiguration, SdkConfig>, SdkEnvironment>() {
-    @Override
-    protected boolean removeEldestEntry(Map.Entry<Pair<InstrumentationConfiguration, SdkConfig>, SdkEnvironment> eldest) {
-      return size() > CACHE_SIZE;
-    }
-  };
+  // SdkEnvironments are unique across InstrumentationConfiguration, SdkConfig and universe.
+  private static final SdkEnvironmentPool<UniverseKey> sdkToEnvironment = new SdkEnvironmentPool<>(DEFAULT_POOL_SIZE);
 
   private final InstrumentationConfiguration instrumentationConfig;
   private final DependencyResolver dependencyResolver;
@@ -34,9 +32,69 @@ public class InstrumentingClassLoaderFactory {
     this.dependencyResolver = dependencyResolver;
   }
 
-  public synchronized SdkEnvironment getSdkEnvironment(SdkConfig sdkConfig) {
+  public SdkEnvironment getSdkEnvironment(SdkConfig sdkConfig) {
+    synchronized (sdkToEnvironment) {
+      return getOrCreateSdkEnvironment(sdkConfig, 0);
+    }
+  }
+
+  /**
+   * Get an environment for the exclusive use of the calling thread, until it is passed to
+   * {@link #releaseSdkEnvironment(SdkEnvironment)}.
+   *
+   * Unless {@link RoboSettings#getParallelUniverses()} is greater than one, every caller shares the same environment
+   * just like {@link #getSdkEnvironment(SdkConfig)}, but it isn't evicted from the pool until they have all released
+   * it. Otherwise up to that many isolated environments are created for
+   * each configuration, so test classes running concurrently on different threads don't see each other's static state.
+   * When they are all in use, this blocks until one is released. Tests should then be run on the environment's
+   * {@link SdkEnvironment#getExecutorService() own thread}.
+   *
+   * @param sdkConfig The SDK.
+   * @return The environment.
+   */
+  public SdkEnvironment acquireSdkEnvironment(SdkConfig sdkConfig) {
+    synchronized (sdkToEnvironment) {
+      int maxUniverses = getMaxUniverses();
+      if (maxUniverses == 1) {
+        SdkEnvironment sdkEnvironment = getOrCreateSdkEnvironment(sdkConfig, 0);
+        // shared, but still not to be evicted and shut down while anyone is using it
+        sdkToEnvironment.share(sdkEnvironment);
+        return sdkEnvironment;
+      }
+
+      while (true) {
+        for (int universe = 0; universe < maxUniverses; universe++) {
+          SdkEnvironment sdkEnvironment = getOrCreateSdkEnvironment(sdkConfig, universe);
+          if (sdkToEnvironment.acquire(sdkEnvironment)) {
+            return sdkEnvironment;
+          }
+        }
+
+        try {
+          sdkToEnvironment.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Hand back an environment obtained from {@link #acquireSdkEnvironment(SdkConfig)}.
+   *
+   * @param sdkEnvironment The environment.
+   */
+  public static void releaseSdkEnvironment(SdkEnvironment sdkEnvironment) {
+    synchronized (sdkToEnvironment) {
+      if (sdkToEnvironment.release(sdkEnvironment)) {
+        sdkToEnvironment.notifyAll();
+      }
+    }
+  }
 
-    Pair<InstrumentationConfiguration, SdkConfig> key = Pair.create(instrumentationConfig, sdkConfig);
+  private SdkEnvironment getOrCreateSdkEnvironment(SdkConfig sdkConfig, int universe) {
+    UniverseKey key = new UniverseKey(instrumentationConfig, sdkConfig, universe);
 
     SdkEnvironment sdkEnvironment = sdkToEnvironment.get(key);
     if (sdkEnvironment == null) {
@@ -44,10 +102,112 @@ public class InstrumentingClassLoaderFactory {
           sdkConfig.getAndroidSdkDependency(),
           sdkConfig.getCoreShadowsDependency());
 
-      ClassLoader robolectricClassLoader = new InstrumentingClassLoader(instrumentationConfig, urls);
-      sdkEnvironment = new SdkEnvironment(sdkConfig, robolectricClassLoader);
+      ClassLoader robolectricClassLoader = new InstrumentingClassLoader(instrumentationConfig, createClassCache(),
+          openInstrumentedJar(sdkConfig), urls);
+
+      sdkEnvironment = new SdkEnvironment(sdkConfig, robolectricClassLoader, true);
+
+      sdkToEnvironment.setMaxSize(getPoolSize());
+      sdkToEnvironment.setPinnedApiLevels(getPinnedApiLevels());
       sdkToEnvironment.put(key, sdkEnvironment);
     }
     return sdkEnvironment;
   }
+
+  /**
+   * @return True if {@link #acquireSdkEnvironment(SdkConfig)} hands out isolated environments.
+   */
+  public static boolean isUsingParallelUniverses() {
+    return getMaxUniverses() > 1;
+  }
+
+  private static int getPoolSize() {
+    int poolSize = RoboSettings.getSdkEnvironmentPoolSize();
+    return (poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE) * getMaxUniverses();
+  }
+
+  private static Set<Integer> getPinnedApiLevels() {
+    Set<Integer> apiLevels = new HashSet<>();
+    String pinned = RoboSettings.getPinnedSdkEnvironments();
+    if (pinned != null) {
+      for (String apiLevel : pinned.split(",")) {
+        if (!apiLevel.trim().isEmpty()) {
+          apiLevels.add(Integer.parseInt(apiLevel.trim()));
+        }
+      }
+    }
+    return apiLevels;
+  }
+
+  /**
+   * @return A description of the shared environment pool, including how often environments were evicted and then
+   * created again.
+   */
+  public static String getPoolStatistics() {
+    synchronized (sdkToEnvironment) {
+      return sdkToEnvironment.toString();
+    }
+  }
+
+  private static int getMaxUniverses() {
+    return Math.max(1, RoboSettings.getParallelUniverses());
+  }
+
+  private InstrumentedClassCache createClassCache() {
+    String classCacheDir = RoboSettings.getClassCacheDir();
+    if (classCacheDir == null) {
+      return null;
+    }
+    return new InstrumentedClassCache(new File(classCacheDir), RoboSettings.getClassCacheMaxSize(),
+        SdkConfig.getRobolectricVersion(), instrumentationConfig);
+  }
+
+  private InstrumentedJar openInstrumentedJar(SdkConfig sdkConfig) {
+    String instrumentedJarDir = RoboSettings.getInstrumentedJarDir();
+    if (instrumentedJarDir == null) {
+      return null;
+    }
+    File jarFile = new File(instrumentedJarDir, getInstrumentedJarName(sdkConfig));
+    return InstrumentedJar.open(jarFile, InstrumentedJar.fingerprint(instrumentationConfig, SdkConfig.getRobolectricVersion()));
+  }
+
+  /**
+   * Get the file name of the ahead-of-time instrumented copy of an SDK's android-all jar.
+   *
+   * @param sdkConfig The SDK.
+   * @return The file name.
+   */
+  public static String getInstrumentedJarName(SdkConfig sdkConfig) {
+    DependencyJar androidSdk = sdkConfig.getAndroidSdkDependency();
+    return androidSdk.getArtifactId() + "-" + androidSdk.getVersion() + "-instrumented.jar";
+  }
+
+  private static class UniverseKey {
+    private final InstrumentationConfiguration instrumentationConfig;
+    private final SdkConfig sdkConfig;
+    private final int universe;
+
+    UniverseKey(InstrumentationConfiguration instrumentationConfig, SdkConfig sdkConfig, int universe) {
+      this.instrumentationConfig = instrumentationConfig;
+      this.sdkConfig = sdkConfig;
+      this.universe = universe;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof UniverseKey)) return false;
+
+      UniverseKey that = (UniverseKey) o;
+      return universe == that.universe && instrumentationConfig.equals(that.instrumentationConfig) && sdkConfig.equals(that.sdkConfig);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = instrumentationConfig.hashCode();
+      result = 31 * result + sdkConfig.hashCode();
+      result = 31 * result + universe;
+      return result;
+    }
+  }
 }
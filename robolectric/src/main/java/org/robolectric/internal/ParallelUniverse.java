@@ -12,6 +12,7 @@ import android.os.Looper;
 
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.robolectric.Robolectric;
+import org.robolectric.RoboSettings;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.ShadowsAdapter;
@@ -59,7 +60,7 @@ public class ParallelUniverse implements ParallelUniverseInterface {
   @Override
   public void setUpApplicationState(Method method, TestLifecycle testLifecycle, ResourceLoader systemResourceLoader, AndroidManifest appManifest, Config config) {
     RuntimeEnvironment.application = null;
-    RuntimeEnvironment.setMasterScheduler(new Scheduler());
+    RuntimeEnvironment.setMasterScheduler(new Scheduler(RoboSettings.isConfinedScheduler()));
     RuntimeEnvironment.setMainThread(Thread.currentThread());
     ResourceLoader appResourceLoader = robolectricTestRunner.getAppResourceLoader(sdkConfig, systemResourceLoader, appManifest);
 
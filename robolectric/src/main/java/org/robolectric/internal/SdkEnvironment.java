@@ -1,6 +1,9 @@
 package org.robolectric.internal;
 
+import org.robolectric.RoboSettings;
+import org.robolectric.internal.bytecode.InstrumentingClassLoader;
 import org.robolectric.internal.bytecode.ShadowInvalidator;
+import org.robolectric.internal.dependency.DependencyJar;
 import org.robolectric.internal.dependency.DependencyResolver;
 import org.robolectric.internal.bytecode.ShadowMap;
 import org.robolectric.internal.bytecode.ShadowWrangler;
@@ -9,42 +12,153 @@ import org.robolectric.res.PackageResourceLoader;
 import org.robolectric.res.ResourceExtractor;
 import org.robolectric.res.ResourceLoader;
 import org.robolectric.res.ResourcePath;
+import org.robolectric.res.ResourceTableCache;
+import org.robolectric.util.Logger;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 public class SdkEnvironment {
+  // System resources don't depend on the instrumentation configuration or universe, so they are shared by every
+  // environment for an SDK that asks for it.
+  private static final Map<SdkConfig, ResourceLoader> sharedSystemResourceLoaders = new HashMap<>();
+
   private final SdkConfig sdkConfig;
   private final ClassLoader robolectricClassLoader;
   private final ShadowInvalidator shadowInvalidator;
   public final Map<ShadowMap, ShadowWrangler> classHandlersByShadowMap = new HashMap<>();
   private ShadowMap shadowMap = ShadowMap.EMPTY;
+  private final boolean shareSystemResources;
   private ResourceLoader systemResourceLoader;
+  private ExecutorService executorService;
 
   public SdkEnvironment(SdkConfig sdkConfig, ClassLoader robolectricClassLoader) {
+    this(sdkConfig, robolectricClassLoader, false);
+  }
+
+  /**
+   * @param sdkConfig The SDK.
+   * @param robolectricClassLoader The class loader of this environment.
+   * @param shareSystemResources Whether to share system resources with the other environments for the same SDK.
+   */
+  public SdkEnvironment(SdkConfig sdkConfig, ClassLoader robolectricClassLoader, boolean shareSystemResources) {
     this.sdkConfig = sdkConfig;
     this.robolectricClassLoader = robolectricClassLoader;
+    this.shareSystemResources = shareSystemResources;
     shadowInvalidator = new ShadowInvalidator();
   }
 
   public synchronized ResourceLoader getSystemResourceLoader(DependencyResolver dependencyResolver) {
     if (systemResourceLoader == null) {
-      ResourcePath resourcePath;
-      try {
-        Class<?> androidInternalRClass = getRobolectricClassLoader().loadClass("com.android.internal.R");
-        Class<?> androidRClass = getRobolectricClassLoader().loadClass("android.R");
-        Fs systemResFs = Fs.fromJar(dependencyResolver.getLocalArtifactUrl(sdkConfig.getAndroidSdkDependency()));
-        resourcePath = new ResourcePath(androidRClass, androidRClass.getPackage().getName(), systemResFs.join("res"), systemResFs.join("assets"), androidInternalRClass);
-      } catch (ClassNotFoundException e) {
-        throw new RuntimeException(e);
+      URL androidAllUrl = dependencyResolver.getLocalArtifactUrl(sdkConfig.getAndroidSdkDependency());
+      if (shareSystemResources) {
+        synchronized (sharedSystemResourceLoaders) {
+          systemResourceLoader = sharedSystemResourceLoaders.get(sdkConfig);
+          if (systemResourceLoader == null) {
+            // The R classes aren't loaded by this environment's class loader, which the shared loader would otherwise
+            // keep alive, along with everything it loaded, long after this environment has been evicted.
+            ClassLoader rClassLoader = new URLClassLoader(new URL[] { androidAllUrl }, null);
+            systemResourceLoader = createSystemResourceLoader(rClassLoader, androidAllUrl);
+            sharedSystemResourceLoaders.put(sdkConfig, systemResourceLoader);
+          }
+        }
+      } else {
+        systemResourceLoader = createSystemResourceLoader(getRobolectricClassLoader(), androidAllUrl);
       }
-
-      ResourceExtractor resourceExtractor = new ResourceExtractor(resourcePath);
-      systemResourceLoader = new PackageResourceLoader(resourcePath, resourceExtractor);
     }
     return systemResourceLoader;
   }
 
+  private ResourceLoader createSystemResourceLoader(ClassLoader classLoader, URL androidAllUrl) {
+    ResourcePath resourcePath;
+    try {
+      resourcePath = createSystemResourcePath(classLoader, androidAllUrl);
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException(e);
+    }
+
+    ResourceExtractor resourceExtractor = new ResourceExtractor(resourcePath);
+    return new PackageResourceLoader(resourcePath, resourceExtractor, createSystemResourceTable());
+  }
+
+  private ResourceTableCache createSystemResourceTable() {
+    String systemResourceTableDir = RoboSettings.getSystemResourceTableDir();
+    if (systemResourceTableDir == null) {
+      return null;
+    }
+    return new ResourceTableCache(new File(systemResourceTableDir, getSystemResourceTableName(sdkConfig)));
+  }
+
+  /**
+   * Describe the framework resources of an android-all jar.
+   *
+   * @param classLoader A class loader that can load the jar's R classes.
+   * @param androidAllUrl The jar.
+   * @return The resources.
+   * @throws ClassNotFoundException If the R classes can't be loaded.
+   */
+  public static ResourcePath createSystemResourcePath(ClassLoader classLoader, URL androidAllUrl) throws ClassNotFoundException {
+    Class<?> androidInternalRClass = classLoader.loadClass("com.android.internal.R");
+    Class<?> androidRClass = classLoader.loadClass("android.R");
+    Fs systemResFs = Fs.fromJar(androidAllUrl);
+    return new ResourcePath(androidRClass, androidRClass.getPackage().getName(), systemResFs.join("res"), systemResFs.join("assets"), androidInternalRClass);
+  }
+
+  /**
+   * Get the name of the prebuilt table of an SDK's framework resource values, which is loaded from
+   * {@code robolectric.systemresources.dir} instead of parsing the values from the android-all jar. The android-all
+   * jar of a version never changes, so the name only depends on it and the Robolectric version. A table written by a
+   * different build of the resource loaders is recognized by its header, and parsed and written again.
+   *
+   * @param sdkConfig The SDK.
+   * @return The file name.
+   */
+  public static String getSystemResourceTableName(SdkConfig sdkConfig) {
+    DependencyJar androidSdk = sdkConfig.getAndroidSdkDependency();
+    return androidSdk.getArtifactId() + "-" + androidSdk.getVersion() + "-robolectric-" + SdkConfig.getRobolectricVersion() + ".restable";
+  }
+
+  /**
+   * Get the thread dedicated to this environment. Android's main thread is bound to the first thread that uses an
+   * environment, so when environments are handed to different test threads, tests have to run on this one instead.
+   *
+   * @return A single-threaded executor.
+   */
+  public synchronized ExecutorService getExecutorService() {
+    if (executorService == null) {
+      executorService = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "Robolectric main thread for API " + sdkConfig.getApiLevel());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return executorService;
+  }
+
+  synchronized void shutdown() {
+    if (executorService != null) {
+      executorService.shutdown();
+    }
+    // only our own class loader: others, like the system class loader, may still be in use
+    if (robolectricClassLoader instanceof InstrumentingClassLoader) {
+      try {
+        ((InstrumentingClassLoader) robolectricClassLoader).close();
+      } catch (IOException e) {
+        Logger.error("Couldn't close class loader for API %d: %s", sdkConfig.getApiLevel(), e);
+      }
+    }
+  }
+
   public Class<?> bootstrappedClass(Class<?> testClass) {
     try {
       return robolectricClassLoader.loadClass(testClass.getName());
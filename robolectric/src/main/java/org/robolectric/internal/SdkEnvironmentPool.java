@@ -0,0 +1,184 @@
+package org.robolectric.internal;
+
+import org.robolectric.util.Logger;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded pool of {@link SdkEnvironment}s that evicts the least recently used environment when it grows too large.
+ *
+ * Environments that are in use or whose API level is pinned are never evicted. Every environment that has to be
+ * created again after being evicted counts as churn, which means the pool is too small for the configurations the
+ * tests use. Not thread-safe, callers synchronize on the pool.
+ *
+ * @param <K> The type of the keys identifying environments.
+ */
+public class SdkEnvironmentPool<K> {
+  /** How many keys of evicted environments are remembered to count churn; older ones are forgotten. */
+  private static final int MAX_EVICTED_KEYS = 64;
+
+  private final LinkedHashMap<K, SdkEnvironment> environments = new LinkedHashMap<>(16, 0.75f, true);
+  // the number of users of each environment in use
+  private final Map<SdkEnvironment, Integer> environmentsInUse = new HashMap<>();
+  private final Set<K> evictedKeys = Collections.newSetFromMap(new LinkedHashMap<K, Boolean>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, Boolean> eldest) {
+      return size() > MAX_EVICTED_KEYS;
+    }
+  });
+  private final Set<Integer> pinnedApiLevels = new HashSet<>();
+  private int maxSize;
+  private long creations;
+  private long evictions;
+  private long churn;
+
+  public SdkEnvironmentPool(int maxSize) {
+    setMaxSize(maxSize);
+  }
+
+  /**
+   * Look up an environment and mark it as the most recently used.
+   *
+   * @param key The key of the environment.
+   * @return The environment, or null if there is none.
+   */
+  public SdkEnvironment get(K key) {
+    return environments.get(key);
+  }
+
+  /**
+   * Add a newly created environment, evicting environments if the pool is full.
+   *
+   * @param key The key of the environment.
+   * @param sdkEnvironment The environment.
+   */
+  public void put(K key, SdkEnvironment sdkEnvironment) {
+    creations++;
+    if (evictedKeys.remove(key)) {
+      churn++;
+      Logger.info("Recreating evicted SdkEnvironment for API %d (%s); consider a larger pool or pinning the API level",
+          sdkEnvironment.getSdkConfig().getApiLevel(), this);
+    }
+    environments.put(key, sdkEnvironment);
+    evictIfNecessary(key);
+  }
+
+  /**
+   * @param newKey The key of an environment just added, which its caller hasn't had a chance to acquire yet, or null.
+   */
+  private void evictIfNecessary(K newKey) {
+    Iterator<Map.Entry<K, SdkEnvironment>> iterator = environments.entrySet().iterator();
+    while (environments.size() > maxSize && iterator.hasNext()) {
+      Map.Entry<K, SdkEnvironment> eldest = iterator.next();
+      SdkEnvironment sdkEnvironment = eldest.getValue();
+      if (!eldest.getKey().equals(newKey) && !environmentsInUse.containsKey(sdkEnvironment) && !isPinned(sdkEnvironment)) {
+        iterator.remove();
+        evictedKeys.add(eldest.getKey());
+        evictions++;
+        sdkEnvironment.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Mark an environment as in use by one user only, so it can't be evicted.
+   *
+   * @param sdkEnvironment The environment.
+   * @return False if it was already in use.
+   */
+  public boolean acquire(SdkEnvironment sdkEnvironment) {
+    if (environmentsInUse.containsKey(sdkEnvironment)) {
+      return false;
+    }
+    environmentsInUse.put(sdkEnvironment, 1);
+    return true;
+  }
+
+  /**
+   * Mark an environment as in use by one more user, so it can't be evicted until all of them release it.
+   *
+   * @param sdkEnvironment The environment.
+   */
+  public void share(SdkEnvironment sdkEnvironment) {
+    Integer users = environmentsInUse.get(sdkEnvironment);
+    environmentsInUse.put(sdkEnvironment, users == null ? 1 : users + 1);
+  }
+
+  /**
+   * Mark an environment as no longer in use by one of its users.
+   *
+   * @param sdkEnvironment The environment.
+   * @return False if it wasn't in use.
+   */
+  public boolean release(SdkEnvironment sdkEnvironment) {
+    Integer users = environmentsInUse.get(sdkEnvironment);
+    if (users == null) {
+      return false;
+    }
+    if (users == 1) {
+      environmentsInUse.remove(sdkEnvironment);
+    } else {
+      environmentsInUse.put(sdkEnvironment, users - 1);
+    }
+    return true;
+  }
+
+  /**
+   * Keep the environments of some API levels for the lifetime of the pool.
+   *
+   * @param apiLevels The API levels.
+   */
+  public void setPinnedApiLevels(Collection<Integer> apiLevels) {
+    pinnedApiLevels.clear();
+    pinnedApiLevels.addAll(apiLevels);
+  }
+
+  public boolean isPinned(SdkEnvironment sdkEnvironment) {
+    return pinnedApiLevels.contains(sdkEnvironment.getSdkConfig().getApiLevel());
+  }
+
+  public void setMaxSize(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    evictIfNecessary(null);
+  }
+
+  public int size() {
+    return environments.size();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getCreations() {
+    return creations;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * @return The number of environments created again after being evicted, among the last {@value #MAX_EVICTED_KEYS}
+   * evicted.
+   */
+  public long getChurn() {
+    return churn;
+  }
+
+  @Override
+  public String toString() {
+    return "SdkEnvironmentPool{size=" + size() + "/" + maxSize + ", pinned=" + pinnedApiLevels
+        + ", creations=" + creations + ", evictions=" + evictions + ", churn=" + churn + "}";
+  }
+}
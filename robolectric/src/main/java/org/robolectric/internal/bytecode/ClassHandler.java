@@ -12,6 +12,8 @@ public interface ClassHandler {
 
   MethodHandle getShadowCreator(Class<?> caller);
 
+  MethodHandle findStaticInitializer(Class<?> theClass) throws IllegalAccessException;
+
   MethodHandle findShadowMethod(Class<?> theClass, String name, MethodType type,
       boolean isStatic)
       throws IllegalAccessException;
@@ -4,6 +4,7 @@ import android.R;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.TestLifecycle;
 import org.robolectric.annotation.Config;
@@ -24,6 +25,7 @@ import org.robolectric.res.builder.XmlBlock;
 import org.robolectric.util.TempDirectory;
 import org.robolectric.util.Transcript;
 
+import java.nio.charset.Charset;
 import java.util.*;
 
 /**
@@ -116,6 +118,7 @@ public class InstrumentationConfiguration {
           ClassHandler.class,
           ClassHandler.Plan.class,
           ShadowInvalidator.class,
+          ShadowProfiler.class,
           RealObject.class,
           Implements.class,
           Implementation.class,
@@ -168,6 +171,7 @@ public class InstrumentationConfiguration {
   private final Set<String> classesToNotAcquire;
   private final Set<String> packagesToNotAcquire;
   private int cachedHashCode;
+  private volatile String cachedDigest;
 
   private InstrumentationConfiguration(Map<String, String> classNameTranslations, Collection<MethodRef> interceptedMethods, Collection<String> instrumentedPackages, Collection<String> instrumentedClasses, Collection<String> classesToNotAcquire, Collection<String> packagesToNotAquire, Collection<String> classesToNotInstrument) {
     this.classNameTranslations = ImmutableMap.copyOf(classNameTranslations);
@@ -283,7 +287,8 @@ public class InstrumentationConfiguration {
     if (!instrumentedPackages.equals(that.instrumentedPackages)) return false;
     if (!instrumentedClasses.equals(that.instrumentedClasses)) return false;
     if (!interceptedMethods.equals(that.interceptedMethods)) return false;
-
+    if (!classesToNotInstrument.equals(that.classesToNotInstrument)) return false;
+    if (!packagesToNotAcquire.equals(that.packagesToNotAcquire)) return false;
 
     return true;
   }
@@ -299,7 +304,51 @@ public class InstrumentationConfiguration {
     result = 31 * result + classNameTranslations.hashCode();
     result = 31 * result + interceptedMethods.hashCode();
     result = 31 * result + classesToNotAcquire.hashCode();
+    result = 31 * result + classesToNotInstrument.hashCode();
+    result = 31 * result + packagesToNotAcquire.hashCode();
     cachedHashCode = result;
     return result;
   }
+
+  /**
+   * Get a digest of every rule in this configuration. Unlike {@link #hashCode()}, it doesn't collide in practice and
+   * doesn't depend on the order the rules were added in, so it can tell whether instrumented classes written by
+   * another JVM were built with the same configuration.
+   *
+   * @return The SHA-1 digest in hex.
+   */
+  public String digest() {
+    String digest = cachedDigest;
+    if (digest == null) {
+      List<String> methods = new ArrayList<>();
+      for (MethodRef methodRef : interceptedMethods) {
+        methods.add(methodRef.className + "#" + methodRef.methodName);
+      }
+      List<String> translations = new ArrayList<>();
+      for (Map.Entry<String, String> entry : classNameTranslations.entrySet()) {
+        translations.add(entry.getKey() + "=" + entry.getValue());
+      }
+
+      StringBuilder canonical = new StringBuilder();
+      appendSorted(canonical, "instrumentedPackages", instrumentedPackages);
+      appendSorted(canonical, "instrumentedClasses", instrumentedClasses);
+      appendSorted(canonical, "classesToNotInstrument", classesToNotInstrument);
+      appendSorted(canonical, "classNameTranslations", translations);
+      appendSorted(canonical, "interceptedMethods", methods);
+      appendSorted(canonical, "classesToNotAcquire", classesToNotAcquire);
+      appendSorted(canonical, "packagesToNotAcquire", packagesToNotAcquire);
+      digest = Hashing.sha1().hashString(canonical, Charset.forName("UTF-8")).toString();
+      cachedDigest = digest;
+    }
+    return digest;
+  }
+
+  private static void appendSorted(StringBuilder canonical, String name, Collection<String> values) {
+    List<String> sorted = new ArrayList<>(values);
+    Collections.sort(sorted);
+    canonical.append(name).append(':').append(sorted.size()).append('\n');
+    for (String value : sorted) {
+      canonical.append(value).append('\n');
+    }
+  }
 }
@@ -0,0 +1,190 @@
+package org.robolectric.internal.bytecode;
+
+import org.robolectric.util.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * On-disk cache of class bytes produced by {@link InstrumentingClassLoader}, shared by every JVM pointing at the same
+ * directory.
+ *
+ * Entries are content-addressed: the key is a digest of the original class bytes, the
+ * {@link InstrumentationConfiguration}, the Robolectric version and the dispatch mode, so a stale entry is never
+ * served. Entries are written to a temporary file and atomically renamed into place, so concurrent forks never see a
+ * partially written class. Once the directory grows past its size limit, the least recently used entries are evicted.
+ */
+public class InstrumentedClassCache {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String SUFFIX = ".class";
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final File dir;
+  private final long maxSize;
+  private final byte[] salt;
+  private final AtomicLong bytesWrittenSinceTrim = new AtomicLong();
+
+  public InstrumentedClassCache(File dir, long maxSize, String robolectricVersion, InstrumentationConfiguration config) {
+    this.dir = dir;
+    this.maxSize = maxSize;
+    this.salt = (robolectricVersion + ":" + config.digest() + ":" + InvokeDynamic.ENABLED).getBytes(UTF_8);
+    trim();
+  }
+
+  /**
+   * Compute the cache key for a class.
+   *
+   * @param className The fully-qualified class name.
+   * @param origClassBytes The uninstrumented bytecode of the class.
+   * @return The key under which the instrumented bytecode is stored.
+   */
+  public String keyFor(String className, byte[] origClassBytes) {
+    MessageDigest digest = newDigest();
+    digest.update(salt);
+    digest.update(className.getBytes(UTF_8));
+    digest.update(origClassBytes);
+    return toHex(digest.digest());
+  }
+
+  /**
+   * Load previously stored class bytes.
+   *
+   * @param key The key returned by {@link #keyFor(String, byte[])}.
+   * @return The stored bytes, or null if there is no usable entry.
+   */
+  public byte[] load(String key) {
+    File file = fileFor(key);
+    try {
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      //noinspection ResultOfMethodCallIgnored
+      file.setLastModified(System.currentTimeMillis());
+      return bytes;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Store class bytes. Failures are logged and otherwise ignored, since the cache is only an optimization.
+   *
+   * @param key The key returned by {@link #keyFor(String, byte[])}.
+   * @param bytes The instrumented bytecode.
+   */
+  public void store(String key, byte[] bytes) {
+    File file = fileFor(key);
+    File shardDir = file.getParentFile();
+    File tmpFile = null;
+    try {
+      if (!shardDir.isDirectory() && !shardDir.mkdirs() && !shardDir.isDirectory()) {
+        throw new IOException("couldn't create " + shardDir);
+      }
+
+      tmpFile = File.createTempFile(key, ".tmp", shardDir);
+      Files.write(tmpFile.toPath(), bytes);
+      try {
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      tmpFile = null;
+    } catch (IOException e) {
+      // another fork may have won the race for this entry, which is fine: it has the same contents.
+      Logger.debug("couldn't write %s to class cache: %s", key, e);
+    } finally {
+      if (tmpFile != null) {
+        //noinspection ResultOfMethodCallIgnored
+        tmpFile.delete();
+      }
+    }
+
+    if (bytesWrittenSinceTrim.addAndGet(bytes.length) > maxSize / 10) {
+      bytesWrittenSinceTrim.set(0);
+      trim();
+    }
+  }
+
+  /**
+   * Evict least recently used entries until the cache is back under 90% of its size limit.
+   */
+  void trim() {
+    List<Entry> entries = new ArrayList<>();
+    long totalSize = 0;
+    File[] shardDirs = dir.listFiles();
+    if (shardDirs == null) return;
+
+    for (File shardDir : shardDirs) {
+      File[] shardFiles = shardDir.listFiles();
+      if (shardFiles == null) continue;
+
+      for (File file : shardFiles) {
+        if (file.getName().endsWith(SUFFIX)) {
+          Entry entry = new Entry(file);
+          entries.add(entry);
+          totalSize += entry.length;
+        }
+      }
+    }
+
+    if (totalSize <= maxSize) return;
+
+    Collections.sort(entries);
+    long targetSize = maxSize - maxSize / 10;
+    int evicted = 0;
+    for (Entry entry : entries) {
+      if (totalSize <= targetSize) break;
+      if (entry.file.delete()) {
+        totalSize -= entry.length;
+        evicted++;
+      }
+    }
+    Logger.debug("evicted %d entries from class cache %s", evicted, dir);
+  }
+
+  File fileFor(String key) {
+    return new File(new File(dir, key.substring(0, 2)), key + SUFFIX);
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    char[] chars = new char[bytes.length * 2];
+    for (int i = 0; i < bytes.length; i++) {
+      chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+      chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+    }
+    return new String(chars);
+  }
+
+  private static class Entry implements Comparable<Entry> {
+    private final File file;
+    private final long length;
+    private final long lastModified;
+
+    Entry(File file) {
+      this.file = file;
+      this.length = file.length();
+      this.lastModified = file.lastModified();
+    }
+
+    @Override
+    public int compareTo(Entry other) {
+      return Long.compare(lastModified, other.lastModified);
+    }
+  }
+}
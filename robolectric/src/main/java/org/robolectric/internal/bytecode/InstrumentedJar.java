@@ -0,0 +1,120 @@
+package org.robolectric.internal.bytecode;
+
+import org.robolectric.util.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static org.robolectric.util.Util.readBytes;
+
+/**
+ * A jar of classes that were instrumented ahead of time, so {@link InstrumentingClassLoader} can define them without
+ * doing any bytecode work.
+ *
+ * The jar records the fingerprint of the {@link InstrumentationConfiguration} and Robolectric version it was built
+ * with, and is only used when that matches the running configuration. It stays open until {@link #close()} is called,
+ * after which it no longer provides any classes.
+ */
+public class InstrumentedJar implements Closeable {
+  public static final String MARKER_ENTRY = "META-INF/robolectric-instrumented.properties";
+  public static final String FINGERPRINT_PROPERTY = "fingerprint";
+
+  private final JarFile jarFile;
+
+  private InstrumentedJar(JarFile jarFile) {
+    this.jarFile = jarFile;
+  }
+
+  /**
+   * Open an instrumented jar if it exists and was built for the given configuration.
+   *
+   * @param file The jar file.
+   * @param fingerprint The fingerprint of the running configuration, see {@link #fingerprint(InstrumentationConfiguration, String)}.
+   * @return The jar, or null if it is missing, unreadable or was built for a different configuration.
+   */
+  public static InstrumentedJar open(File file, String fingerprint) {
+    if (!file.isFile()) {
+      return null;
+    }
+
+    JarFile jarFile = null;
+    try {
+      jarFile = new JarFile(file);
+      JarEntry marker = jarFile.getJarEntry(MARKER_ENTRY);
+      if (marker != null) {
+        Properties properties = new Properties();
+        try (InputStream in = jarFile.getInputStream(marker)) {
+          properties.load(in);
+        }
+        if (fingerprint.equals(properties.getProperty(FINGERPRINT_PROPERTY))) {
+          Logger.info("Using instrumented classes from %s", file);
+          return new InstrumentedJar(jarFile);
+        }
+      }
+      Logger.info("Ignoring %s, it was instrumented with a different configuration", file);
+    } catch (IOException e) {
+      Logger.error("Couldn't read %s: %s", file, e);
+    }
+
+    if (jarFile != null) {
+      try {
+        jarFile.close();
+      } catch (IOException ignored) {
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Identifies everything that affects the output of {@link InstrumentingClassLoader} besides the original class bytes.
+   *
+   * @param config The instrumentation configuration.
+   * @param robolectricVersion The Robolectric version.
+   * @return The fingerprint.
+   */
+  public static String fingerprint(InstrumentationConfiguration config, String robolectricVersion) {
+    return robolectricVersion + ":" + config.digest() + ":" + InvokeDynamic.ENABLED;
+  }
+
+  /**
+   * Get the name of the jar entry holding a class.
+   *
+   * @param className The fully-qualified class name.
+   * @return The entry name.
+   */
+  public static String entryName(String className) {
+    return className.replace('.', '/') + ".class";
+  }
+
+  /**
+   * Load the instrumented bytes of a class.
+   *
+   * @param className The fully-qualified class name.
+   * @return The instrumented bytes, or null if the class isn't in this jar or it has been closed.
+   */
+  public byte[] getClassBytes(String className) {
+    try {
+      JarEntry entry = jarFile.getJarEntry(entryName(className));
+      if (entry == null) {
+        return null;
+      }
+
+      try (InputStream in = jarFile.getInputStream(entry)) {
+        return readBytes(in);
+      }
+    } catch (IOException | IllegalStateException e) {
+      // JarFile throws IllegalStateException once it's closed
+      return null;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    jarFile.close();
+  }
+}
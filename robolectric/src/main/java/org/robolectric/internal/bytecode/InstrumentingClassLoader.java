@@ -28,6 +28,7 @@ import org.robolectric.internal.ShadowConstants;
 import org.robolectric.internal.ShadowedObject;
 import org.robolectric.util.Logger;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.invoke.CallSite;
@@ -44,6 +45,8 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.lang.invoke.MethodType.methodType;
 import static org.objectweb.asm.Type.ARRAY;
@@ -54,7 +57,7 @@ import static org.robolectric.util.Util.readBytes;
 /**
  * Class loader that modifies the bytecode of Android classes to insert calls to Robolectric's shadow classes.
  */
-public class InstrumentingClassLoader extends ClassLoader implements Opcodes {
+public class InstrumentingClassLoader extends ClassLoader implements Opcodes, Closeable {
   private static final Type OBJECT_TYPE = Type.getType(Object.class);
   private static final Type ROBOLECTRIC_INTERNALS_TYPE = Type.getType(RobolectricInternals.class);
   private static final Type PLAN_TYPE = Type.getType(ClassHandler.Plan.class);
@@ -71,9 +74,12 @@ public class InstrumentingClassLoader extends ClassLoader implements Opcodes {
   private static final Handle BOOTSTRAP_INIT;
   private static final Handle BOOTSTRAP;
   private static final Handle BOOTSTRAP_STATIC;
+  private static final Handle BOOTSTRAP_STATIC_INITIALIZER;
   private static final Handle BOOTSTRAP_INTRINSIC;
 
   static {
+    registerAsParallelCapable();
+
     String className = Type.getInternalName(InvokeDynamicSupport.class);
 
     MethodType bootstrap =
@@ -86,18 +92,31 @@ public class InstrumentingClassLoader extends ClassLoader implements Opcodes {
     BOOTSTRAP_INIT = new Handle(H_INVOKESTATIC, className, "bootstrapInit", bootstrap.toMethodDescriptorString());
     BOOTSTRAP = new Handle(H_INVOKESTATIC, className, "bootstrap", bootstrapMethod);
     BOOTSTRAP_STATIC = new Handle(H_INVOKESTATIC, className, "bootstrapStatic", bootstrapMethod);
+    BOOTSTRAP_STATIC_INITIALIZER = new Handle(H_INVOKESTATIC, className, "bootstrapStaticInitializer", bootstrapMethod);
     BOOTSTRAP_INTRINSIC = new Handle(H_INVOKESTATIC, className, "bootstrapIntrinsic", bootstrapIntrinsic);
   }
 
   private final URLClassLoader urls;
   private final InstrumentationConfiguration config;
-  private final Map<String, Class> classes = new HashMap<>();
+  private final ConcurrentMap<String, Class> classes = new ConcurrentHashMap<>();
   private final Map<String, String> classesToRemap;
   private final Set<MethodRef> methodsToIntercept;
+  private final InstrumentedClassCache classCache;
+  private final InstrumentedJar instrumentedJar;
 
   public InstrumentingClassLoader(InstrumentationConfiguration config, URL... urls) {
+    this(config, null, urls);
+  }
+
+  public InstrumentingClassLoader(InstrumentationConfiguration config, InstrumentedClassCache classCache, URL... urls) {
+    this(config, classCache, null, urls);
+  }
+
+  public InstrumentingClassLoader(InstrumentationConfiguration config, InstrumentedClassCache classCache, InstrumentedJar instrumentedJar, URL... urls) {
     super(InstrumentingClassLoader.class.getClassLoader());
     this.config = config;
+    this.classCache = classCache;
+    this.instrumentedJar = instrumentedJar;
     this.urls = new URLClassLoader(urls, null);
     classesToRemap = convertToSlashes(config.classNameTranslations());
     methodsToIntercept = convertToSlashes(config.methodsToIntercept());
@@ -107,31 +126,45 @@ public class InstrumentingClassLoader extends ClassLoader implements Opcodes {
   }
 
   @Override
-  synchronized public Class loadClass(String name) throws ClassNotFoundException {
+  public Class loadClass(String name) throws ClassNotFoundException {
     Class<?> theClass = classes.get(name);
-    if (theClass != null) {
-      if (theClass == MissingClassMarker.class) {
-        throw new ClassNotFoundException(name);
-      } else {
-        return theClass;
-      }
-    }
+    if (theClass == null) {
+      // only threads loading the same class wait for each other
+      synchronized (getClassLoadingLock(name)) {
+        theClass = classes.get(name);
+        if (theClass == null) {
+          try {
+            if (config.shouldAcquire(name)) {
+              theClass = findClass(name);
+            } else {
+              theClass = getParent().loadClass(name);
+            }
+          } catch (ClassNotFoundException e) {
+            classes.put(name, MissingClassMarker.class);
+            throw e;
+          }
 
-    try {
-      if (config.shouldAcquire(name)) {
-        theClass = findClass(name);
-      } else {
-        theClass = getParent().loadClass(name);
+          classes.put(name, theClass);
+        }
       }
-    } catch (ClassNotFoundException e) {
-      classes.put(name, MissingClassMarker.class);
-      throw e;
     }
 
-    classes.put(name, theClass);
+    if (theClass == MissingClassMarker.class) {
+      throw new ClassNotFoundException(name);
+    }
     return theClass;
   }
 
+  /**
+   * Close the ahead-of-time instrumented jar, if any. Classes that aren't loaded yet are instrumented as usual.
+   */
+  @Override
+  public void close() throws IOException {
+    if (instrumentedJar != null) {
+      instrumentedJar.close();
+    }
+  }
+
   @Override
   public InputStream getResourceAsStream(String resName) {
     InputStream fromUrlsClassLoader = urls.getResourceAsStream(resName);
@@ -144,34 +177,30 @@ public class InstrumentingClassLoader extends ClassLoader implements Opcodes {
   @Override
   protected Class<?> findClass(final String className) throws ClassNotFoundException {
     if (config.shouldAcquire(className)) {
-      final byte[] origClassBytes = getByteCode(className);
-
-      ClassNode classNode = new ClassNode(Opcodes.ASM4) {
-        @Override
-        public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
-          desc = remapParamType(desc);
-          return super.visitField(access, name, desc, signature, value);
+      if (instrumentedJar != null) {
+        byte[] bytes = instrumentedJar.getClassBytes(className);
+        if (bytes != null) {
+          ensurePackage(className);
+          return defineClass(className, bytes, 0, bytes.length);
         }
+      }
 
-        @Override
-        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
-          MethodVisitor methodVisitor = super.visitMethod(access, name, remapParams(desc), signature, exceptions);
-          return new JSRInlinerAdapter(methodVisitor, access, name, desc, signature, exceptions);
-        }
-      };
-
-      final ClassReader classReader = new ClassReader(origClassBytes);
-      classReader.accept(classNode, 0);
+      final byte[] origClassBytes = getByteCode(className);
 
-      classNode.interfaces.add(Type.getInternalName(ShadowedObject.class));
+      // Only classes from the SDK jars are cached, since their superclasses can't change underneath them.
+      String cacheKey = null;
+      byte[] bytes = null;
+      if (classCache != null && urls.findResource(className.replace('.', '/') + ".class") != null) {
+        cacheKey = classCache.keyFor(className, origClassBytes);
+        bytes = classCache.load(cacheKey);
+      }
 
       try {
-        byte[] bytes;
-        ClassInfo classInfo = new ClassInfo(className, classNode);
-        if (config.shouldInstrument(classInfo)) {
-          bytes = getInstrumentedBytes(classNode, config.containsStubs(classInfo));
-        } else {
-          bytes = origClassBytes;
+        if (bytes == null) {
+          bytes = getTransformedBytes(className, origClassBytes);
+          if (cacheKey != null) {
+            classCache.store(cacheKey, bytes);
+          }
         }
         ensurePackage(className);
         return defineClass(className, bytes, 0, bytes.length);
@@ -186,6 +215,45 @@ public class InstrumentingClassLoader extends ClassLoader implements Opcodes {
     }
   }
 
+  /**
+   * Get the bytes this class loader would define for a class, without defining it.
+   *
+   * @param className The fully-qualified class name.
+   * @return The instrumented bytes, or the original bytes if the class isn't instrumented.
+   * @throws ClassNotFoundException If the class can't be found or transformed.
+   */
+  public byte[] transformClass(String className) throws ClassNotFoundException {
+    return getTransformedBytes(className, getByteCode(className));
+  }
+
+  private byte[] getTransformedBytes(String className, byte[] origClassBytes) throws ClassNotFoundException {
+    ClassNode classNode = new ClassNode(Opcodes.ASM4) {
+      @Override
+      public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+        desc = remapParamType(desc);
+        return super.visitField(access, name, desc, signature, value);
+      }
+
+      @Override
+      public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+        MethodVisitor methodVisitor = super.visitMethod(access, name, remapParams(desc), signature, exceptions);
+        return new JSRInlinerAdapter(methodVisitor, access, name, desc, signature, exceptions);
+      }
+    };
+
+    final ClassReader classReader = new ClassReader(origClassBytes);
+    classReader.accept(classNode, 0);
+
+    classNode.interfaces.add(Type.getInternalName(ShadowedObject.class));
+
+    ClassInfo classInfo = new ClassInfo(className, classNode);
+    if (config.shouldInstrument(classInfo)) {
+      return getInstrumentedBytes(classNode, config.containsStubs(classInfo));
+    } else {
+      return origClassBytes;
+    }
+  }
+
   protected byte[] getByteCode(String className) throws ClassNotFoundException {
     String classFilename = className.replace('.', '/') + ".class";
     try (InputStream classBytesStream = getResourceAsStream(classFilename)) {
@@ -203,7 +271,11 @@ public class InstrumentingClassLoader extends ClassLoader implements Opcodes {
       String pckgName = className.substring(0, lastDotIndex);
       Package pckg = getPackage(pckgName);
       if (pckg == null) {
-        definePackage(pckgName, null, null, null, null, null, null, null);
+        try {
+          definePackage(pckgName, null, null, null, null, null, null, null);
+        } catch (IllegalArgumentException e) {
+          // another thread defined it first
+        }
       }
     }
   }
@@ -490,6 +562,7 @@ public class InstrumentingClassLoader extends ClassLoader implements Opcodes {
           classReader.accept(classNode, 0);
         } catch (ClassNotFoundException e) {
           e.printStackTrace();
+          return false;
         }
 
       }
@@ -874,8 +947,13 @@ public class InstrumentingClassLoader extends ClassLoader implements Opcodes {
     private MethodNode generateStaticInitializerNotifierMethod() {
       MethodNode methodNode = new MethodNode(ACC_STATIC, "<clinit>", "()V", "()V", null);
       RobolectricGeneratorAdapter generator = new RobolectricGeneratorAdapter(methodNode);
-      generator.push(classType);
-      generator.invokeStatic(Type.getType(RobolectricInternals.class), new Method("classInitializing", "(Ljava/lang/Class;)V"));
+      if (InvokeDynamic.ENABLED) {
+        Handle original = new Handle(H_INVOKESTATIC, internalClassName, ShadowConstants.STATIC_INITIALIZER_METHOD_NAME, "()V");
+        generator.invokeDynamic(ShadowConstants.STATIC_INITIALIZER_METHOD_NAME, "()V", BOOTSTRAP_STATIC_INITIALIZER, original);
+      } else {
+        generator.push(classType);
+        generator.invokeStatic(Type.getType(RobolectricInternals.class), new Method("classInitializing", "(Ljava/lang/Class;)V"));
+      }
       generator.returnValue();
       generator.endMethod();
       return methodNode;
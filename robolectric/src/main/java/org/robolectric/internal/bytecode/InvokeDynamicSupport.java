@@ -29,9 +29,9 @@ public class InvokeDynamicSupport {
       MethodHandles.Lookup lookup = MethodHandles.lookup();
 
       BIND_CALL_SITE = lookup.findStatic(InvokeDynamicSupport.class, "bindCallSite",
-          methodType(MethodHandle.class, MethodCallSite.class));
+          methodType(MethodHandle.class, CallSiteRef.class));
       BIND_INIT_CALL_SITE = lookup.findStatic(InvokeDynamicSupport.class, "bindInitCallSite",
-          methodType(MethodHandle.class, RoboCallSite.class));
+          methodType(MethodHandle.class, CallSiteRef.class));
       MethodHandle cleanStackTrace = lookup.findStatic(RobolectricInternals.class, "cleanStackTrace",
           methodType(Throwable.class, Throwable.class));
       EXCEPTION_HANDLER = filterArguments(throwException(void.class, Throwable.class), 0, cleanStackTrace);
@@ -43,31 +43,31 @@ public class InvokeDynamicSupport {
 
   @SuppressWarnings("UnusedDeclaration")
   public static CallSite bootstrapInit(MethodHandles.Lookup caller, String name, MethodType type) {
-    RoboCallSite site = new RoboCallSite(type, caller.lookupClass());
+    Class<?> callerClass = caller.lookupClass();
+    CallSiteRef<RoboCallSite> ref = new CallSiteRef<>();
+    MethodHandle target = findInitTarget(callerClass, type, ref);
 
-    bindInitCallSite(site);
-
-    return site;
+    return ref.site = new RoboCallSite(target, callerClass);
   }
 
   @SuppressWarnings("UnusedDeclaration")
   public static CallSite bootstrap(MethodHandles.Lookup caller, String name, MethodType type,
       MethodHandle original) throws IllegalAccessException {
-    MethodCallSite site = new MethodCallSite(type, caller.lookupClass(), name, original, REGULAR);
-
-    bindCallSite(site);
-
-    return site;
+    return linkMethodCallSite(caller.lookupClass(), name, type, original, REGULAR);
   }
 
   @SuppressWarnings("UnusedDeclaration")
   public static CallSite bootstrapStatic(MethodHandles.Lookup caller, String name, MethodType type,
       MethodHandle original) throws IllegalAccessException {
-    MethodCallSite site = new MethodCallSite(type, caller.lookupClass(), name, original, STATIC);
-
-    bindCallSite(site);
+    return linkMethodCallSite(caller.lookupClass(), name, type, original, STATIC);
+  }
 
-    return site;
+  @SuppressWarnings("UnusedDeclaration")
+  public static CallSite bootstrapStaticInitializer(MethodHandles.Lookup caller, String name,
+      MethodType type, MethodHandle original) throws IllegalAccessException {
+    // a class is only initialized once, so there's no need to rebind when shadows change
+    MethodHandle mh = RobolectricInternals.findStaticInitializer(caller.lookupClass());
+    return new ConstantCallSite(mh == null ? original : mh.asType(type));
   }
 
   @SuppressWarnings("UnusedDeclaration")
@@ -82,46 +82,70 @@ public class InvokeDynamicSupport {
     return new ConstantCallSite(mh.asType(type));
   }
 
-  private static MethodHandle bindInitCallSite(RoboCallSite site) {
-    MethodHandle mh = RobolectricInternals.getShadowCreator(site.getCaller());
-    return bindWithFallback(mh, site, BIND_INIT_CALL_SITE);
+  private static CallSite linkMethodCallSite(Class<?> caller, String name, MethodType type,
+      MethodHandle original, MethodCallSite.Kind kind) throws IllegalAccessException {
+    CallSiteRef<MethodCallSite> ref = new CallSiteRef<>();
+    MethodHandle target = findTarget(caller, name, type, original, kind == STATIC, ref);
+
+    return ref.site = new MethodCallSite(target, caller, name, original, kind);
   }
 
-  private static MethodHandle bindCallSite(MethodCallSite site) throws IllegalAccessException {
-    MethodHandle mh =
-        RobolectricInternals.findShadowMethod(site.getCaller(), site.getName(), site.type(),
-            site.isStatic());
+  private static MethodHandle bindInitCallSite(CallSiteRef<RoboCallSite> ref) {
+    RoboCallSite site = ref.site;
+    MethodHandle mh = findInitTarget(site.getCaller(), site.type(), ref);
+    site.setTarget(mh);
+    return mh;
+  }
+
+  private static MethodHandle bindCallSite(CallSiteRef<MethodCallSite> ref) throws IllegalAccessException {
+    MethodCallSite site = ref.site;
+    MethodHandle mh = findTarget(site.getCaller(), site.getName(), site.type(), site.getOriginal(),
+        site.isStatic(), ref);
+    site.setTarget(mh);
+    return mh;
+  }
+
+  private static MethodHandle findInitTarget(Class<?> caller, MethodType type, CallSiteRef<RoboCallSite> ref) {
+    MethodHandle mh = RobolectricInternals.getShadowCreator(caller);
+    return withFallback(mh, caller, type, BIND_INIT_CALL_SITE.bindTo(ref));
+  }
+
+  private static MethodHandle findTarget(Class<?> caller, String name, MethodType type,
+      MethodHandle original, boolean isStatic, CallSiteRef<MethodCallSite> ref) throws IllegalAccessException {
+    MethodHandle mh = RobolectricInternals.findShadowMethod(caller, name, type, isStatic);
 
     if (mh == null) {
       // Call original code and make sure to clean stack traces
-      mh = cleanStackTraces(site.getOriginal());
+      mh = cleanStackTraces(original);
     } else if (mh == ShadowWrangler.DO_NOTHING) {
-      mh = dropArguments(mh, 0, site.type().parameterList());
-    } else if (!site.isStatic()) {
-      Class<?> shadowType = mh.type().parameterType(0);
-      mh = filterArguments(mh, 0, GET_SHADOW.asType(methodType(shadowType, site.thisType())));
+      mh = dropArguments(mh, 0, type.parameterList());
+    } else {
+      if (!isStatic) {
+        Class<?> shadowType = mh.type().parameterType(0);
+        mh = filterArguments(mh, 0, GET_SHADOW.asType(methodType(shadowType, type.parameterType(0))));
+      }
+
+      ShadowProfiler profiler = ShadowProfiler.getInstance();
+      if (profiler != null) {
+        mh = profiler.profile(mh, ShadowProfiler.describe(caller, name, type, isStatic));
+      }
     }
 
     try {
-      return bindWithFallback(mh, site, BIND_CALL_SITE);
+      return withFallback(mh, caller, type, BIND_CALL_SITE.bindTo(ref));
     } catch (Throwable t) {
       // The error that bubbles up is currently not very helpful so we print any error messages
       // here
       t.printStackTrace();
-      System.err.println(site.getCaller());
+      System.err.println(caller);
       throw t;
     }
   }
 
-  private static MethodHandle bindWithFallback(MethodHandle mh, RoboCallSite site, MethodHandle fallback) {
-    SwitchPoint switchPoint = getInvalidator(site.getCaller());
-    MethodType type = site.type();
-
-    MethodHandle boundFallback = foldArguments(exactInvoker(type), fallback.bindTo(site));
-    mh = switchPoint.guardWithTest(mh.asType(type), boundFallback);
-
-    site.setTarget(mh);
-    return mh;
+  private static MethodHandle withFallback(MethodHandle mh, Class<?> caller, MethodType type, MethodHandle fallback) {
+    SwitchPoint switchPoint = getInvalidator(caller);
+    MethodHandle boundFallback = foldArguments(exactInvoker(type), fallback);
+    return switchPoint.guardWithTest(mh.asType(type), boundFallback);
   }
 
   private static SwitchPoint getInvalidator(Class<?> cl) {
@@ -132,4 +156,13 @@ public class InvokeDynamicSupport {
     MethodType type = EXCEPTION_HANDLER.type().changeReturnType(mh.type().returnType());
     return catchException(mh, Throwable.class, EXCEPTION_HANDLER.asType(type));
   }
+
+  /**
+   * Lets the fallback of a call site's initial target refer to the call site, which can't be created until its
+   * initial target is known. Creating call sites with their target avoids relinking them through
+   * {@link java.lang.invoke.MutableCallSite#setTarget(MethodHandle)}, which is expensive.
+   */
+  private static class CallSiteRef<T extends RoboCallSite> {
+    T site;
+  }
 }
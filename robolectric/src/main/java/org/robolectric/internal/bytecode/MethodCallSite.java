@@ -11,9 +11,9 @@ public class MethodCallSite extends RoboCallSite {
   private final MethodHandle original;
   private final Kind kind;
 
-  public MethodCallSite(MethodType type, Class<?> caller, String name, MethodHandle original,
+  public MethodCallSite(MethodHandle target, Class<?> caller, String name, MethodHandle original,
       Kind kind) {
-    super(type, caller);
+    super(target, caller);
     this.name = name;
     this.original = original;
     this.kind = kind;
@@ -0,0 +1,79 @@
+package org.robolectric.internal.bytecode;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Bounded cache of {@link ClassHandler.Plan}s by method signature.
+ *
+ * Lookups don't block. Once the cache grows past its maximum size, the least recently used entries are evicted to
+ * make room; evicted plans are simply recalculated the next time they're needed.
+ */
+public abstract class PlanCache {
+  // Guava caches don't allow null values, and null means "call real code"
+  private static final ClassHandler.Plan CALL_REAL_CODE = new ClassHandler.Plan() {
+    @Override
+    public Object run(Object instance, Object roboData, Object[] params) throws Exception {
+      throw new UnsupportedOperationException();
+    }
+  };
+
+  private final Cache<String, ClassHandler.Plan> plans;
+  private final int maxSize;
+
+  public PlanCache(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.plans = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+  }
+
+  /**
+   * Look up the plan for a method.
+   *
+   * @param signature The internal signature of the method.
+   * @param isStatic Whether the method is static.
+   * @param theClass The class declaring the method.
+   * @return The plan, which may be {@code null} if the real code should be called.
+   */
+  public ClassHandler.Plan get(String signature, boolean isStatic, Class<?> theClass) {
+    ClassHandler.Plan plan = plans.getIfPresent(signature);
+    if (plan != null) {
+      return plan == CALL_REAL_CODE ? null : plan;
+    }
+
+    // Not Cache.get(key, loader): calculating a plan may load classes that end up asking for plans themselves.
+    plan = calculate(signature, isStatic, theClass);
+    plans.put(signature, plan == null ? CALL_REAL_CODE : plan);
+    return plan;
+  }
+
+  public int size() {
+    return (int) plans.size();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getHits() {
+    return plans.stats().hitCount();
+  }
+
+  public long getMisses() {
+    return plans.stats().missCount();
+  }
+
+  public long getEvictions() {
+    return plans.stats().evictionCount();
+  }
+
+  @Override
+  public String toString() {
+    return "PlanCache{size=" + size() + "/" + maxSize + ", hits=" + getHits() + ", misses=" + getMisses()
+        + ", evictions=" + getEvictions() + "}";
+  }
+
+  protected abstract ClassHandler.Plan calculate(String signature, boolean isStatic, Class<?> theClass);
+}
@@ -1,13 +1,13 @@
 package org.robolectric.internal.bytecode;
 
-import java.lang.invoke.MethodType;
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MutableCallSite;
 
 public class RoboCallSite extends MutableCallSite {
   private final Class<?> caller;
 
-  public RoboCallSite(MethodType type, Class<?> caller) {
-    super(type);
+  public RoboCallSite(MethodHandle target, Class<?> caller) {
+    super(target);
     this.caller = caller;
   }
 
@@ -32,6 +32,10 @@ public class RobolectricInternals {
     return classHandler.getShadowCreator(caller);
   }
 
+  public static MethodHandle findStaticInitializer(Class<?> theClass) throws IllegalAccessException {
+    return classHandler.findStaticInitializer(theClass);
+  }
+
   public static MethodHandle findShadowMethod(Class<?> theClass, String name,
       MethodType type, boolean isStatic) throws IllegalAccessException {
     return classHandler.findShadowMethod(theClass, name, type, isStatic);
@@ -2,6 +2,7 @@ package org.robolectric.internal.bytecode;
 
 import java.util.Set;
 import org.robolectric.annotation.Implements;
+import org.robolectric.internal.ShadowConfigProvider;
 import org.robolectric.internal.ShadowProvider;
 
 import java.util.Collection;
@@ -13,11 +14,23 @@ import java.util.ServiceLoader;
 public class ShadowMap {
   public static final ShadowMap EMPTY = new ShadowMap(Collections.<String, ShadowConfig>emptyMap());
   private final Map<String, ShadowConfig> map;
+  private static final Map<String, ShadowConfig> SHADOW_CONFIGS = new HashMap<>();
   private static final Map<String, String> SHADOWS = new HashMap<>();
 
   static {
     for (ShadowProvider provider : ServiceLoader.load(ShadowProvider.class)) {
-      SHADOWS.putAll(provider.getShadowMap());
+      if (!(provider instanceof ShadowConfigProvider)) {
+        // hand-written or generated by an older annotation processor, its shadows are resolved when first looked up
+        SHADOWS.putAll(provider.getShadowMap());
+        continue;
+      }
+
+      Map<String, ShadowConfigProvider.Config> configs = ((ShadowConfigProvider) provider).getShadowConfigs();
+      for (Map.Entry<String, ShadowConfigProvider.Config> entry : configs.entrySet()) {
+        ShadowConfigProvider.Config config = entry.getValue();
+        SHADOW_CONFIGS.put(entry.getKey(), new ShadowConfig(config.shadowClassName, config.callThroughByDefault,
+            config.inheritImplementationMethods, config.looseSignatures));
+      }
     }
   }
 
@@ -29,6 +42,11 @@ public class ShadowMap {
     ShadowConfig shadowConfig = map.get(clazz.getName());
 
     if (shadowConfig == null && clazz.getClassLoader() != null) {
+      shadowConfig = SHADOW_CONFIGS.get(clazz.getName());
+      if (shadowConfig != null || SHADOWS.isEmpty()) {
+        return shadowConfig;
+      }
+
       Class<?> shadowClass = getShadowClass(clazz);
       if (shadowClass == null) {
         return null;
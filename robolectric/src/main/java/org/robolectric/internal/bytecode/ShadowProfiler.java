@@ -0,0 +1,317 @@
+package org.robolectric.internal.bytecode;
+
+import org.robolectric.RoboSettings;
+import org.robolectric.util.Logger;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Counts calls, cumulative time and allocated bytes of every shadow method dispatched by {@link ShadowWrangler} or
+ * {@link InvokeDynamicSupport}, to find the shadows that make slow tests slow.
+ *
+ * Profiling is enabled by pointing the {@code robolectric.shadowprofile.dir} system property at a directory; a report
+ * sorted by cumulative time is written there as {@code shadow-profile.txt} and {@code shadow-profile.json} when the
+ * JVM exits. Times include any shadow methods called by the profiled method, and allocated bytes are only reported
+ * on JVMs that support per-thread allocation counters.
+ */
+public class ShadowProfiler {
+  public static final String TEXT_REPORT_NAME = "shadow-profile.txt";
+  public static final String JSON_REPORT_NAME = "shadow-profile.json";
+
+  private static final MethodHandle INVOKE;
+  private static ShadowProfiler instance;
+
+  static {
+    try {
+      INVOKE = MethodHandles.lookup().findStatic(ShadowProfiler.class, "invoke",
+          methodType(Object.class, MethodStats.class, MethodHandle.class, Object[].class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private final ConcurrentMap<String, MethodStats> stats = new ConcurrentHashMap<>();
+  private final AllocationCounter allocationCounter;
+
+  public ShadowProfiler() {
+    this.allocationCounter = AllocationCounter.create();
+  }
+
+  /**
+   * Get the profiler for this JVM.
+   *
+   * @return The profiler, or null if profiling isn't enabled.
+   */
+  public static ShadowProfiler getInstance() {
+    final String dir = RoboSettings.getShadowProfileDir();
+    if (dir == null) {
+      return null;
+    }
+
+    synchronized (ShadowProfiler.class) {
+      if (instance == null) {
+        final ShadowProfiler profiler = new ShadowProfiler();
+        Runtime.getRuntime().addShutdownHook(new Thread("Robolectric shadow profile writer") {
+          @Override
+          public void run() {
+            profiler.writeReports(new File(dir));
+          }
+        });
+        instance = profiler;
+      }
+      return instance;
+    }
+  }
+
+  /**
+   * Wrap a plan so its invocations are recorded.
+   *
+   * @param plan The plan that calls a shadow method.
+   * @param method The shadowed method, see {@link #describe(Class, String, String[])}.
+   * @return The wrapped plan.
+   */
+  public ClassHandler.Plan profile(final ClassHandler.Plan plan, String method) {
+    final MethodStats methodStats = getStats(method);
+    return new ClassHandler.Plan() {
+      @Override
+      public Object run(Object instance, Object roboData, Object[] params) throws Throwable {
+        long startAllocated = allocationCounter.getAllocatedBytes();
+        long start = System.nanoTime();
+        try {
+          return plan.run(instance, roboData, params);
+        } finally {
+          methodStats.record(System.nanoTime() - start, allocationCounter.getAllocatedBytes() - startAllocated);
+        }
+      }
+    };
+  }
+
+  /**
+   * Wrap a method handle so its invocations are recorded.
+   *
+   * @param mh The method handle that calls a shadow method.
+   * @param method The shadowed method, see {@link #describe(Class, String, String[])}.
+   * @return A method handle of the same type.
+   */
+  public MethodHandle profile(MethodHandle mh, String method) {
+    MethodType type = mh.type();
+    int parameterCount = type.parameterCount();
+    MethodHandle spread = mh.asSpreader(Object[].class, parameterCount)
+        .asType(methodType(Object.class, Object[].class));
+    MethodHandle invoker = MethodHandles.insertArguments(INVOKE, 0, getStats(method), spread);
+    return invoker.asCollector(Object[].class, parameterCount).asType(type);
+  }
+
+  @SuppressWarnings("UnusedDeclaration")
+  private static Object invoke(MethodStats methodStats, MethodHandle target, Object[] args) throws Throwable {
+    AllocationCounter allocationCounter = methodStats.allocationCounter;
+    long startAllocated = allocationCounter.getAllocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return (Object) target.invokeExact(args);
+    } finally {
+      methodStats.record(System.nanoTime() - start, allocationCounter.getAllocatedBytes() - startAllocated);
+    }
+  }
+
+  private MethodStats getStats(String method) {
+    MethodStats methodStats = stats.get(method);
+    if (methodStats == null) {
+      MethodStats newStats = new MethodStats(method, allocationCounter);
+      methodStats = stats.putIfAbsent(method, newStats);
+      if (methodStats == null) {
+        methodStats = newStats;
+      }
+    }
+    return methodStats;
+  }
+
+  /**
+   * Get the recorded statistics.
+   *
+   * @return One entry per profiled method, with the most expensive first.
+   */
+  public List<MethodStats> getStats() {
+    List<MethodStats> result = new ArrayList<>();
+    for (MethodStats methodStats : stats.values()) {
+      if (methodStats.getCalls() > 0) {
+        result.add(methodStats);
+      }
+    }
+    Collections.sort(result, new Comparator<MethodStats>() {
+      @Override
+      public int compare(MethodStats a, MethodStats b) {
+        int byTime = Long.compare(b.getTotalNanos(), a.getTotalNanos());
+        return byTime != 0 ? byTime : a.getMethod().compareTo(b.getMethod());
+      }
+    });
+    return result;
+  }
+
+  void writeReports(File dir) {
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      Logger.error("couldn't create shadow profile directory %s", dir);
+      return;
+    }
+
+    List<MethodStats> methodStats = getStats();
+    try (Writer text = new FileWriter(new File(dir, TEXT_REPORT_NAME));
+         Writer json = new FileWriter(new File(dir, JSON_REPORT_NAME))) {
+      writeTextReport(methodStats, text);
+      writeJsonReport(methodStats, json);
+    } catch (IOException e) {
+      Logger.error("couldn't write shadow profile to %s: %s", dir, e);
+    }
+  }
+
+  static void writeTextReport(List<MethodStats> methodStats, Writer out) throws IOException {
+    out.write(String.format("%12s %12s %12s %14s  %s%n", "calls", "total ms", "avg us", "allocated KB", "method"));
+    for (MethodStats s : methodStats) {
+      String allocated = s.getAllocatedBytes() < 0 ? "-" : String.valueOf(s.getAllocatedBytes() / 1024);
+      out.write(String.format("%12d %12.1f %12.2f %14s  %s%n", s.getCalls(), s.getTotalNanos() / 1e6,
+          s.getTotalNanos() / 1e3 / s.getCalls(), allocated, s.getMethod()));
+    }
+  }
+
+  static void writeJsonReport(List<MethodStats> methodStats, Writer out) throws IOException {
+    out.write("[");
+    for (int i = 0; i < methodStats.size(); i++) {
+      MethodStats s = methodStats.get(i);
+      out.write(i == 0 ? "\n" : ",\n");
+      out.write("  {\"method\": \"" + escapeJson(s.getMethod()) + "\", \"calls\": " + s.getCalls()
+          + ", \"totalNanos\": " + s.getTotalNanos() + ", \"allocatedBytes\": " + s.getAllocatedBytes() + "}");
+    }
+    out.write("\n]\n");
+  }
+
+  private static String escapeJson(String s) {
+    StringBuilder buf = new StringBuilder(s.length());
+    for (char c : s.toCharArray()) {
+      if (c == '"' || c == '\\') {
+        buf.append('\\').append(c);
+      } else if (c < 0x20) {
+        buf.append(String.format("\\u%04x", (int) c));
+      } else {
+        buf.append(c);
+      }
+    }
+    return buf.toString();
+  }
+
+  /**
+   * Describe a shadowed method in the form used by reports, e.g. {@code android.view.View.setAlpha(float)}.
+   *
+   * @param shadowedClass The class declaring the shadowed method.
+   * @param methodName The name of the method.
+   * @param paramTypes The names of the parameter types.
+   * @return The description.
+   */
+  public static String describe(Class<?> shadowedClass, String methodName, String[] paramTypes) {
+    StringBuilder buf = new StringBuilder();
+    buf.append(shadowedClass.getName()).append('.').append(methodName).append('(');
+    for (int i = 0; i < paramTypes.length; i++) {
+      if (i > 0) buf.append(", ");
+      buf.append(paramTypes[i]);
+    }
+    return buf.append(')').toString();
+  }
+
+  public static String describe(Class<?> shadowedClass, String methodName, MethodType type, boolean isStatic) {
+    MethodType actualType = isStatic ? type : type.dropParameterTypes(0, 1);
+    String[] paramTypes = new String[actualType.parameterCount()];
+    for (int i = 0; i < paramTypes.length; i++) {
+      paramTypes[i] = typeName(actualType.parameterType(i));
+    }
+    return describe(shadowedClass, methodName, paramTypes);
+  }
+
+  private static String typeName(Class<?> type) {
+    return type.isArray() ? typeName(type.getComponentType()) + "[]" : type.getName();
+  }
+
+  public static class MethodStats {
+    private final String method;
+    private final AllocationCounter allocationCounter;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    MethodStats(String method, AllocationCounter allocationCounter) {
+      this.method = method;
+      this.allocationCounter = allocationCounter;
+    }
+
+    void record(long nanos, long allocated) {
+      calls.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      allocatedBytes.addAndGet(allocated);
+    }
+
+    public String getMethod() {
+      return method;
+    }
+
+    public long getCalls() {
+      return calls.get();
+    }
+
+    public long getTotalNanos() {
+      return totalNanos.get();
+    }
+
+    /**
+     * @return The number of bytes allocated by the method, or -1 if the JVM can't measure it.
+     */
+    public long getAllocatedBytes() {
+      return allocationCounter.isSupported() ? allocatedBytes.get() : -1;
+    }
+  }
+
+  static class AllocationCounter {
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    private AllocationCounter(com.sun.management.ThreadMXBean threadMXBean) {
+      this.threadMXBean = threadMXBean;
+    }
+
+    static AllocationCounter create() {
+      try {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+          com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+          if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return new AllocationCounter(sunThreadMXBean);
+          }
+        }
+      } catch (LinkageError e) {
+        // not a HotSpot JVM
+      }
+      return new AllocationCounter(null);
+    }
+
+    boolean isSupported() {
+      return threadMXBean != null;
+    }
+
+    long getAllocatedBytes() {
+      return threadMXBean == null ? 0 : threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+  }
+}
@@ -4,6 +4,7 @@ import android.content.Context;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import org.robolectric.RoboSettings;
 import org.robolectric.annotation.Implements;
 import org.robolectric.annotation.RealObject;
 import org.robolectric.util.ReflectionHelpers;
@@ -44,13 +45,12 @@ public class ShadowWrangler implements ClassHandler {
   private static final MethodHandle NO_SHADOW_HANDLE = constant(Object.class, NO_SHADOW);
   private final ShadowMap shadowMap;
   private final Map<Class, MetaShadow> metaShadowMap = new HashMap<>();
-  private final Map<String, Plan> planCache =
-      Collections.synchronizedMap(new LinkedHashMap<String, Plan>() {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<String, Plan> eldest) {
-          return size() > 500;
-        }
-      });
+  private final PlanCache planCache = new PlanCache(RoboSettings.getPlanCacheSize()) {
+    @Override
+    protected Plan calculate(String signature, boolean isStatic, Class<?> theClass) {
+      return calculatePlan(signature, isStatic, theClass);
+    }
+  };
   private final Map<Class, ShadowConfig> shadowConfigCache = new ConcurrentHashMap<>();
   private final ClassValue<ShadowConfig> shadowConfigs = new ClassValue<ShadowConfig>() {
     @Override protected ShadowConfig computeValue(Class<?> type) {
@@ -101,17 +101,10 @@ public class ShadowWrangler implements ClassHandler {
 
   @Override
   public void classInitializing(Class clazz) {
-    Class<?> shadowClass = findDirectShadowClass(clazz);
-    if (shadowClass != null) {
+    Method method = findShadowStaticInitializer(clazz);
+    if (method != null) {
       try {
-        Method method = shadowClass.getMethod(ShadowConstants.STATIC_INITIALIZER_METHOD_NAME);
-        if (!Modifier.isStatic(method.getModifiers())) {
-          throw new RuntimeException(shadowClass.getName() + "." + method.getName() + " is not static");
-        }
-        method.setAccessible(true);
         method.invoke(null);
-      } catch (NoSuchMethodException e) {
-        RobolectricInternals.performStaticInitialization(clazz);
       } catch (InvocationTargetException | IllegalAccessException e) {
         throw new RuntimeException(e);
       }
@@ -120,6 +113,31 @@ public class ShadowWrangler implements ClassHandler {
     }
   }
 
+  @Override
+  public MethodHandle findStaticInitializer(Class<?> theClass) throws IllegalAccessException {
+    Method method = findShadowStaticInitializer(theClass);
+    return method == null ? CALL_REAL_CODE : LOOKUP.unreflect(method);
+  }
+
+  private Method findShadowStaticInitializer(Class<?> clazz) {
+    Class<?> shadowClass = findDirectShadowClass(clazz);
+    if (shadowClass == null) {
+      return null;
+    }
+
+    Method method;
+    try {
+      method = shadowClass.getMethod(ShadowConstants.STATIC_INITIALIZER_METHOD_NAME);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+    if (!Modifier.isStatic(method.getModifiers())) {
+      throw new RuntimeException(shadowClass.getName() + "." + method.getName() + " is not static");
+    }
+    method.setAccessible(true);
+    return method;
+  }
+
   @Override
   public Object initializing(Object instance) {
     return createShadowFor(instance);
@@ -127,12 +145,11 @@ public class ShadowWrangler implements ClassHandler {
 
   @Override
   public Plan methodInvoked(String signature, boolean isStatic, Class<?> theClass) {
-    if (planCache.containsKey(signature)) {
-      return planCache.get(signature);
-    }
-    Plan plan = calculatePlan(signature, isStatic, theClass);
-    planCache.put(signature, plan);
-    return plan;
+    return planCache.get(signature, isStatic, theClass);
+  }
+
+  public PlanCache getPlanCache() {
+    return planCache;
   }
 
   @Override public MethodHandle findShadowMethod(Class<?> caller, String name, MethodType type,
@@ -195,7 +212,12 @@ public class ShadowWrangler implements ClassHandler {
         if (shadowClassMismatch && (!shadowConfig.inheritImplementationMethods || strict(invocationProfile))) {
           return CALL_REAL_CODE_PLAN;
         } else {
-          return new ShadowMethodPlan(shadowMethod);
+          Plan plan = new ShadowMethodPlan(shadowMethod);
+          ShadowProfiler profiler = ShadowProfiler.getInstance();
+          if (profiler != null) {
+            plan = profiler.profile(plan, ShadowProfiler.describe(invocationProfile.clazz, invocationProfile.methodName, invocationProfile.paramTypes));
+          }
+          return plan;
         }
       } catch (ClassNotFoundException e) {
         throw new RuntimeException(e);
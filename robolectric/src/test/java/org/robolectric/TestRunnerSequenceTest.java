@@ -2,6 +2,8 @@ package org.robolectric;
 
 import android.app.Application;
 
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.Result;
 import org.junit.runner.notification.Failure;
@@ -16,7 +18,11 @@ import org.robolectric.res.FsFile;
 import org.robolectric.util.Transcript;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.junit.Assert.assertTrue;
 import static org.robolectric.util.TestUtil.resourceFile;
@@ -24,6 +30,7 @@ import static org.robolectric.util.TestUtil.resourceFile;
 public class TestRunnerSequenceTest {
   public static class StateHolder {
     public static Transcript transcript;
+    public static List<String> placesRunIn;
   }
 
   @Test public void shouldRunThingsInTheRightOrder() throws Exception {
@@ -79,6 +86,51 @@ public class TestRunnerSequenceTest {
     assertTrue(robolectricTestRunner.allStateIsCleared());
   }
 
+  @Test public void withParallelUniverses_shouldRunTheWholeClassInOneEnvironmentOnItsThread() throws Exception {
+    int originalParallelUniverses = RoboSettings.getParallelUniverses();
+    RoboSettings.setParallelUniverses(2);
+    StateHolder.placesRunIn = new ArrayList<>();
+    try {
+      assertNoFailures(run(new Runner(ClassLifecycleTest.class) {
+        @Override public InstrumentationConfiguration createClassLoaderConfig(Config config) {
+          // a configuration no other test uses, since an environment stays bound to the first thread that used it
+          return InstrumentationConfiguration.newBuilder()
+              .doNotAcquireClass(StateHolder.class.getName())
+              .addInstrumentedPackage(ClassLifecycleTest.class.getName() + ".")
+              .build();
+        }
+      }));
+    } finally {
+      RoboSettings.setParallelUniverses(originalParallelUniverses);
+    }
+
+    assertThat(StateHolder.placesRunIn).hasSize(4);
+    assertThat(new HashSet<>(StateHolder.placesRunIn)).hasSize(1);
+    assertThat(StateHolder.placesRunIn.get(0)).startsWith("Robolectric main thread");
+  }
+
+  public static class ClassLifecycleTest {
+    @BeforeClass public static void beforeClass() {
+      recordPlace();
+    }
+
+    @Test public void first() {
+      recordPlace();
+    }
+
+    @Test public void second() {
+      recordPlace();
+    }
+
+    @AfterClass public static void afterClass() {
+      recordPlace();
+    }
+
+    private static void recordPlace() {
+      StateHolder.placesRunIn.add(Thread.currentThread().getName() + " in " + ClassLifecycleTest.class.getClassLoader());
+    }
+  }
+
   public static class SimpleTest {
     @Test public void shouldDoNothingMuch() throws Exception {
       StateHolder.transcript.add("TEST!");
@@ -0,0 +1,104 @@
+package org.robolectric.internal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.robolectric.RoboSettings;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+import org.robolectric.internal.dependency.DependencyJar;
+import org.robolectric.internal.dependency.DependencyResolver;
+
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InstrumentingClassLoaderFactoryTest {
+  private int originalParallelUniverses;
+  private InstrumentingClassLoaderFactory factory;
+  private SdkConfig sdkConfig;
+
+  @Before
+  public void setUp() throws Exception {
+    originalParallelUniverses = RoboSettings.getParallelUniverses();
+    // a configuration no other test uses, so environments cached by earlier tests don't get in the way
+    InstrumentationConfiguration config = InstrumentationConfiguration.newBuilder()
+        .addInstrumentedPackage(getClass().getName() + ".")
+        .build();
+    factory = new InstrumentingClassLoaderFactory(config, new FakeDependencyResolver());
+    sdkConfig = new SdkConfig(23);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    RoboSettings.setParallelUniverses(originalParallelUniverses);
+  }
+
+  @Test
+  public void acquireSdkEnvironment_shouldShareEnvironmentByDefault() throws Exception {
+    SdkEnvironment first = factory.acquireSdkEnvironment(sdkConfig);
+    SdkEnvironment second = factory.acquireSdkEnvironment(sdkConfig);
+
+    InstrumentingClassLoaderFactory.releaseSdkEnvironment(first);
+    InstrumentingClassLoaderFactory.releaseSdkEnvironment(second);
+
+    assertThat(second).isSameAs(first);
+    assertThat(factory.getSdkEnvironment(sdkConfig)).isSameAs(first);
+  }
+
+  @Test
+  public void acquireSdkEnvironment_withParallelUniverses_shouldReturnIsolatedEnvironments() throws Exception {
+    RoboSettings.setParallelUniverses(2);
+
+    SdkEnvironment first = factory.acquireSdkEnvironment(sdkConfig);
+    SdkEnvironment second = factory.acquireSdkEnvironment(sdkConfig);
+    try {
+      assertThat(second).isNotSameAs(first);
+      assertThat(second.getRobolectricClassLoader()).isNotSameAs(first.getRobolectricClassLoader());
+    } finally {
+      InstrumentingClassLoaderFactory.releaseSdkEnvironment(first);
+      InstrumentingClassLoaderFactory.releaseSdkEnvironment(second);
+    }
+
+    SdkEnvironment third = factory.acquireSdkEnvironment(sdkConfig);
+    InstrumentingClassLoaderFactory.releaseSdkEnvironment(third);
+    assertThat(third).isSameAs(first);
+  }
+
+  @Test
+  public void acquireSdkEnvironment_withParallelUniverses_shouldWaitForReleaseWhenAllAreInUse() throws Exception {
+    RoboSettings.setParallelUniverses(2);
+    SdkEnvironment first = factory.acquireSdkEnvironment(sdkConfig);
+    SdkEnvironment second = factory.acquireSdkEnvironment(sdkConfig);
+
+    final AtomicReference<SdkEnvironment> acquired = new AtomicReference<>();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        acquired.set(factory.acquireSdkEnvironment(sdkConfig));
+      }
+    };
+    thread.start();
+    thread.join(200);
+    assertThat(acquired.get()).isNull();
+
+    InstrumentingClassLoaderFactory.releaseSdkEnvironment(second);
+    thread.join(5000);
+    assertThat(acquired.get()).isSameAs(second);
+
+    InstrumentingClassLoaderFactory.releaseSdkEnvironment(first);
+    InstrumentingClassLoaderFactory.releaseSdkEnvironment(second);
+  }
+
+  private static class FakeDependencyResolver implements DependencyResolver {
+    @Override
+    public URL[] getLocalArtifactUrls(DependencyJar... dependencies) {
+      return new URL[0];
+    }
+
+    @Override
+    public URL getLocalArtifactUrl(DependencyJar dependency) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package org.robolectric.internal;
+
+import org.junit.Test;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+import org.robolectric.internal.bytecode.InstrumentingClassLoader;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SdkEnvironmentPoolTest {
+  private final SdkEnvironmentPool<String> pool = new SdkEnvironmentPool<>(2);
+
+  @Test
+  public void put_shouldEvictLeastRecentlyUsed() throws Exception {
+    SdkEnvironment a = put("a", 21);
+    put("b", 22);
+    pool.get("a");
+    put("c", 23);
+
+    assertThat(pool.get("a")).isSameAs(a);
+    assertThat(pool.get("b")).isNull();
+    assertThat(pool.size()).isEqualTo(2);
+    assertThat(pool.getEvictions()).isEqualTo(1);
+  }
+
+  @Test
+  public void put_shouldNotEvictEnvironmentsInUse() throws Exception {
+    SdkEnvironment a = put("a", 21);
+    pool.acquire(a);
+    put("b", 22);
+    put("c", 23);
+
+    assertThat(pool.get("b")).isNull();
+    assertThat(pool.size()).isEqualTo(2);
+
+    pool.release(a);
+    put("d", 23);
+    assertThat(pool.get("a")).isNull();
+  }
+
+  @Test
+  public void put_shouldNotEvictSharedEnvironmentsUntilAllUsersReleaseThem() throws Exception {
+    SdkEnvironment a = put("a", 21);
+    pool.share(a);
+    pool.share(a);
+    put("b", 22);
+    put("c", 23);
+    assertThat(pool.get("a")).isSameAs(a);
+
+    pool.release(a);
+    put("d", 23);
+    assertThat(pool.get("c")).isNull();
+
+    pool.release(a);
+    put("e", 23);
+    assertThat(pool.get("a")).isNull();
+  }
+
+  @Test
+  public void put_shouldNotEvictTheEnvironmentJustAdded() throws Exception {
+    pool.acquire(put("a", 21));
+    pool.acquire(put("b", 22));
+    SdkEnvironment c = put("c", 23);
+
+    assertThat(pool.get("c")).isSameAs(c);
+    assertThat(pool.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void acquire_shouldNotAcquireSharedEnvironments() throws Exception {
+    SdkEnvironment a = put("a", 21);
+    pool.share(a);
+
+    assertThat(pool.acquire(a)).isFalse();
+    assertThat(pool.release(a)).isTrue();
+    assertThat(pool.acquire(a)).isTrue();
+  }
+
+  @Test
+  public void put_shouldNotEvictPinnedEnvironments() throws Exception {
+    pool.setPinnedApiLevels(Collections.singleton(21));
+    SdkEnvironment a = put("a", 21);
+    put("b", 22);
+    put("c", 23);
+    put("d", 23);
+
+    assertThat(pool.get("a")).isSameAs(a);
+    assertThat(pool.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void put_shouldCountEnvironmentsRecreatedAfterEviction() throws Exception {
+    put("a", 21);
+    put("b", 22);
+    put("c", 23);
+    assertThat(pool.getChurn()).isEqualTo(0);
+
+    put("a", 21);
+    assertThat(pool.getCreations()).isEqualTo(4);
+    assertThat(pool.getEvictions()).isEqualTo(2);
+    assertThat(pool.getChurn()).isEqualTo(1);
+  }
+
+  @Test
+  public void put_shouldOnlyRememberTheLastEvictedKeys() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      put("key" + i, 21);
+    }
+    put("key0", 21);
+    assertThat(pool.getChurn()).isEqualTo(0);
+
+    put("key97", 21);
+    assertThat(pool.getChurn()).isEqualTo(1);
+  }
+
+  @Test
+  public void put_shouldCloseTheClassLoaderOfEvictedEnvironments() throws Exception {
+    ClosableClassLoader classLoader = new ClosableClassLoader();
+    pool.put("a", new SdkEnvironment(new SdkConfig(21), classLoader));
+    put("b", 22);
+    assertThat(classLoader.closed).isFalse();
+
+    put("c", 23);
+    assertThat(classLoader.closed).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setMaxSize_shouldRejectNonPositiveSize() throws Exception {
+    pool.setMaxSize(0);
+  }
+
+  private SdkEnvironment put(String key, int apiLevel) {
+    SdkEnvironment sdkEnvironment = new SdkEnvironment(new SdkConfig(apiLevel), getClass().getClassLoader());
+    pool.put(key, sdkEnvironment);
+    return sdkEnvironment;
+  }
+
+  private static class ClosableClassLoader extends InstrumentingClassLoader {
+    private boolean closed;
+
+    ClosableClassLoader() {
+      super(InstrumentationConfiguration.newBuilder().build());
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package org.robolectric.internal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.robolectric.RoboSettings;
+import org.robolectric.internal.dependency.DependencyJar;
+import org.robolectric.internal.dependency.DependencyResolver;
+import org.robolectric.res.ResName;
+import org.robolectric.res.ResourceLoader;
+import org.robolectric.res.StyleData;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SdkEnvironmentTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final SdkConfig sdkConfig = new SdkConfig(23);
+  private final DependencyResolver dependencyResolver = new DependencyResolver() {
+    @Override
+    public URL[] getLocalArtifactUrls(DependencyJar... dependencies) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public URL getLocalArtifactUrl(DependencyJar dependency) {
+      return android.R.class.getProtectionDomain().getCodeSource().getLocation();
+    }
+  };
+  private String originalSystemResourceTableDir;
+
+  @Before
+  public void setUp() throws Exception {
+    originalSystemResourceTableDir = RoboSettings.getSystemResourceTableDir();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    RoboSettings.setSystemResourceTableDir(originalSystemResourceTableDir);
+  }
+
+  @Test
+  public void getSystemResourceLoader_shouldWriteSystemResourceTableOnFirstUse() throws Exception {
+    File tableDir = temporaryFolder.newFolder("system-resources");
+    RoboSettings.setSystemResourceTableDir(tableDir.getPath());
+
+    ResourceLoader parsed = new SdkEnvironment(sdkConfig, getClass().getClassLoader()).getSystemResourceLoader(dependencyResolver);
+    assertThat(parsed.getValue(new ResName("android", "string", "ok"), "").asString()).isEqualTo("OK");
+    assertThat(new File(tableDir, SdkEnvironment.getSystemResourceTableName(sdkConfig))).isFile();
+
+    ResourceLoader prebuilt = new SdkEnvironment(sdkConfig, getClass().getClassLoader()).getSystemResourceLoader(dependencyResolver);
+    assertThat(prebuilt.getValue(new ResName("android", "string", "ok"), "").asString()).isEqualTo("OK");
+    StyleData theme = (StyleData) prebuilt.getValue(new ResName("android", "style", "Theme"), "").getData();
+    assertThat(theme.getAttrValue(new ResName("android", "attr", "windowBackground")).value).isEqualTo("@drawable/screen_background_selector_dark");
+  }
+
+  @Test
+  public void getSystemResourceLoader_shouldShareSystemResourcesBetweenEnvironmentsForTheSameSdk() throws Exception {
+    ResourceLoader first = new SdkEnvironment(sdkConfig, new URLClassLoader(new URL[0]), true).getSystemResourceLoader(dependencyResolver);
+    ResourceLoader second = new SdkEnvironment(sdkConfig, new URLClassLoader(new URL[0]), true).getSystemResourceLoader(dependencyResolver);
+
+    assertThat(second).isSameAs(first);
+    assertThat(first.getValue(new ResName("android", "string", "ok"), "").asString()).isEqualTo("OK");
+  }
+
+  @Test
+  public void getSystemResourceTableName_shouldDependOnAndroidAndRobolectricVersions() throws Exception {
+    assertThat(SdkEnvironment.getSystemResourceTableName(sdkConfig))
+        .isEqualTo("android-all-6.0.0_r1-robolectric-0-robolectric-" + SdkConfig.getRobolectricVersion() + ".restable");
+  }
+}
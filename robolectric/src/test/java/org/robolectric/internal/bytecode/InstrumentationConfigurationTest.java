@@ -76,6 +76,16 @@ public class InstrumentationConfigurationTest {
     assertThat(baseConfig).isNotEqualTo(customConfig);
   }
 
+  @Test
+  public void digest_shouldDependOnEveryRuleButNotTheirOrder() throws Exception {
+    String digest = InstrumentationConfiguration.newBuilder().addInstrumentedPackage("com.a.").addInstrumentedPackage("com.b.").build().digest();
+
+    assertThat(InstrumentationConfiguration.newBuilder().addInstrumentedPackage("com.b.").addInstrumentedPackage("com.a.").build().digest()).isEqualTo(digest);
+    assertThat(config.digest()).isNotEqualTo(InstrumentationConfiguration.newBuilder().doNotInstrumentClass("android.Foo").build().digest());
+    assertThat(config.digest()).isNotEqualTo(InstrumentationConfiguration.newBuilder().doNotAcquirePackage("com.foo.").build().digest());
+    assertThat(config.digest()).isNotEqualTo(InstrumentationConfiguration.newBuilder().addInterceptedMethod(new MethodRef("a.B", "c")).build().digest());
+  }
+
   public void shouldNotInstrumentListedClasses() throws Exception {
     String instrumentName = "android.foo.bar";
     InstrumentationConfiguration customConfig = InstrumentationConfiguration.newBuilder().doNotInstrumentClass(instrumentName).build();
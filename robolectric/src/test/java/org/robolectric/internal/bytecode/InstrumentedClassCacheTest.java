@@ -0,0 +1,78 @@
+package org.robolectric.internal.bytecode;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.robolectric.test.TemporaryFolder;
+
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InstrumentedClassCacheTest {
+  private static final byte[] ORIG_BYTES = {1, 2, 3};
+  private static final byte[] INSTRUMENTED_BYTES = {4, 5, 6, 7};
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File cacheDir;
+  private InstrumentationConfiguration config;
+
+  @Before
+  public void setUp() throws Exception {
+    cacheDir = temporaryFolder.newFolder("classes");
+    config = InstrumentationConfiguration.newBuilder().build();
+  }
+
+  @Test
+  public void load_shouldReturnNullWhenNothingStored() {
+    InstrumentedClassCache cache = createCache(1024);
+
+    assertThat(cache.load(cache.keyFor("a.B", ORIG_BYTES))).isNull();
+  }
+
+  @Test
+  public void load_shouldReturnStoredBytes() {
+    InstrumentedClassCache cache = createCache(1024);
+    String key = cache.keyFor("a.B", ORIG_BYTES);
+
+    cache.store(key, INSTRUMENTED_BYTES);
+
+    assertThat(cache.load(key)).isEqualTo(INSTRUMENTED_BYTES);
+    assertThat(createCache(1024).load(key)).isEqualTo(INSTRUMENTED_BYTES);
+  }
+
+  @Test
+  public void keyFor_shouldDependOnClassBytesNameConfigAndVersion() {
+    InstrumentedClassCache cache = createCache(1024);
+    String key = cache.keyFor("a.B", ORIG_BYTES);
+
+    assertThat(cache.keyFor("a.B", ORIG_BYTES)).isEqualTo(key);
+    assertThat(cache.keyFor("a.B", new byte[] {1, 2, 4})).isNotEqualTo(key);
+    assertThat(cache.keyFor("a.C", ORIG_BYTES)).isNotEqualTo(key);
+
+    InstrumentationConfiguration otherConfig = InstrumentationConfiguration.newBuilder().addInstrumentedPackage("com.foo.").build();
+    assertThat(new InstrumentedClassCache(cacheDir, 1024, "1.0", otherConfig).keyFor("a.B", ORIG_BYTES)).isNotEqualTo(key);
+    InstrumentationConfiguration notAcquiringConfig = InstrumentationConfiguration.newBuilder().doNotAcquirePackage("com.foo.").build();
+    assertThat(new InstrumentedClassCache(cacheDir, 1024, "1.0", notAcquiringConfig).keyFor("a.B", ORIG_BYTES)).isNotEqualTo(key);
+    assertThat(new InstrumentedClassCache(cacheDir, 1024, "2.0", config).keyFor("a.B", ORIG_BYTES)).isNotEqualTo(key);
+  }
+
+  @Test
+  public void store_shouldEvictLeastRecentlyUsedEntriesWhenOverMaxSize() {
+    InstrumentedClassCache cache = createCache(100);
+    String oldKey = cache.keyFor("a.Old", ORIG_BYTES);
+    String newKey = cache.keyFor("a.New", ORIG_BYTES);
+
+    cache.store(oldKey, new byte[60]);
+    assertThat(cache.fileFor(oldKey).setLastModified(System.currentTimeMillis() - 60000)).isTrue();
+    cache.store(newKey, new byte[60]);
+
+    assertThat(cache.load(oldKey)).isNull();
+    assertThat(cache.load(newKey)).hasSize(60);
+  }
+
+  private InstrumentedClassCache createCache(long maxSize) {
+    return new InstrumentedClassCache(cacheDir, maxSize, "1.0", config);
+  }
+}
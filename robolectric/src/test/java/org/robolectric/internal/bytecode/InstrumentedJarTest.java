@@ -0,0 +1,99 @@
+package org.robolectric.internal.bytecode;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.robolectric.internal.ShadowConstants;
+import org.robolectric.internal.bytecode.testing.AnExampleClass;
+import org.robolectric.test.TemporaryFolder;
+import org.robolectric.util.Util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class InstrumentedJarTest {
+  private static final String FINGERPRINT = "3.2:123:true";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File jarFile;
+
+  @Before
+  public void setUp() throws Exception {
+    jarFile = new File(temporaryFolder.getRoot(), "android-all-instrumented.jar");
+  }
+
+  @Test
+  public void open_shouldReturnNullWhenJarIsMissing() {
+    assertThat(InstrumentedJar.open(jarFile, FINGERPRINT)).isNull();
+  }
+
+  @Test
+  public void open_shouldReturnNullWhenFingerprintDoesNotMatch() throws Exception {
+    writeJar("3.1:123:true");
+
+    assertThat(InstrumentedJar.open(jarFile, FINGERPRINT)).isNull();
+  }
+
+  @Test
+  public void getClassBytes_shouldReturnBytesFromJar() throws Exception {
+    writeJar(FINGERPRINT);
+
+    InstrumentedJar instrumentedJar = InstrumentedJar.open(jarFile, FINGERPRINT);
+    assertThat(instrumentedJar.getClassBytes(AnExampleClass.class.getName())).isEqualTo(getOriginalBytes());
+    assertThat(instrumentedJar.getClassBytes("some.MissingClass")).isNull();
+  }
+
+  @Test
+  public void getClassBytes_shouldReturnNullOnceClosed() throws Exception {
+    writeJar(FINGERPRINT);
+
+    InstrumentedJar instrumentedJar = InstrumentedJar.open(jarFile, FINGERPRINT);
+    instrumentedJar.close();
+    assertThat(instrumentedJar.getClassBytes(AnExampleClass.class.getName())).isNull();
+  }
+
+  @Test
+  public void instrumentingClassLoader_shouldDefineClassesFromJarWithoutInstrumentingThem() throws Exception {
+    // the jar holds the original bytes, so a class loaded from it won't have been instrumented
+    writeJar(FINGERPRINT);
+    InstrumentedJar instrumentedJar = InstrumentedJar.open(jarFile, FINGERPRINT);
+
+    ClassLoader classLoader = new InstrumentingClassLoader(InstrumentationConfiguration.newBuilder().build(), null, instrumentedJar);
+    Class<?> exampleClass = classLoader.loadClass(AnExampleClass.class.getName());
+
+    assertThat(exampleClass.getClassLoader()).isSameAs(classLoader);
+    try {
+      exampleClass.getField(ShadowConstants.CLASS_HANDLER_DATA_FIELD_NAME);
+      fail("class shouldn't be instrumented!");
+    } catch (NoSuchFieldException expected) {
+    }
+  }
+
+  private void writeJar(String fingerprint) throws Exception {
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile))) {
+      Properties marker = new Properties();
+      marker.setProperty(InstrumentedJar.FINGERPRINT_PROPERTY, fingerprint);
+      out.putNextEntry(new JarEntry(InstrumentedJar.MARKER_ENTRY));
+      marker.store(out, null);
+      out.closeEntry();
+
+      out.putNextEntry(new JarEntry(InstrumentedJar.entryName(AnExampleClass.class.getName())));
+      out.write(getOriginalBytes());
+      out.closeEntry();
+    }
+  }
+
+  private static byte[] getOriginalBytes() throws Exception {
+    try (InputStream in = InstrumentedJarTest.class.getClassLoader().getResourceAsStream(InstrumentedJar.entryName(AnExampleClass.class.getName()))) {
+      return Util.readBytes(in);
+    }
+  }
+}
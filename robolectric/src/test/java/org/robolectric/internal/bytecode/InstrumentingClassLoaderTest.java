@@ -47,6 +47,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.concurrent.CountDownLatch;
 
 import static java.lang.invoke.MethodHandles.constant;
 import static java.lang.invoke.MethodHandles.dropArguments;
@@ -655,6 +656,10 @@ public class InstrumentingClassLoaderTest {
       return dropArguments(constant(String.class, "a shadow!"), 0, caller);
     }
 
+    @Override public MethodHandle findStaticInitializer(Class<?> theClass) {
+      return ShadowWrangler.DO_NOTHING;
+    }
+
     @SuppressWarnings("UnusedDeclaration")
     private Object invoke(InvocationProfile invocationProfile, Object instance, Object[] params) {
       return methodInvoked(invocationProfile.clazz, invocationProfile.methodName, instance,
@@ -748,4 +753,74 @@ public class InstrumentingClassLoaderTest {
 
     transcript.assertEventsSoFar("find foo.AClass");
   }
+
+  @Test public void shouldReturnSameClassToConcurrentLoaders() throws Exception {
+    final ClassLoader classLoader = new InstrumentingClassLoader(InstrumentationConfiguration.newBuilder().build());
+    final Class<?>[] loadedClasses = new Class<?>[8];
+    final Throwable[] failures = new Throwable[loadedClasses.length];
+    final CountDownLatch start = new CountDownLatch(1);
+
+    Thread[] threads = new Thread[loadedClasses.length];
+    for (int i = 0; i < threads.length; i++) {
+      final int index = i;
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            loadedClasses[index] = classLoader.loadClass(AnExampleClass.class.getName());
+          } catch (Throwable t) {
+            failures[index] = t;
+          }
+        }
+      };
+      threads[i].start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    for (int i = 0; i < loadedClasses.length; i++) {
+      assertNull(failures[i]);
+      assertSame(loadedClasses[0], loadedClasses[i]);
+    }
+    assertSame(classLoader, loadedClasses[0].getClassLoader());
+  }
+
+  @Test public void shouldNotBlockLoadingOfOtherClassesWhileAClassIsBeingLoaded() throws Exception {
+    final LockExposingClassLoader classLoader = new LockExposingClassLoader();
+    final Class<?>[] loadedClass = new Class<?>[1];
+
+    synchronized (classLoader.lockFor(AClassToForget.class.getName())) {
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          try {
+            loadedClass[0] = classLoader.loadClass(AnExampleClass.class.getName());
+          } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+      thread.start();
+      thread.join(5000);
+    }
+
+    assertNotNull(loadedClass[0]);
+  }
+
+  private static class LockExposingClassLoader extends InstrumentingClassLoader {
+    static {
+      registerAsParallelCapable();
+    }
+
+    LockExposingClassLoader() {
+      super(InstrumentationConfiguration.newBuilder().build());
+    }
+
+    Object lockFor(String className) {
+      return getClassLoadingLock(className);
+    }
+  }
 }
@@ -0,0 +1,76 @@
+package org.robolectric.internal.bytecode;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PlanCacheTest {
+  private final List<String> calculated = new ArrayList<>();
+
+  @Test
+  public void get_shouldCalculatePlanOnlyOnce() throws Exception {
+    PlanCache planCache = new RecordingPlanCache(10);
+
+    ClassHandler.Plan plan = planCache.get("a/B/c()V", false, Object.class);
+
+    assertThat(planCache.get("a/B/c()V", false, Object.class)).isSameAs(plan);
+    assertThat(calculated).containsExactly("a/B/c()V");
+    assertThat(planCache.getMisses()).isEqualTo(1);
+    assertThat(planCache.getHits()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_shouldCacheCallRealCodePlans() throws Exception {
+    PlanCache planCache = new RecordingPlanCache(10);
+
+    assertThat(planCache.get("real/Code/c()V", false, Object.class)).isNull();
+    assertThat(planCache.get("real/Code/c()V", false, Object.class)).isNull();
+    assertThat(calculated).containsExactly("real/Code/c()V");
+  }
+
+  @Test
+  public void get_shouldEvictWhenFull() throws Exception {
+    PlanCache planCache = new RecordingPlanCache(2);
+
+    planCache.get("a/B/one()V", false, Object.class);
+    planCache.get("a/B/two()V", false, Object.class);
+    planCache.get("a/B/three()V", false, Object.class);
+
+    assertThat(planCache.size()).isEqualTo(2);
+    assertThat(planCache.getEvictions()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_shouldEvictLeastRecentlyUsedPlans() throws Exception {
+    PlanCache planCache = new RecordingPlanCache(2);
+
+    planCache.get("a/B/one()V", false, Object.class);
+    planCache.get("a/B/two()V", false, Object.class);
+    planCache.get("a/B/one()V", false, Object.class);
+    planCache.get("a/B/three()V", false, Object.class);
+    planCache.get("a/B/one()V", false, Object.class);
+    planCache.get("a/B/two()V", false, Object.class);
+
+    assertThat(calculated).containsExactly("a/B/one()V", "a/B/two()V", "a/B/three()V", "a/B/two()V");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_shouldRejectNonPositiveSize() throws Exception {
+    new RecordingPlanCache(0);
+  }
+
+  private class RecordingPlanCache extends PlanCache {
+    public RecordingPlanCache(int maxSize) {
+      super(maxSize);
+    }
+
+    @Override
+    protected ClassHandler.Plan calculate(String signature, boolean isStatic, Class<?> theClass) {
+      calculated.add(signature);
+      return signature.startsWith("real/") ? ShadowWrangler.CALL_REAL_CODE_PLAN : ShadowWrangler.DO_NOTHING_PLAN;
+    }
+  }
+}
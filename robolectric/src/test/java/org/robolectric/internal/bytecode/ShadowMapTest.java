@@ -1,7 +1,12 @@
 package org.robolectric.internal.bytecode;
 
+import android.app.AlertDialog;
+import android.app.TimePickerDialog;
+import android.view.inputmethod.InputMethodManager;
 import org.junit.Test;
+import org.robolectric.shadows.ShadowAlertDialog;
 import org.robolectric.shadows.ShadowCursorAdapter;
+import org.robolectric.shadows.ShadowInputMethodManager;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -16,6 +21,21 @@ public class ShadowMapTest {
     assertThat(map.get(android.widget.CursorAdapter.class).shadowClassName).isEqualTo(ShadowCursorAdapter.class.getName());
   }
 
+  @Test public void shouldUseConfigurationResolvedByTheAnnotationProcessor() throws Exception {
+    ShadowMap map = new ShadowMap.Builder().build();
+
+    ShadowConfig inputMethodManager = map.get(InputMethodManager.class);
+    assertThat(inputMethodManager.shadowClassName).isEqualTo(ShadowInputMethodManager.class.getName());
+    assertThat(inputMethodManager.callThroughByDefault).isFalse();
+
+    assertThat(map.get(TimePickerDialog.class).inheritImplementationMethods).isTrue();
+  }
+
+  @Test public void shouldLookUpShadowsOfNestedClasses() throws Exception {
+    ShadowMap map = new ShadowMap.Builder().build();
+    assertThat(map.get(AlertDialog.Builder.class).shadowClassName).isEqualTo(ShadowAlertDialog.ShadowBuilder.class.getName());
+  }
+
   @Test public void getInvalidatedClasses_disjoin() {
     ShadowMap current = new ShadowMap.Builder().addShadowClass("a1", "a2", true, false, false).build();
     ShadowMap previous = new ShadowMap.Builder().addShadowClass("b1", "b2", true, false, false).build();
@@ -0,0 +1,127 @@
+package org.robolectric.internal.bytecode;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+import static java.lang.invoke.MethodType.methodType;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ShadowProfilerTest {
+  private ShadowProfiler profiler;
+
+  @Before
+  public void setUp() throws Exception {
+    profiler = new ShadowProfiler();
+  }
+
+  @Test
+  public void profileMethodHandle_shouldRecordCallsAndPreserveResult() throws Throwable {
+    MethodHandle mh = MethodHandles.lookup().findStatic(ShadowProfilerTest.class, "add", methodType(int.class, int.class, int.class));
+
+    MethodHandle profiled = profiler.profile(mh, "Foo.add(int, int)");
+
+    assertThat(profiled.type()).isEqualTo(mh.type());
+    assertThat((int) profiled.invokeExact(1, 2)).isEqualTo(3);
+    assertThat((int) profiled.invokeExact(3, 4)).isEqualTo(7);
+
+    List<ShadowProfiler.MethodStats> stats = profiler.getStats();
+    assertThat(stats).hasSize(1);
+    assertThat(stats.get(0).getMethod()).isEqualTo("Foo.add(int, int)");
+    assertThat(stats.get(0).getCalls()).isEqualTo(2);
+  }
+
+  @Test
+  public void profileMethodHandle_shouldRecordCallsThatThrow() throws Throwable {
+    MethodHandle mh = MethodHandles.lookup().findStatic(ShadowProfilerTest.class, "throwException", methodType(void.class));
+    MethodHandle profiled = profiler.profile(mh, "Foo.throwException()");
+
+    try {
+      profiled.invokeExact();
+      fail("expected exception");
+    } catch (IllegalStateException expected) {
+    }
+
+    assertThat(profiler.getStats().get(0).getCalls()).isEqualTo(1);
+  }
+
+  @Test
+  public void profilePlan_shouldRecordCalls() throws Throwable {
+    ClassHandler.Plan plan = profiler.profile(new ClassHandler.Plan() {
+      @Override
+      public Object run(Object instance, Object roboData, Object[] params) throws Throwable {
+        return "result";
+      }
+    }, "Foo.bar()");
+
+    assertThat(plan.run(null, null, new Object[0])).isEqualTo("result");
+    assertThat(profiler.getStats().get(0).getCalls()).isEqualTo(1);
+  }
+
+  @Test
+  public void getStats_shouldSortByTotalTime() throws Throwable {
+    MethodHandle fast = MethodHandles.lookup().findStatic(ShadowProfilerTest.class, "add", methodType(int.class, int.class, int.class));
+    MethodHandle slow = MethodHandles.lookup().findStatic(ShadowProfilerTest.class, "sleep", methodType(void.class));
+    int ignored = (int) profiler.profile(fast, "Foo.fast(int, int)").invokeExact(1, 1);
+    profiler.profile(slow, "Foo.slow()").invokeExact();
+
+    List<ShadowProfiler.MethodStats> stats = profiler.getStats();
+    assertThat(stats.get(0).getMethod()).isEqualTo("Foo.slow()");
+    assertThat(stats.get(1).getMethod()).isEqualTo("Foo.fast(int, int)");
+  }
+
+  @Test
+  public void writeJsonReport_shouldWriteOneObjectPerMethod() throws Throwable {
+    MethodHandle mh = MethodHandles.lookup().findStatic(ShadowProfilerTest.class, "sleep", methodType(void.class));
+    profiler.profile(mh, "Foo.\"quoted\"()").invokeExact();
+
+    StringWriter out = new StringWriter();
+    ShadowProfiler.writeJsonReport(profiler.getStats(), out);
+
+    assertThat(out.toString()).startsWith("[\n  {\"method\": \"Foo.\\\"quoted\\\"()\", \"calls\": 1, \"totalNanos\": ");
+    assertThat(out.toString()).endsWith("}\n]\n");
+  }
+
+  @Test
+  public void writeTextReport_shouldWriteHeaderAndOneLinePerMethod() throws Throwable {
+    MethodHandle mh = MethodHandles.lookup().findStatic(ShadowProfilerTest.class, "sleep", methodType(void.class));
+    profiler.profile(mh, "Foo.sleep()").invokeExact();
+
+    StringWriter out = new StringWriter();
+    ShadowProfiler.writeTextReport(profiler.getStats(), out);
+
+    String[] lines = out.toString().split("\n");
+    assertThat(lines).hasSize(2);
+    assertThat(lines[0]).contains("calls").contains("total ms").contains("method");
+    assertThat(lines[1]).endsWith("  Foo.sleep()");
+  }
+
+  @Test
+  public void describe_shouldDropReceiverOfInstanceMethods() throws Exception {
+    MethodType type = methodType(void.class, String.class, int[].class, boolean.class);
+
+    assertThat(ShadowProfiler.describe(String.class, "foo", type, false)).isEqualTo("java.lang.String.foo(int[], boolean)");
+    assertThat(ShadowProfiler.describe(String.class, "foo", type, true)).isEqualTo("java.lang.String.foo(java.lang.String, int[], boolean)");
+  }
+
+  @SuppressWarnings("UnusedDeclaration")
+  private static int add(int a, int b) {
+    return a + b;
+  }
+
+  @SuppressWarnings("UnusedDeclaration")
+  private static void throwException() {
+    throw new IllegalStateException();
+  }
+
+  @SuppressWarnings("UnusedDeclaration")
+  private static void sleep() throws InterruptedException {
+    Thread.sleep(5);
+  }
+}
@@ -0,0 +1,68 @@
+package org.robolectric.res;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.robolectric.R;
+import org.robolectric.RoboSettings;
+import org.robolectric.res.builder.XmlBlock;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.robolectric.util.TestUtil.lib1Resources;
+import static org.robolectric.util.TestUtil.testResources;
+
+public class OverlayResourceLoaderTest {
+  private boolean originalLazyResources;
+
+  @Before
+  public void setUp() throws Exception {
+    originalLazyResources = RoboSettings.isLazyResources();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    RoboSettings.setLazyResources(originalLazyResources);
+  }
+
+  @Test
+  public void lazy_shouldLoadTheSameResources() throws Exception {
+    OverlayResourceLoader eager = overlay();
+    eager.initialize();
+    RoboSettings.setLazyResources(true);
+    OverlayResourceLoader lazy = overlay();
+    lazy.initialize();
+
+    for (String type : new String[] {"layout", "menu", "drawable", "anim", "animator", "color", "xml", "transition", "interpolator", "mipmap", "raw"}) {
+      lazy.load(type);
+    }
+    assertThat(lazy.data.size()).isEqualTo(eager.data.size());
+    assertThat(lazy.xmlDocuments.size()).isEqualTo(eager.xmlDocuments.size());
+    assertThat(lazy.drawableData.size()).isEqualTo(eager.drawableData.size());
+    assertThat(lazy.rawResources.size()).isEqualTo(eager.rawResources.size());
+  }
+
+  @Test
+  public void lazy_shouldLeaveTheValuesOfLoadedTypesAloneWhenLoadingAnother() throws Exception {
+    RoboSettings.setLazyResources(true);
+    OverlayResourceLoader loader = overlay();
+    ResName layout = new ResName("org.robolectric", "layout", "custom_layout");
+    assertThat(loader.getXml(layout, "")).isNotNull();
+    List<ResBundle.Value<XmlBlock>> layoutValues = loader.xmlDocuments.getValues().get(layout);
+
+    loader.load("drawable");
+
+    assertThat(loader.xmlDocuments.getValues().get(layout)).isSameAs(layoutValues);
+    assertThat(loader.getXml(layout, "")).isNotNull();
+    assertThat(loader.getDrawableNode(new ResName("org.robolectric", "drawable", "an_image"), "")).isNotNull();
+    assertThat(loader.getValue(R.string.hello, "").asString()).isEqualTo("Hello");
+  }
+
+  private static OverlayResourceLoader overlay() {
+    return new OverlayResourceLoader("org.robolectric", Arrays.asList(
+        new PackageResourceLoader(testResources()),
+        new PackageResourceLoader(lib1Resources())));
+  }
+}
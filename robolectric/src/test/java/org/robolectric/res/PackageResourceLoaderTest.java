@@ -1,10 +1,38 @@
 package org.robolectric.res;
 
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.robolectric.R;
+import org.robolectric.RoboSettings;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
 import static org.robolectric.util.TestUtil.*;
 import static org.assertj.core.api.Assertions.*;
 
 public class PackageResourceLoaderTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private boolean originalIncrementalResources;
+  private boolean originalLazyResources;
+
+  @Before
+  public void setUp() throws Exception {
+    originalIncrementalResources = RoboSettings.isIncrementalResources();
+    originalLazyResources = RoboSettings.isLazyResources();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    RoboSettings.setIncrementalResources(originalIncrementalResources);
+    RoboSettings.setLazyResources(originalLazyResources);
+  }
 
   @Test
   public void shouldLoadResourcesFromGradleOutputDirectories() {
@@ -53,4 +81,90 @@ public class PackageResourceLoaderTest {
     assertThat(value).describedAs("Item color from gradle output is not loaded").isNotNull();
     assertThat(value.asString()).isEqualTo("1.0");
   }
+
+  @Test
+  public void reloadChangedFiles_shouldReloadOnlyWhenFilesChange() throws Exception {
+    RoboSettings.setIncrementalResources(true);
+    File resDir = temporaryFolder.newFolder("res");
+    write(resDir, "values/strings.xml", "<resources><string name=\"greeting\">hi</string></resources>");
+    PackageResourceLoader loader = new PackageResourceLoader(new ResourcePath(R.class, TEST_PACKAGE, Fs.newFile(resDir), null));
+    ResName greeting = new ResName(TEST_PACKAGE, "string", "greeting");
+    assertThat(loader.getValue(greeting, "").asString()).isEqualTo("hi");
+
+    assertThat(loader.reloadChangedFiles()).isFalse();
+
+    write(resDir, "values/strings.xml", "<resources><string name=\"greeting\">hello</string></resources>");
+    assertThat(loader.reloadChangedFiles()).isTrue();
+    assertThat(loader.getValue(greeting, "").asString()).isEqualTo("hello");
+  }
+
+  @Test
+  public void reloadChangedFiles_shouldLoadAddedFilesAndForgetRemovedOnes() throws Exception {
+    RoboSettings.setIncrementalResources(true);
+    File resDir = temporaryFolder.newFolder("res");
+    File strings = write(resDir, "values/strings.xml", "<resources><string name=\"greeting\">hi</string></resources>");
+    PackageResourceLoader loader = new PackageResourceLoader(new ResourcePath(R.class, TEST_PACKAGE, Fs.newFile(resDir), null));
+    ResName greeting = new ResName(TEST_PACKAGE, "string", "greeting");
+    ResName layout = new ResName(TEST_PACKAGE, "layout", "added");
+    assertThat(loader.getXml(layout, "")).isNull();
+
+    assertThat(strings.delete()).isTrue();
+    write(resDir, "layout/added.xml", "<LinearLayout/>");
+    assertThat(loader.reloadChangedFiles()).isTrue();
+
+    assertThat(loader.getValue(greeting, "")).isNull();
+    assertThat(loader.getXml(layout, "")).isNotNull();
+  }
+
+  @Test
+  public void reloadChangedFiles_shouldDoNothingUnlessIncremental() throws Exception {
+    File resDir = temporaryFolder.newFolder("res");
+    write(resDir, "values/strings.xml", "<resources><string name=\"greeting\">hi</string></resources>");
+    PackageResourceLoader loader = new PackageResourceLoader(new ResourcePath(R.class, TEST_PACKAGE, Fs.newFile(resDir), null));
+    loader.initialize();
+
+    write(resDir, "values/strings.xml", "<resources><string name=\"greeting\">hello</string></resources>");
+    assertThat(loader.reloadChangedFiles()).isFalse();
+  }
+
+  @Test
+  public void lazy_shouldOnlyLoadTypesWhenTheyAreUsed() throws Exception {
+    RoboSettings.setLazyResources(true);
+    PackageResourceLoader loader = new PackageResourceLoader(testResources());
+
+    assertThat(loader.getValue(R.string.hello, "").asString()).isEqualTo("Hello");
+    assertThat(loader.xmlDocuments.size()).isEqualTo(0);
+    assertThat(loader.rawResources.size()).isEqualTo(0);
+
+    assertThat(loader.getXml(R.layout.custom_layout, "")).isNotNull();
+    assertThat(loader.getValue(R.layout.custom_layout, "")).isNotNull();
+    assertThat(loader.getRawValue(R.raw.raw_resource)).isNotNull();
+    assertThat(loader.isLoaded("menu")).isFalse();
+  }
+
+  @Test
+  public void lazy_shouldLoadTheSameResources() throws Exception {
+    PackageResourceLoader eager = new PackageResourceLoader(testResources());
+    eager.initialize();
+    RoboSettings.setLazyResources(true);
+    PackageResourceLoader lazy = new PackageResourceLoader(testResources());
+    lazy.initialize();
+
+    for (String type : new String[] {"layout", "menu", "drawable", "anim", "animator", "color", "xml", "transition", "interpolator", "mipmap", "raw"}) {
+      lazy.load(type);
+    }
+    assertThat(lazy.data.size()).isEqualTo(eager.data.size());
+    assertThat(lazy.xmlDocuments.size()).isEqualTo(eager.xmlDocuments.size());
+    assertThat(lazy.drawableData.size()).isEqualTo(eager.drawableData.size());
+    assertThat(lazy.rawResources.size()).isEqualTo(eager.rawResources.size());
+  }
+
+  private static File write(File resDir, String path, String contents) throws IOException {
+    File file = new File(resDir, path);
+    file.getParentFile().mkdirs();
+    try (FileWriter writer = new FileWriter(file)) {
+      writer.write(contents);
+    }
+    return file;
+  }
 }
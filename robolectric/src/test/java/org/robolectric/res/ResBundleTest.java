@@ -2,8 +2,11 @@ package org.robolectric.res;
 
 import org.junit.Test;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
@@ -159,6 +162,132 @@ public class ResBundleTest {
         "sh300dp"), "sw320dp-sh320dp").getValue());
   }
 
+  @Test
+  public void getValue_shouldPickAgainAfterValuesAreAdded() throws Exception {
+    ResBundle<String> bundle = new ResBundle<>();
+    ResName resName = new ResName("pkg", "string", "title");
+    bundle.put("string", "title", "v16 title", xmlContext("values-v16"));
+    assertThat(bundle.get(resName, "v18")).isEqualTo("v16 title");
+    assertThat(bundle.get(resName, "v18")).isEqualTo("v16 title");
+
+    bundle.put("string", "title", "v17 title", xmlContext("values-v17"));
+    assertThat(bundle.get(resName, "v18")).isEqualTo("v17 title");
+    assertThat(bundle.get(resName, "v16")).isEqualTo("v16 title");
+  }
+
+  @Test
+  public void getValue_shouldNotKeepPicksFromValuesChangedWhilePicking() throws Exception {
+    final ResBundle<String> bundle = new ResBundle<>();
+    final ResName resName = new ResName("pkg", "string", "title");
+    final CountDownLatch picking = new CountDownLatch(1);
+    final CountDownLatch changed = new CountDownLatch(1);
+    bundle.putValues(resName, Collections.<Value<String>>singletonList(new Value<String>("v16", "v16 title") {
+      @Override
+      Qualifiers getParsedQualifiers() {
+        if (picking.getCount() > 0) {
+          picking.countDown();
+          try {
+            changed.await();
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        }
+        return super.getParsedQualifiers();
+      }
+    }));
+
+    Thread reader = new Thread() {
+      @Override
+      public void run() {
+        bundle.get(resName, "v18");
+      }
+    };
+    reader.start();
+    picking.await();
+    bundle.put("string", "title", "v17 title", xmlContext("values-v17"));
+    changed.countDown();
+    reader.join();
+
+    assertThat(bundle.get(resName, "v18")).isEqualTo("v17 title");
+  }
+
+  @Test
+  public void getValue_shouldReturnNullForMissingValues() throws Exception {
+    ResBundle<String> bundle = new ResBundle<>();
+    ResName resName = new ResName("pkg", "string", "title");
+    assertThat(bundle.get(resName, "v18")).isNull();
+    assertThat(bundle.get(resName, "v18")).isNull();
+
+    bundle.put("string", "title", "title", xmlContext("values"));
+    assertThat(bundle.get(resName, "v18")).isEqualTo("title");
+  }
+
+  @Test
+  public void put_shouldKeepValuesPutFromSeveralThreadsSorted() throws Exception {
+    final ResBundle<String> bundle = new ResBundle<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      final String dirName = "values-v" + (10 + i);
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          for (int j = 0; j < 100; j++) {
+            bundle.put("string", "s" + j, dirName, xmlContext(dirName));
+          }
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(bundle.size()).isEqualTo(100);
+    for (int j = 0; j < 100; j++) {
+      List<Value<String>> values = bundle.getValues().get(new ResName("pkg", "string", "s" + j));
+      assertThat(values).hasSize(8);
+      assertThat(values).isSorted();
+    }
+    assertThat(bundle.get(new ResName("pkg", "string", "s1"), "v13")).isEqualTo("values-v13");
+  }
+
+  @Test
+  public void getValue_shouldPickTheValueOfTheFirstListedFileAmongEqualQualifiers() throws Exception {
+    ResBundle<String> bundle = new ResBundle<>();
+    ResName resName = new ResName("pkg", "string", "title");
+    bundle.put("string", "title", "listed second", new XmlLoader.XmlContext("pkg", Fs.newFile(new File("values", "a.xml")), 1));
+    bundle.put("string", "title", "listed first", new XmlLoader.XmlContext("pkg", Fs.newFile(new File("values", "b.xml")), 0));
+
+    assertThat(bundle.get(resName, "v18")).isEqualTo("listed first");
+  }
+
+  @Test
+  public void mergeLibraryStyle_shouldKeepValuesSortedAndPreferEarlierLibraries() throws Exception {
+    ResBundle<String> first = new ResBundle<>();
+    first.put("string", "title", "first v21", xmlContext("values-v21"));
+    first.put("string", "title", "first", xmlContext("values"));
+    ResBundle<String> second = new ResBundle<>();
+    second.put("string", "title", "second", xmlContext("values"));
+    second.put("string", "title", "second v19", xmlContext("values-v19"));
+
+    ResBundle<String> merged = new ResBundle<>();
+    merged.mergeLibraryStyle(first, "app");
+    merged.mergeLibraryStyle(second, "app");
+
+    ResName resName = new ResName("app", "string", "title");
+    List<Value<String>> values = merged.getValues().get(resName);
+    assertThat(values).hasSize(4);
+    assertThat(values).isSorted();
+    assertThat(merged.get(resName, "v18")).isEqualTo("first");
+    assertThat(merged.get(resName, "v20")).isEqualTo("second v19");
+  }
+
+  private static XmlLoader.XmlContext xmlContext(String dirName) {
+    return new XmlLoader.XmlContext("pkg", Fs.newFile(new File(dirName, "strings.xml")));
+  }
+
   private List<Value<String>> asValues(String... qualifierses) {
     List<Value<String>> values = new ArrayList<>();
     for (String qualifiers : qualifierses) {
@@ -4,6 +4,17 @@ import org.junit.Before;
 import org.junit.Test;
 import org.robolectric.R;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.robolectric.util.TestUtil.*;
 
@@ -62,4 +73,81 @@ public class ResourceExtractorTest {
     assertThat(resourceIndex.getResourceId(new ResName("org.robolectric.lib2", "string", "in_all_libs"))).isEqualTo(R.string.in_all_libs);
     assertThat(resourceIndex.getResourceId(new ResName("org.robolectric.lib3", "string", "in_all_libs"))).isEqualTo(R.string.in_all_libs);
   }
+
+  @Test
+  public void shouldAssignIdsToUnknownSystemResources() throws Exception {
+    ResName unknown = new ResName("android", "string", "not_in_the_r_class");
+    Integer id = resourceIndex.getResourceId(unknown);
+
+    assertThat(id).isNotNull();
+    assertThat(resourceIndex.getResourceId(unknown)).isEqualTo(id);
+    assertThat(resourceIndex.getResName(id)).isEqualTo(unknown);
+    assertThat(resourceIndex.getResourceId(new ResName("org.robolectric", "string", "not_in_the_r_class"))).isNull();
+  }
+
+  @Test
+  public void shouldLookUpIdsFromSeveralThreads() throws Exception {
+    final ResourceIndex systemResourceIndex = new ResourceExtractor(systemResources());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() throws Exception {
+            for (int j = 0; j < 100; j++) {
+              systemResourceIndex.getResourceId(new ResName("android", "string", "assigned_" + j));
+              assertThat(systemResourceIndex.getResName(android.R.id.text1)).isEqualTo(new ResName("android", "id", "text1"));
+            }
+            return systemResourceIndex.getResourceId(new ResName("android", "string", "assigned_99"));
+          }
+        }));
+      }
+      for (Future<Integer> future : futures) {
+        assertThat(future.get()).isEqualTo(futures.get(0).get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void scanningRClasses_shouldFindTheSameIdsAsReflection() throws Exception {
+    for (Class<?> rClass : new Class<?>[] {R.class, org.robolectric.lib1.R.class, android.R.class}) {
+      assertThat(scannedIds(rClass)).isEqualTo(reflectedIds(rClass));
+    }
+  }
+
+  @Test
+  public void scanningRClasses_shouldReadNonFinalFieldsFromTheStaticInitializer() throws Exception {
+    assertThat(scannedIds(org.robolectric.lib1.R.class)).containsEntry("id/lib1_button", org.robolectric.lib1.R.id.lib1_button);
+  }
+
+  @Test
+  public void scanningRClasses_shouldCacheByBytecode() throws Exception {
+    assertThat(RClassScanner.scan(R.class)).isSameAs(RClassScanner.scan(R.class));
+  }
+
+  private static Map<String, Integer> scannedIds(Class<?> rClass) {
+    Map<String, Integer> ids = new HashMap<>();
+    for (RClassScanner.Resource resource : RClassScanner.scan(rClass)) {
+      ids.put(resource.type + "/" + resource.name, resource.id);
+    }
+    return ids;
+  }
+
+  private static Map<String, Integer> reflectedIds(Class<?> rClass) throws IllegalAccessException {
+    Map<String, Integer> ids = new HashMap<>();
+    for (Class<?> innerClass : rClass.getClasses()) {
+      if (innerClass.getSimpleName().equals("styleable")) {
+        continue;
+      }
+      for (Field field : innerClass.getDeclaredFields()) {
+        if (field.getType().equals(Integer.TYPE) && Modifier.isStatic(field.getModifiers())) {
+          ids.put(innerClass.getSimpleName() + "/" + field.getName(), field.getInt(null));
+        }
+      }
+    }
+    return ids;
+  }
 }
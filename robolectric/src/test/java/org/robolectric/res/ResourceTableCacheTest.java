@@ -0,0 +1,137 @@
+package org.robolectric.res;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.robolectric.R;
+import org.robolectric.RoboSettings;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.robolectric.util.TestUtil.TEST_PACKAGE;
+import static org.robolectric.util.TestUtil.testResources;
+
+public class ResourceTableCacheTest {
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private String originalResourceTableCacheDir;
+  private File cacheDir;
+
+  @Before
+  public void setUp() throws Exception {
+    originalResourceTableCacheDir = RoboSettings.getResourceTableCacheDir();
+    cacheDir = temporaryFolder.newFolder("cache");
+    RoboSettings.setResourceTableCacheDir(cacheDir.getPath());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    RoboSettings.setResourceTableCacheDir(originalResourceTableCacheDir);
+  }
+
+  @Test
+  public void shouldLoadTheSameValuesFromTheCache() throws Exception {
+    PackageResourceLoader parsed = new PackageResourceLoader(testResources());
+    parsed.initialize();
+    assertThat(cacheDir.list()).hasSize(1);
+
+    assertThat(newResourceTableCache().read(new ResBunch(), new ResBundle<PluralResourceLoader.PluralRules>())).isTrue();
+
+    PackageResourceLoader cached = new PackageResourceLoader(testResources());
+    cached.initialize();
+    assertThat(cached.data.size()).isEqualTo(parsed.data.size());
+    assertThat(cached.pluralsData.size()).isEqualTo(parsed.pluralsData.size());
+  }
+
+  @Test
+  public void shouldRestoreAllKindsOfValues() throws Exception {
+    new PackageResourceLoader(testResources()).initialize();
+    PackageResourceLoader cached = new PackageResourceLoader(testResources());
+
+    assertThat(cached.getValue(R.string.hello, "").asString()).isEqualTo("Hello");
+    assertThat(cached.getValue(R.bool.different_resource_boolean, "").asString()).isEqualTo("false");
+    assertThat(cached.getValue(R.bool.different_resource_boolean, "w820dp").asString()).isEqualTo("true");
+
+    TypedResource[] items = (TypedResource[]) cached.getValue(R.array.greetings, "").getData();
+    assertThat(items).hasSize(2);
+    assertThat(items[1].asString()).isEqualTo("@string/hello");
+    assertThat(items[1].getResType()).isEqualTo(ResType.CHAR_SEQUENCE);
+
+    AttrData attrData = (AttrData) cached.getValue(R.attr.itemType, "").getData();
+    assertThat(attrData.getFormat()).isEqualTo("enum|enum");
+    assertThat(attrData.getValueFor("ungulate")).isEqualTo("1");
+
+    StyleData styleData = (StyleData) cached.getValue(R.style.Gastropod, "").getData();
+    AttributeResource aspectRatio = styleData.getAttrValue(new ResName(TEST_PACKAGE, "attr", "aspectRatio"));
+    assertThat(aspectRatio.value).isEqualTo("1.69");
+
+    assertThat(cached.getPlural(R.plurals.beer, 2, "").getString()).isEqualTo("Two beers");
+  }
+
+  @Test
+  public void read_shouldLeaveValuesAloneWhenTheCacheIsTruncated() throws Exception {
+    new PackageResourceLoader(testResources()).initialize();
+    File cacheFile = newResourceTableCache().getCacheFile();
+    try (RandomAccessFile file = new RandomAccessFile(cacheFile, "rw")) {
+      file.setLength(file.length() * 3 / 4);
+    }
+
+    ResBunch data = new ResBunch();
+    ResBundle<PluralResourceLoader.PluralRules> pluralsData = new ResBundle<>();
+    assertThat(newResourceTableCache().read(data, pluralsData)).isFalse();
+    assertThat(data.size()).isEqualTo(0);
+    assertThat(pluralsData.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldWriteTheTableAgainWhenItWasWrittenByOtherLoaderCode() throws Exception {
+    new PackageResourceLoader(testResources()).initialize();
+    File cacheFile = newResourceTableCache().getCacheFile();
+    try (RandomAccessFile file = new RandomAccessFile(cacheFile, "rw")) {
+      // the loader digest follows the magic number and format version
+      file.seek(8);
+      int b = file.read();
+      file.seek(8);
+      file.write(b ^ 0xff);
+    }
+
+    assertThat(newResourceTableCache().read(new ResBunch(), new ResBundle<PluralResourceLoader.PluralRules>())).isFalse();
+
+    PackageResourceLoader reparsed = new PackageResourceLoader(testResources());
+    assertThat(reparsed.getValue(R.string.hello, "").asString()).isEqualTo("Hello");
+    assertThat(newResourceTableCache().read(new ResBunch(), new ResBundle<PluralResourceLoader.PluralRules>())).isTrue();
+  }
+
+  @Test
+  public void fingerprint_shouldChangeWhenAValueFileChanges() throws Exception {
+    File valuesDir = new File(temporaryFolder.newFolder("res"), "values");
+    assertThat(valuesDir.mkdir()).isTrue();
+    File strings = new File(valuesDir, "strings.xml");
+    write(strings, "<resources/>");
+    FsFile[] valuesDirs = {Fs.newFile(valuesDir)};
+    String fingerprint = ResourceTableCache.fingerprint(valuesDirs);
+
+    assertThat(ResourceTableCache.fingerprint(valuesDirs)).isEqualTo(fingerprint);
+
+    write(strings, "<resources><string name=\"a\">a</string></resources>");
+    assertThat(ResourceTableCache.fingerprint(valuesDirs)).isNotEqualTo(fingerprint);
+  }
+
+  private ResourceTableCache newResourceTableCache() {
+    ResourcePath resourcePath = testResources();
+    return new ResourceTableCache(cacheDir, resourcePath, DocumentLoader.listDirectories(resourcePath.getResourceBase(), "values"));
+  }
+
+  private static void write(File file, String contents) throws IOException {
+    try (FileWriter writer = new FileWriter(file)) {
+      writer.write(contents);
+    }
+  }
+}
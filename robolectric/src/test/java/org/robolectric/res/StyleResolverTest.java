@@ -0,0 +1,110 @@
+package org.robolectric.res;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.TestRunners;
+import org.robolectric.res.builder.XmlBlock;
+
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.robolectric.util.TestUtil.TEST_PACKAGE;
+
+@RunWith(TestRunners.WithDefaults.class)
+public class StyleResolverTest {
+  private CountingResourceLoader resourceLoader;
+
+  @Before
+  public void setUp() throws Exception {
+    resourceLoader = new CountingResourceLoader(RuntimeEnvironment.getAppResourceLoader());
+  }
+
+  @Test
+  public void getAttrValue_shouldFindAttributesOfParentStyles() throws Exception {
+    Style style = resolve("Theme.AnotherTheme", null, "");
+
+    assertThat(style.getAttrValue(new ResName("android", "attr", "buttonStyle")).value).isEqualTo("@style/Widget.AnotherTheme.Button");
+    assertThat(style.getAttrValue(new ResName("android", "attr", "windowBackground")).value).isEqualTo("@drawable/screen_background_selector_dark");
+    assertThat(style.getAttrValue(new ResName(TEST_PACKAGE, "attr", "snail"))).isNull();
+  }
+
+  @Test
+  public void getAttrValue_shouldFallBackToTheTheme() throws Exception {
+    Style theme = resolve("Theme.AnotherTheme", null, "");
+    Style style = resolve("Widget.AnotherTheme.Button", theme, "");
+
+    assertThat(style.getAttrValue(new ResName("android", "attr", "background")).value).isEqualTo("#ffff0000");
+    assertThat(style.getAttrValue(new ResName(TEST_PACKAGE, "attr", "averageSheepWidth")).value).isEqualTo("42px");
+  }
+
+  @Test
+  public void getAttrValue_shouldOnlyWalkParentsOncePerStyleThemeAndQualifiers() throws Exception {
+    ResName windowBackground = new ResName("android", "attr", "windowBackground");
+    resolve("Theme.AnotherTheme", null, "").getAttrValue(windowBackground);
+
+    Style style = resolve("Theme.AnotherTheme", null, "");
+    int lookups = resourceLoader.getValueCalls;
+    assertThat(style.getAttrValue(windowBackground).value).isEqualTo("@drawable/screen_background_selector_dark");
+    assertThat(style.getAttrValue(new ResName(TEST_PACKAGE, "attr", "snail"))).isNull();
+    assertThat(resourceLoader.getValueCalls).isEqualTo(lookups);
+
+    style = resolve("Theme.AnotherTheme", null, "land");
+    lookups = resourceLoader.getValueCalls;
+    style.getAttrValue(windowBackground);
+    assertThat(resourceLoader.getValueCalls).isGreaterThan(lookups);
+  }
+
+  private Style resolve(String styleName, Style theme, String qualifiers) {
+    ResName resName = new ResName(TEST_PACKAGE, "style", styleName);
+    StyleData styleData = (StyleData) resourceLoader.getValue(resName, qualifiers).getData();
+    return new StyleResolver(resourceLoader, styleData, theme, resName, qualifiers);
+  }
+
+  private static class CountingResourceLoader extends ResourceLoader {
+    private final ResourceLoader delegate;
+    private int getValueCalls;
+
+    CountingResourceLoader(ResourceLoader delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public TypedResource getValue(@NotNull ResName resName, String qualifiers) {
+      getValueCalls++;
+      return delegate.getValue(resName, qualifiers);
+    }
+
+    @Override
+    protected Plural getPlural(ResName resName, int quantity, String qualifiers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public XmlBlock getXml(ResName resName, String qualifiers) {
+      return delegate.getXml(resName, qualifiers);
+    }
+
+    @Override
+    public DrawableNode getDrawableNode(ResName resName, String qualifiers) {
+      return delegate.getDrawableNode(resName, qualifiers);
+    }
+
+    @Override
+    public InputStream getRawValue(ResName resName) {
+      return delegate.getRawValue(resName);
+    }
+
+    @Override
+    public ResourceIndex getResourceIndex() {
+      return delegate.getResourceIndex();
+    }
+
+    @Override
+    public boolean providesFor(String namespace) {
+      return delegate.providesFor(namespace);
+    }
+  }
+}
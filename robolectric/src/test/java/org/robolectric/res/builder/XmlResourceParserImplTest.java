@@ -727,4 +727,40 @@ public class XmlResourceParserImplTest {
     assertThat(parser.getStyleAttribute()).isEqualTo(0);
   }
 
+  @Test
+  public void streamedBlocksShouldParseLikeDocuments() throws Exception {
+    XmlBlockLoader xmlBlockLoader = new XmlBlockLoader(null, "layout");
+    for (FsFile file : testResources().getResourceBase().join("layout").listFiles()) {
+      if (!file.getName().endsWith(".xml")) continue;
+      XmlResourceParser streamed = ResourceParser.from(xmlBlockLoader.parseXmlBlock(file, TEST_PACKAGE), TEST_PACKAGE, resourceLoader);
+      XmlResourceParser parsed = new XmlResourceParserImpl(xmlBlockLoader.parse(file), file.getPath(), TEST_PACKAGE, TEST_PACKAGE, resourceLoader);
+
+      int event;
+      do {
+        event = streamed.next();
+        assertThat(parsed.next()).describedAs(file.getPath()).isEqualTo(event);
+        assertThat(streamed.getDepth()).isEqualTo(parsed.getDepth());
+        assertThat(streamed.getName()).isEqualTo(parsed.getName());
+        assertThat(streamed.getNamespace()).isEqualTo(parsed.getNamespace());
+        assertThat(streamed.getText()).isEqualTo(parsed.getText());
+        assertThat(streamed.getAttributeCount()).isEqualTo(parsed.getAttributeCount());
+        for (int i = 0; i < streamed.getAttributeCount(); i++) {
+          assertThat(streamed.getAttributeNamespace(i)).isEqualTo(parsed.getAttributeNamespace(i));
+          assertThat(streamed.getAttributeName(i)).isEqualTo(parsed.getAttributeName(i));
+          assertThat(streamed.getAttributeValue(i)).isEqualTo(parsed.getAttributeValue(i));
+        }
+      } while (event != XmlResourceParser.END_DOCUMENT);
+    }
+  }
+
+  @Test
+  public void testGetText_shouldSkipCommentsAndCdata() throws Exception {
+    forgeAndOpenDocument("<foo>bar<!-- comment -->baz<![CDATA[qux]]>quux</foo>");
+
+    assertThat(parser.next()).isEqualTo(XmlResourceParser.TEXT);
+    assertThat(parser.getText()).isEqualTo("barbaz");
+    assertThat(parser.next()).isEqualTo(XmlResourceParser.TEXT);
+    assertThat(parser.getText()).isEqualTo("quux");
+    assertThat(parser.next()).isEqualTo(XmlResourceParser.END_TAG);
+  }
 }
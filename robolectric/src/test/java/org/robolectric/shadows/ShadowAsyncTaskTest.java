@@ -164,6 +164,18 @@ public class ShadowAsyncTaskTest {
     transcript.assertEventsSoFar("onPostExecute c");
   }
 
+  @Test
+  public void executeOnExecutor_withTheThreadPoolExecutor_runsOnTheBackgroundScheduler() throws Exception {
+    AsyncTask<String, String, String> asyncTask = new MyAsyncTask();
+
+    asyncTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, "a", "b");
+    transcript.assertEventsSoFar("onPreExecute");
+
+    ShadowApplication.runBackgroundTasks();
+    transcript.assertEventsSoFar("doInBackground a, b");
+    assertThat(asyncTask.getStatus()).isEqualTo(AsyncTask.Status.FINISHED);
+  }
+
   private class MyAsyncTask extends AsyncTask<String, String, String> {
     @Override
     protected void onPreExecute() {
@@ -12,6 +12,7 @@ import org.junit.Test;
 import org.junit.rules.TestName;
 import org.junit.runner.RunWith;
 import org.robolectric.RoboSettings;
+import org.robolectric.Robolectric;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.TestRunners;
 import org.robolectric.util.ReflectionHelpers;
@@ -394,6 +395,53 @@ public class ShadowLooperTest {
     assertThat(s.getCurrentTime()).as("secondEvent:time").isEqualTo(200 + startTime);
   }
 
+  @Test
+  public void runUntilIdle_runsTasksOfAllLoopersAndTheBackgroundSchedulerInTimeOrder() {
+    final ArrayList<String> events = new ArrayList<>();
+    HandlerThread ht = getHandlerThread();
+    ShadowLooper.pauseMainLooper();
+    Robolectric.getBackgroundThreadScheduler().pause();
+    long startTime = RuntimeEnvironment.getMasterScheduler().getCurrentTime();
+
+    new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
+      @Override
+      public void run() {
+        events.add("main");
+      }
+    }, 300);
+    new Handler(ht.getLooper()).postDelayed(new Runnable() {
+      @Override
+      public void run() {
+        events.add("thread");
+      }
+    }, 100);
+    Robolectric.getBackgroundThreadScheduler().postDelayed(new Runnable() {
+      @Override
+      public void run() {
+        events.add("background");
+      }
+    }, 200);
+
+    assertThat(ShadowLooper.runUntilIdle()).isEqualTo(3);
+    assertThat(events).containsExactly("thread", "background", "main");
+    assertThat(RuntimeEnvironment.getMasterScheduler().getCurrentTime()).isEqualTo(startTime + 300);
+    assertThat(Robolectric.getBackgroundThreadScheduler().getCurrentTime()).isEqualTo(startTime + 300);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void runUntilIdle_givesUpOnTasksThatRepostThemselves() {
+    final Handler handler = new Handler(Looper.getMainLooper());
+    ShadowLooper.pauseMainLooper();
+    handler.post(new Runnable() {
+      @Override
+      public void run() {
+        handler.postDelayed(this, 10);
+      }
+    });
+
+    ShadowLooper.runUntilIdle(100);
+  }
+
   @After
   public void tearDown() {
     RoboSettings.setUseGlobalScheduler(false);
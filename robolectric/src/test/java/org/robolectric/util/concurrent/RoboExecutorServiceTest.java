@@ -9,9 +9,11 @@ import org.robolectric.shadows.ShadowApplication;
 import org.robolectric.util.Scheduler;
 import org.robolectric.util.Transcript;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -131,4 +133,59 @@ public class RoboExecutorServiceTest {
     assertThat(executorService.awaitTermination(500, TimeUnit.MILLISECONDS)).isFalse();
     transcript.assertNoEventsSoFar();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void schedule_shouldRunStuffWhenTheClockIsAdvanced() throws Exception {
+    ScheduledFuture<?> future = executorService.schedule(runnable, 10, TimeUnit.SECONDS);
+    assertThat(future.getDelay(TimeUnit.MILLISECONDS)).isEqualTo(10000);
+
+    backgroundScheduler.advanceBy(9999, TimeUnit.MILLISECONDS);
+    transcript.assertNoEventsSoFar();
+
+    backgroundScheduler.advanceBy(1, TimeUnit.MILLISECONDS);
+    transcript.assertEventsSoFar("background event ran");
+    assertThat(future.isDone()).isTrue();
+  }
+
+  @Test
+  public void scheduleAtFixedRate_shouldRunStuffAgainEveryPeriod() throws Exception {
+    executorService.scheduleAtFixedRate(runnable, 100, 1000, TimeUnit.MILLISECONDS);
+
+    backgroundScheduler.advanceBy(100, TimeUnit.MILLISECONDS);
+    transcript.assertEventsSoFar("background event ran");
+
+    backgroundScheduler.advanceBy(2000, TimeUnit.MILLISECONDS);
+    transcript.assertEventsSoFar("background event ran", "background event ran");
+  }
+
+  @Test
+  public void scheduleWithFixedDelay_shouldStopWhenCancelled() throws Exception {
+    ScheduledFuture<?> future = executorService.scheduleWithFixedDelay(runnable, 0, 1, TimeUnit.SECONDS);
+
+    backgroundScheduler.advanceBy(1, TimeUnit.SECONDS);
+    transcript.assertEventsSoFar("background event ran", "background event ran");
+
+    assertThat(future.cancel(false)).isTrue();
+    backgroundScheduler.advanceBy(10, TimeUnit.SECONDS);
+    transcript.assertNoEventsSoFar();
+    assertThat(backgroundScheduler.size()).isEqualTo(0);
+  }
+
+  @Test(timeout = 500)
+  public void invokeAll_shouldRunAllTheTasks() throws Exception {
+    List<Future<String>> futures = executorService.invokeAll(Arrays.asList(new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        return "one";
+      }
+    }, new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        return "two";
+      }
+    }));
+
+    assertThat(futures.get(0).get()).isEqualTo("one");
+    assertThat(futures.get(1).get()).isEqualTo("two");
+  }
+}